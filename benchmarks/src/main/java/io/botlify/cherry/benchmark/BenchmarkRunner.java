@@ -0,0 +1,48 @@
+package io.botlify.cherry.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar.
+ * <p>
+ * Accept the usual JMH command line options and always add the GC profiler,
+ * so the allocation rate per operation is reported next to the throughput.
+ * For instance: {@code java -jar target/benchmarks.jar Period -f 1}.
+ * Below Java 21, the benchmarks of {@link VectorKernelBenchmark.Vector} are excluded,
+ * their forks need the {@code jdk.incubator.vector} module.
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * The benchmarks needing Java 21, the separator of a nested class may be a dot or a dollar.
+     */
+    private static final String VECTOR_BENCHMARKS = "\\.VectorKernelBenchmark.Vector\\.";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(@NotNull final String[] args) throws CommandLineOptionException, RunnerException {
+        final OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class);
+        if (javaVersion() < 21)
+            builder.exclude(VECTOR_BENCHMARKS);
+        final Options options = builder.build();
+        new Runner(options).run();
+    }
+
+    /**
+     * @return The feature version of the running Java, 8 for {@code 1.8}.
+     */
+    private static int javaVersion() {
+        final String version = System.getProperty("java.specification.version");
+        return (Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version));
+    }
+
+}
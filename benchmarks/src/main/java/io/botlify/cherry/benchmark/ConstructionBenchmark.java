@@ -0,0 +1,55 @@
+package io.botlify.cherry.benchmark;
+
+import io.botlify.cherry.time.MonthYear;
+import io.botlify.cherry.time.Period;
+import io.botlify.cherry.time.WeekOfYear;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of the time types from an {@link Instant}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ConstructionBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private Instant[] instants;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        instants = Instants.random(new Random(42), SIZE, 1950, 2050);
+    }
+
+    private @NotNull Instant next() {
+        return (instants[index++ & (SIZE - 1)]);
+    }
+
+    @Benchmark
+    public MonthYear monthYear() {
+        return (new MonthYear(next()));
+    }
+
+    @Benchmark
+    public WeekOfYear weekOfYear() {
+        return (new WeekOfYear(next()));
+    }
+
+    @Benchmark
+    public Period period() {
+        final Instant start = next();
+        return (new Period(start, start.plusSeconds(86400L * 30)));
+    }
+
+}
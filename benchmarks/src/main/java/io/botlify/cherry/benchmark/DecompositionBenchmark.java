@@ -0,0 +1,61 @@
+package io.botlify.cherry.benchmark;
+
+import io.botlify.cherry.time.MonthYear;
+import io.botlify.cherry.time.Period;
+import io.botlify.cherry.time.WeekOfYear;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decomposition of a period into its months and weeks, for short and multi-decade periods.
+ * The lists are iterated so the cost of materializing the buckets is measured too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DecompositionBenchmark {
+
+    /**
+     * The length of the period in days.
+     */
+    @Param({"10", "90", "3650", "18250"})
+    public int days;
+
+    private Period period;
+
+    @Setup
+    public void setup() {
+        final LocalDate start = LocalDate.of(1990, 3, 17);
+        period = new Period(start, start.plusDays(days - 1));
+    }
+
+    @Benchmark
+    public List<MonthYear> toMonthYears() {
+        return (period.toMonthYears());
+    }
+
+    @Benchmark
+    public List<WeekOfYear> toWeekYears() {
+        return (period.toWeekYears());
+    }
+
+    @Benchmark
+    public void iterateMonthYears(final Blackhole blackhole) {
+        for (MonthYear monthYear : period.toMonthYears())
+            blackhole.consume(monthYear);
+    }
+
+    @Benchmark
+    public void iterateWeekYears(final Blackhole blackhole) {
+        for (WeekOfYear weekOfYear : period.toWeekYears())
+            blackhole.consume(weekOfYear);
+    }
+
+}
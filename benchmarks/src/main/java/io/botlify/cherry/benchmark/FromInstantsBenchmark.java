@@ -0,0 +1,51 @@
+package io.botlify.cherry.benchmark;
+
+import io.botlify.cherry.time.MonthYear;
+import io.botlify.cherry.time.MonthYearSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MonthYear#fromInstants} on large inputs, from a list of instants and
+ * from a column of epoch milliseconds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FromInstantsBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<Instant> instants;
+
+    private long[] epochMillis;
+
+    @Setup
+    public void setup() {
+        epochMillis = Instants.randomEpochMillis(new Random(42), size, 1950, 2050);
+        final Instant[] array = new Instant[size];
+        for (int i = 0; i < size; i++)
+            array[i] = Instant.ofEpochMilli(epochMillis[i]);
+        instants = Arrays.asList(array);
+    }
+
+    @Benchmark
+    public List<MonthYear> fromInstantList() {
+        return (MonthYear.fromInstants(instants));
+    }
+
+    @Benchmark
+    public MonthYearSet fromEpochMillis() {
+        return (MonthYear.fromInstants(epochMillis));
+    }
+
+}
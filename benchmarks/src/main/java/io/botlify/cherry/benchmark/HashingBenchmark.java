@@ -0,0 +1,59 @@
+package io.botlify.cherry.benchmark;
+
+import io.botlify.cherry.time.MonthYear;
+import io.botlify.cherry.time.WeekOfYear;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code hashCode} and {@code equals} of the time buckets used as {@link HashMap} keys:
+ * counting a batch of keys into a map, the way the buckets are usually aggregated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HashingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private MonthYear[] monthYears;
+
+    private WeekOfYear[] weekOfYears;
+
+    @Setup
+    public void setup() {
+        final Instant[] instants = Instants.random(new Random(42), size, 1950, 2050);
+        monthYears = new MonthYear[size];
+        weekOfYears = new WeekOfYear[size];
+        for (int i = 0; i < size; i++) {
+            monthYears[i] = new MonthYear(instants[i]);
+            weekOfYears[i] = new WeekOfYear(instants[i]);
+        }
+    }
+
+    @Benchmark
+    public Map<MonthYear, Integer> countMonthYears() {
+        final Map<MonthYear, Integer> counts = new HashMap<>();
+        for (MonthYear monthYear : monthYears)
+            counts.merge(monthYear, 1, Integer::sum);
+        return (counts);
+    }
+
+    @Benchmark
+    public Map<WeekOfYear, Integer> countWeekOfYears() {
+        final Map<WeekOfYear, Integer> counts = new HashMap<>();
+        for (WeekOfYear weekOfYear : weekOfYears)
+            counts.merge(weekOfYear, 1, Integer::sum);
+        return (counts);
+    }
+
+}
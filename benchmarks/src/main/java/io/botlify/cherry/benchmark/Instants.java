@@ -0,0 +1,53 @@
+package io.botlify.cherry.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Random input data shared by the benchmarks.
+ */
+final class Instants {
+
+    private Instants() {
+    }
+
+    /**
+     * Create random instants, uniformly distributed between two years.
+     * @param random The source of randomness.
+     * @param size The number of instants.
+     * @param fromYear The first year, inclusive.
+     * @param toYear The last year, exclusive.
+     * @return The instants.
+     */
+    static @NotNull Instant[] random(@NotNull final Random random, final int size,
+                                     final int fromYear, final int toYear) {
+        final long[] epochMillis = randomEpochMillis(random, size, fromYear, toYear);
+        final Instant[] instants = new Instant[size];
+        for (int i = 0; i < size; i++)
+            instants[i] = Instant.ofEpochMilli(epochMillis[i]);
+        return (instants);
+    }
+
+    /**
+     * Create random epoch milliseconds, uniformly distributed between two years.
+     * @param random The source of randomness.
+     * @param size The number of values.
+     * @param fromYear The first year, inclusive.
+     * @param toYear The last year, exclusive.
+     * @return The epoch milliseconds.
+     */
+    static @NotNull long[] randomEpochMillis(@NotNull final Random random, final int size,
+                                             final int fromYear, final int toYear) {
+        final long from = LocalDate.of(fromYear, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        final long to = LocalDate.of(toYear, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        final long[] epochMillis = new long[size];
+        for (int i = 0; i < size; i++)
+            epochMillis[i] = from + (long)(random.nextDouble() * (to - from));
+        return (epochMillis);
+    }
+
+}
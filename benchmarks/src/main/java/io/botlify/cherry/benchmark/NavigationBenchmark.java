@@ -0,0 +1,60 @@
+package io.botlify.cherry.benchmark;
+
+import io.botlify.cherry.time.MonthYear;
+import io.botlify.cherry.time.WeekOfYear;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walking from one bucket to the next.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class NavigationBenchmark {
+
+    private static final int STEPS = 1000;
+
+    private MonthYear monthYear;
+
+    private WeekOfYear weekOfYear;
+
+    @Setup
+    public void setup() {
+        monthYear = new MonthYear(1, 2000);
+        weekOfYear = new WeekOfYear(1, 2000);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public void nextMonthYear(final Blackhole blackhole) {
+        MonthYear current = monthYear;
+        for (int i = 0; i < STEPS; i++) {
+            current = current.nextMonthYear();
+            blackhole.consume(current);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public void addWeeks(final Blackhole blackhole) {
+        for (int i = 0; i < STEPS; i++)
+            blackhole.consume(weekOfYear.addWeeks(i));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public void nextWeek(final Blackhole blackhole) {
+        WeekOfYear current = weekOfYear;
+        for (int i = 0; i < STEPS; i++) {
+            current = current.nextWeek();
+            blackhole.consume(current);
+        }
+    }
+
+}
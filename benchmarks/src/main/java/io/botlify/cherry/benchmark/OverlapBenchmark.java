@@ -0,0 +1,45 @@
+package io.botlify.cherry.benchmark;
+
+import io.botlify.cherry.time.Period;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Period#isOverlap(Period)} over random pairs of periods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class OverlapBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private Period[] periods;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        periods = new Period[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            final int start = random.nextInt(3650);
+            periods[i] = Period.ofEpochDays(start, start + random.nextInt(365));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int isOverlap() {
+        int count = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (periods[i].isOverlap(periods[(i + 1) & (SIZE - 1)]))
+                count++;
+        }
+        return (count);
+    }
+
+}
@@ -0,0 +1,82 @@
+package io.botlify.cherry.benchmark;
+
+import io.botlify.cherry.time.BucketKernel;
+import io.botlify.cherry.time.Period;
+import io.botlify.cherry.time.PeriodArray;
+import io.botlify.cherry.time.PeriodFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The epoch day kernel of {@link BucketKernel}, on the scalar loop in the forks of this
+ * class and with the Vector API in the forks of {@link Vector}, which add the
+ * {@code jdk.incubator.vector} module. {@link BenchmarkRunner} only runs {@link Vector}
+ * on Java 21 or later, the older versions either reject the option or ignore the module.
+ * The months, weeks and filters stay scalar in both, they are measured to show it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class VectorKernelBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private long[] epochMillis;
+
+    private PeriodArray periods;
+
+    private Period query;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        epochMillis = Instants.randomEpochMillis(random, size, 1950, 2050);
+        final int[] starts = new int[size];
+        final int[] ends = new int[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = random.nextInt(36500) - 7300;
+            ends[i] = starts[i] + random.nextInt(365);
+        }
+        periods = PeriodArray.of(starts, ends);
+        query = Period.ofEpochDays(3650, 7300);
+    }
+
+    @Benchmark
+    public int[] epochDays() {
+        return (BucketKernel.epochDays(epochMillis));
+    }
+
+    @Benchmark
+    public int[] monthIds() {
+        return (BucketKernel.monthIds(epochMillis));
+    }
+
+    @Benchmark
+    public int[] weekIds() {
+        return (BucketKernel.weekIds(epochMillis));
+    }
+
+    @Benchmark
+    public long[] inside() {
+        return (PeriodFilter.inside(epochMillis, query));
+    }
+
+    @Benchmark
+    public long[] selectOverlaps() {
+        return (PeriodFilter.select(periods, query, PeriodFilter.Relation.OVERLAPS));
+    }
+
+    /**
+     * The same benchmarks with the {@code jdk.incubator.vector} module.
+     */
+    @Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public static class Vector extends VectorKernelBenchmark {
+    }
+
+}
@@ -0,0 +1,265 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Base class of the groupings of rows by time bucket, in a compressed sparse row layout.
+ * <p>
+ * The layout is two arrays: the row indexes sorted by bucket (a permutation of the rows,
+ * stable inside a bucket) and, for every bucket between the first and the last one,
+ * the offset of its first row in the permutation. The rows of a bucket are the slice
+ * between its offset and the offset of the next bucket.
+ * <p>
+ * The layout is built with a counting sort: one pass computes the histogram of the
+ * buckets, one pass scatters the rows. In parallel mode, both passes are split in chunks
+ * of rows, each chunk having its own histogram, so the result is the same as in
+ * sequential mode. Instances are immutable and safe to share across threads.
+ * @param <E> The type of the time bucket.
+ */
+abstract class AbstractBucketGroups<E> {
+
+    /**
+     * The minimum number of rows per chunk in parallel mode.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final int MAX_BUCKETS = Integer.MAX_VALUE - 8;
+
+    /**
+     * The key of the first bucket.
+     */
+    final int firstKey;
+
+    /**
+     * The offset of the first row of every bucket, followed by the number of rows.
+     */
+    @NotNull
+    final int[] offsets;
+
+    /**
+     * The row indexes, sorted by bucket.
+     */
+    @NotNull
+    final int[] rows;
+
+    /**
+     * Group the rows by bucket.
+     * @param ids The bucket id of every row.
+     * @param weekIds True if the ids are week ids, which are grouped by epoch week.
+     * @param parallel True to build the layout with the common {@link ForkJoinPool}.
+     */
+    AbstractBucketGroups(@NotNull final int[] ids, final boolean weekIds, final boolean parallel) {
+        final int chunks = parallel ? chunks(ids.length) : 1;
+        final int[] bounds = chunks > 1 ? parallelBounds(ids, weekIds, chunks) : bounds(ids, 0, ids.length, weekIds);
+        final long buckets = ids.length == 0 ? 0 : (long)bounds[1] - bounds[0] + 1;
+        if (buckets > MAX_BUCKETS)
+            throw (new IllegalArgumentException("The ids are spread over too many buckets."));
+        this.firstKey = ids.length == 0 ? 0 : bounds[0];
+        this.offsets = new int[(int)buckets + 1];
+        this.rows = new int[ids.length];
+        // Each chunk needs its own histogram, so the chunks are never smaller than the histogram.
+        final int usedChunks = (int)Math.min(chunks, Math.max(1, ids.length / Math.max(buckets, 1)));
+        if (usedChunks > 1)
+            parallelSort(ids, weekIds, usedChunks);
+        else
+            sort(ids, weekIds);
+    }
+
+    /*
+     $      Key mapping
+     */
+
+    abstract int keyOf(@NotNull E bucket);
+
+    abstract @NotNull E bucketOf(int key);
+
+    /*
+     $      Key operations
+     */
+
+    final int startOfKey(final int key) {
+        final int slot = key - firstKey;
+        if (slot < 0 || slot >= offsets.length - 1)
+            return (0);
+        return (offsets[slot]);
+    }
+
+    final int endOfKey(final int key) {
+        final int slot = key - firstKey;
+        if (slot < 0 || slot >= offsets.length - 1)
+            return (0);
+        return (offsets[slot + 1]);
+    }
+
+    final @NotNull IntBuffer rowsOfKey(final int key) {
+        final int start = startOfKey(key);
+        return (IntBuffer.wrap(rows, start, endOfKey(key) - start).slice().asReadOnlyBuffer());
+    }
+
+    /*
+     $      Public methods
+     */
+
+    /**
+     * Get the number of rows.
+     * @return The number of rows.
+     */
+    public int size() {
+        return (rows.length);
+    }
+
+    /**
+     * Get the number of buckets from the first bucket to the last one, empty buckets included.
+     * @return The number of buckets.
+     */
+    public int bucketCount() {
+        return (offsets.length - 1);
+    }
+
+    /**
+     * Get the number of rows of a bucket.
+     * @param bucket The bucket.
+     * @return The number of rows, 0 if the bucket has no row.
+     */
+    public int count(@NotNull final E bucket) {
+        final int key = keyOf(bucket);
+        return (endOfKey(key) - startOfKey(key));
+    }
+
+    /**
+     * Get the rows of a bucket, as a read-only view of the permutation.
+     * @param bucket The bucket.
+     * @return The row indexes, in increasing order.
+     */
+    public @NotNull IntBuffer rowsOf(@NotNull final E bucket) {
+        return (rowsOfKey(keyOf(bucket)));
+    }
+
+    /**
+     * Call the consumer for every row of a bucket.
+     * @param bucket The bucket.
+     * @param consumer Called with the row indexes, in increasing order.
+     */
+    public void forEachRow(@NotNull final E bucket, @NotNull final IntConsumer consumer) {
+        final int key = keyOf(bucket);
+        final int end = endOfKey(key);
+        for (int i = startOfKey(key); i < end; i++)
+            consumer.accept(rows[i]);
+    }
+
+    /**
+     * Call the action for every bucket having at least one row, in chronological order.
+     * @param action Called with the bucket and a read-only view of its rows.
+     */
+    public void forEach(@NotNull final BiConsumer<? super E, ? super IntBuffer> action) {
+        for (int slot = 0; slot < offsets.length - 1; slot++) {
+            if (offsets[slot] != offsets[slot + 1])
+                action.accept(bucketOf(firstKey + slot), rowsOfKey(firstKey + slot));
+        }
+    }
+
+    /**
+     * Copy the row indexes sorted by bucket.
+     * @return The permutation of the rows.
+     */
+    public @NotNull int[] toRowArray() {
+        return (rows.clone());
+    }
+
+    /**
+     * Copy the offsets of the buckets in the permutation of the rows. The offset at
+     * index {@code i} is the one of the {@code i}-th bucket from the first one, the
+     * last offset is the number of rows.
+     * @return The offsets, one more than the number of buckets.
+     */
+    public @NotNull int[] toOffsetArray() {
+        return (offsets.clone());
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static int key(final int id, final boolean weekIds) {
+        return (weekIds ? WeekOfYear.toEpochWeek(id) : id);
+    }
+
+    private static int chunks(final int length) {
+        final int chunks = Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, length / PARALLEL_THRESHOLD);
+        return (Math.max(chunks, 1));
+    }
+
+    private static @NotNull int[] bounds(@NotNull final int[] ids, final int from, final int to, final boolean weekIds) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            final int key = key(ids[i], weekIds);
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+        return (new int[] {min, max});
+    }
+
+    private void sort(@NotNull final int[] ids, final boolean weekIds) {
+        for (int id : ids)
+            offsets[key(id, weekIds) - firstKey + 1]++;
+        for (int slot = 1; slot < offsets.length; slot++)
+            offsets[slot] += offsets[slot - 1];
+        final int[] cursors = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < ids.length; i++)
+            rows[cursors[key(ids[i], weekIds) - firstKey]++] = i;
+    }
+
+    private static @NotNull int[] parallelBounds(@NotNull final int[] ids, final boolean weekIds, final int chunks) {
+        final int[][] bounds = new int[chunks][];
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, chunk ->
+                bounds[chunk] = bounds(ids, chunkStart(ids.length, chunks, chunk),
+                        chunkStart(ids.length, chunks, chunk + 1), weekIds)));
+        final int[] result = bounds[0];
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            result[0] = Math.min(result[0], bounds[chunk][0]);
+            result[1] = Math.max(result[1], bounds[chunk][1]);
+        }
+        return (result);
+    }
+
+    private void parallelSort(@NotNull final int[] ids, final boolean weekIds, final int chunks) {
+        final int buckets = offsets.length - 1;
+        final int[][] cursors = new int[chunks][];
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, chunk -> {
+            final int[] histogram = new int[buckets];
+            final int end = chunkStart(ids.length, chunks, chunk + 1);
+            for (int i = chunkStart(ids.length, chunks, chunk); i < end; i++)
+                histogram[key(ids[i], weekIds) - firstKey]++;
+            cursors[chunk] = histogram;
+        }));
+        // The rows of a bucket are ordered by chunk, so the layout is stable.
+        int offset = 0;
+        for (int slot = 0; slot < buckets; slot++) {
+            offsets[slot] = offset;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                final int count = cursors[chunk][slot];
+                cursors[chunk][slot] = offset;
+                offset += count;
+            }
+        }
+        offsets[buckets] = offset;
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, chunk -> {
+            final int[] cursor = cursors[chunk];
+            final int end = chunkStart(ids.length, chunks, chunk + 1);
+            for (int i = chunkStart(ids.length, chunks, chunk); i < end; i++)
+                rows[cursor[key(ids[i], weekIds) - firstKey]++] = i;
+        }));
+    }
+
+    private static int chunkStart(final int length, final int chunks, final int chunk) {
+        return ((int)((long)length * chunk / chunks));
+    }
+
+}
@@ -0,0 +1,176 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Base class of the immutable lists of consecutive time buckets.
+ * <p>
+ * A range only stores the dense key of its first bucket and its size, every
+ * bucket is computed on access. {@link #size()}, {@link #get(int)},
+ * {@link #contains(Object)} and {@link #indexOf(Object)} are O(1).
+ * @param <E> The type of the time bucket.
+ */
+abstract class AbstractBucketRange<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * The key of the first bucket.
+     */
+    final int firstKey;
+
+    /**
+     * The number of buckets.
+     */
+    final int size;
+
+    AbstractBucketRange(final int firstKey, final int size) {
+        this.firstKey = firstKey;
+        this.size = Math.max(size, 0);
+    }
+
+    /*
+     $      Key mapping
+     */
+
+    abstract int keyOf(@NotNull E element);
+
+    abstract @NotNull E elementOf(int key);
+
+    abstract boolean isElement(@Nullable Object o);
+
+    abstract @NotNull AbstractBucketRange<E> range(int firstKey, int size);
+
+    /*
+     $      Key operations
+     */
+
+    final boolean containsKey(final int key) {
+        return (key - firstKey >= 0 && key - firstKey < size);
+    }
+
+    final int indexOfKey(final int key) {
+        return (containsKey(key) ? key - firstKey : -1);
+    }
+
+    /*
+     $      List
+     */
+
+    @Override
+    public int size() {
+        return (size);
+    }
+
+    @Override
+    public @NotNull E get(final int index) {
+        if (index < 0 || index >= size)
+            throw (new IndexOutOfBoundsException("Index: " + index + ", size: " + size));
+        return (elementOf(firstKey + index));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(@Nullable final Object o) {
+        return (isElement(o) && containsKey(keyOf((E)o)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int indexOf(@Nullable final Object o) {
+        return (isElement(o) ? indexOfKey(keyOf((E)o)) : -1);
+    }
+
+    @Override
+    public int lastIndexOf(@Nullable final Object o) {
+        return (indexOf(o));
+    }
+
+    @Override
+    public @NotNull List<E> subList(final int fromIndex, final int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw (new IndexOutOfBoundsException("From: " + fromIndex + ", to: " + toIndex + ", size: " + size));
+        return (range(firstKey + fromIndex, toIndex - fromIndex));
+    }
+
+    @Override
+    public @NotNull Spliterator<E> spliterator() {
+        return (new RangeSpliterator(0, size));
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object o) {
+        if (o == this)
+            return (true);
+        if (o != null && o.getClass() == getClass()) {
+            final AbstractBucketRange<?> other = (AbstractBucketRange<?>)o;
+            return (size == other.size && (size == 0 || firstKey == other.firstKey));
+        }
+        return (super.equals(o));
+    }
+
+    @Override
+    public int hashCode() {
+        return (super.hashCode());
+    }
+
+    /**
+     * A spliterator splitting the range of indexes in two halves.
+     */
+    private final class RangeSpliterator implements Spliterator<E> {
+
+        private int index;
+
+        private final int end;
+
+        RangeSpliterator(final int index, final int end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(@NotNull final Consumer<? super E> action) {
+            if (index >= end)
+                return (false);
+            action.accept(elementOf(firstKey + index++));
+            return (true);
+        }
+
+        @Override
+        public void forEachRemaining(@NotNull final Consumer<? super E> action) {
+            final int last = end;
+            for (int i = index; i < last; i++)
+                action.accept(elementOf(firstKey + i));
+            index = last;
+        }
+
+        @Override
+        public @Nullable Spliterator<E> trySplit() {
+            final int middle = (index + end) >>> 1;
+            if (middle <= index)
+                return (null);
+            final Spliterator<E> prefix = new RangeSpliterator(index, middle);
+            index = middle;
+            return (prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return (end - index);
+        }
+
+        @Override
+        public int characteristics() {
+            return (ORDERED | SIZED | SUBSIZED | DISTINCT | SORTED | NONNULL | IMMUTABLE);
+        }
+
+        @Override
+        public @Nullable Comparator<? super E> getComparator() {
+            return (null);
+        }
+
+    }
+
+}
@@ -0,0 +1,436 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Base class of the navigable sets of time buckets stored as a bitset.
+ * <p>
+ * Each element maps to a dense int key and the set stores one bit per key.
+ * Sub sets, head sets, tail sets and descending sets are views sharing the
+ * bitset of the set they come from, limited to a range of keys.
+ * @param <E> The type of the time bucket.
+ */
+abstract class AbstractBucketSet<E extends Comparable<? super E>>
+        extends AbstractSet<E> implements NavigableSet<E> {
+
+    private static final int NONE = IdBitSet.NONE;
+
+    /**
+     * The bits, shared with the views.
+     */
+    @NotNull
+    final IdBitSet bits;
+
+    /**
+     * The lowest key of the view, inclusive.
+     */
+    final int low;
+
+    /**
+     * The highest key of the view, inclusive.
+     */
+    final int high;
+
+    /**
+     * True if the view iterates from the highest key to the lowest key.
+     */
+    final boolean descending;
+
+    AbstractBucketSet(@NotNull final IdBitSet bits,
+                      final int low,
+                      final int high,
+                      final boolean descending) {
+        this.bits = bits;
+        this.low = low;
+        this.high = high;
+        this.descending = descending;
+    }
+
+    /*
+     $      Key mapping
+     */
+
+    /**
+     * Get the key of an element.
+     * @param element The element.
+     * @return The key.
+     */
+    abstract int keyOf(@NotNull E element);
+
+    /**
+     * Get the element of a key.
+     * @param key The key.
+     * @return The element.
+     */
+    abstract @NotNull E elementOf(int key);
+
+    /**
+     * Check if the object can be an element of the set.
+     * @param o The object.
+     * @return True if the object has the type of the elements.
+     */
+    abstract boolean isElement(@Nullable Object o);
+
+    /**
+     * Create a view on the same bits.
+     * @param low The lowest key, inclusive.
+     * @param high The highest key, inclusive.
+     * @param descending The order of the view.
+     * @return The view.
+     */
+    abstract @NotNull AbstractBucketSet<E> view(int low, int high, boolean descending);
+
+    /*
+     $      Key operations
+     */
+
+    final boolean isFull() {
+        return (low == Integer.MIN_VALUE + 1 && high == Integer.MAX_VALUE);
+    }
+
+    final boolean inRange(final int key) {
+        return (key >= low && key <= high);
+    }
+
+    final boolean containsKey(final int key) {
+        return (inRange(key) && bits.get(key));
+    }
+
+    final boolean addKey(final int key) {
+        if (!inRange(key))
+            throw (new IllegalArgumentException("The element is out of the range of the set."));
+        return (bits.set(key));
+    }
+
+    final boolean removeKey(final int key) {
+        return (inRange(key) && bits.clear(key));
+    }
+
+    final void addKeyRange(final int fromKey, final int toKey) {
+        if (fromKey > toKey)
+            throw (new IllegalArgumentException("The start of the range is after its end."));
+        if (!inRange(fromKey) || !inRange(toKey))
+            throw (new IllegalArgumentException("The range is out of the range of the set."));
+        bits.setRange(fromKey, toKey);
+    }
+
+    /**
+     * Find the lowest key set greater or equal to the given key, ignoring the order of the view.
+     */
+    final int ceilingKey(final int key) {
+        final int found = bits.nextSetBit(Math.max(key, low));
+        return (found == NONE || found > high ? NONE : found);
+    }
+
+    /**
+     * Find the highest key set lower or equal to the given key, ignoring the order of the view.
+     */
+    final int floorKey(final int key) {
+        final int found = bits.previousSetBit(Math.min(key, high));
+        return (found == NONE || found < low ? NONE : found);
+    }
+
+    /**
+     * Call the consumer for every key, in the order of the set.
+     * @param consumer The consumer.
+     */
+    final void forEachKey(@NotNull final IntConsumer consumer) {
+        if (descending) {
+            for (int key = floorKey(high); key != NONE; key = key == low ? NONE : floorKey(key - 1))
+                consumer.accept(key);
+        } else {
+            for (int key = ceilingKey(low); key != NONE; key = key == high ? NONE : ceilingKey(key + 1))
+                consumer.accept(key);
+        }
+    }
+
+    /**
+     * Get the number of elements strictly before the given one, in the order of the set.
+     * @param element The element.
+     * @return The rank of the element.
+     */
+    public int rank(@NotNull final E element) {
+        final int key = keyOf(element);
+        if (descending)
+            return (key >= high ? 0 : bits.count(Math.max(key + 1, low), high));
+        return (key <= low ? 0 : bits.count(low, Math.min(key - 1, high)));
+    }
+
+    /*
+     $      Set
+     */
+
+    @Override
+    public int size() {
+        return (isFull() ? bits.cardinality() : bits.count(low, high));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (isFull() ? bits.cardinality() == 0 : ceilingKey(low) == NONE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(@Nullable final Object o) {
+        return (isElement(o) && containsKey(keyOf((E)o)));
+    }
+
+    @Override
+    public boolean add(@NotNull final E element) {
+        return (addKey(keyOf(element)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(@Nullable final Object o) {
+        return (isElement(o) && removeKey(keyOf((E)o)));
+    }
+
+    @Override
+    public void clear() {
+        if (isFull()) {
+            bits.clearAll();
+            return;
+        }
+        for (int key = ceilingKey(low); key != NONE; key = key == high ? NONE : ceilingKey(key + 1))
+            bits.clear(key);
+    }
+
+    @Override
+    public boolean addAll(@NotNull final Collection<? extends E> c) {
+        if (isSameKind(c)) {
+            final int before = bits.cardinality();
+            bits.or(((AbstractBucketSet<?>)c).bits);
+            return (before != bits.cardinality());
+        }
+        return (super.addAll(c));
+    }
+
+    @Override
+    public boolean retainAll(@NotNull final Collection<?> c) {
+        if (isSameKind(c)) {
+            final int before = bits.cardinality();
+            bits.and(((AbstractBucketSet<?>)c).bits);
+            return (before != bits.cardinality());
+        }
+        return (super.retainAll(c));
+    }
+
+    @Override
+    public boolean removeAll(@NotNull final Collection<?> c) {
+        if (isSameKind(c)) {
+            final int before = bits.cardinality();
+            bits.andNot(((AbstractBucketSet<?>)c).bits);
+            return (before != bits.cardinality());
+        }
+        return (super.removeAll(c));
+    }
+
+    /**
+     * Check if the bulk operations can be done word by word with the given collection.
+     */
+    private boolean isSameKind(@NotNull final Collection<?> c) {
+        return (c.getClass() == getClass() && isFull() && ((AbstractBucketSet<?>)c).isFull());
+    }
+
+    @Override
+    public @NotNull Iterator<E> iterator() {
+        return (new KeyIterator(descending));
+    }
+
+    /*
+     $      Navigable set
+     */
+
+    @Override
+    public @Nullable Comparator<? super E> comparator() {
+        return (descending ? Collections.reverseOrder() : null);
+    }
+
+    @Override
+    public @NotNull E first() {
+        final int key = descending ? floorKey(high) : ceilingKey(low);
+        if (key == NONE)
+            throw (new NoSuchElementException());
+        return (elementOf(key));
+    }
+
+    @Override
+    public @NotNull E last() {
+        final int key = descending ? ceilingKey(low) : floorKey(high);
+        if (key == NONE)
+            throw (new NoSuchElementException());
+        return (elementOf(key));
+    }
+
+    @Override
+    public @Nullable E lower(@NotNull final E element) {
+        final int key = keyOf(element);
+        return (elementOrNull(descending ? ceilingKey(key + 1) : floorKey(key - 1)));
+    }
+
+    @Override
+    public @Nullable E floor(@NotNull final E element) {
+        final int key = keyOf(element);
+        return (elementOrNull(descending ? ceilingKey(key) : floorKey(key)));
+    }
+
+    @Override
+    public @Nullable E ceiling(@NotNull final E element) {
+        final int key = keyOf(element);
+        return (elementOrNull(descending ? floorKey(key) : ceilingKey(key)));
+    }
+
+    @Override
+    public @Nullable E higher(@NotNull final E element) {
+        final int key = keyOf(element);
+        return (elementOrNull(descending ? floorKey(key - 1) : ceilingKey(key + 1)));
+    }
+
+    @Override
+    public @Nullable E pollFirst() {
+        final int key = descending ? floorKey(high) : ceilingKey(low);
+        if (key == NONE)
+            return (null);
+        bits.clear(key);
+        return (elementOf(key));
+    }
+
+    @Override
+    public @Nullable E pollLast() {
+        final int key = descending ? ceilingKey(low) : floorKey(high);
+        if (key == NONE)
+            return (null);
+        bits.clear(key);
+        return (elementOf(key));
+    }
+
+    @Override
+    public @NotNull NavigableSet<E> descendingSet() {
+        return (view(low, high, !descending));
+    }
+
+    @Override
+    public @NotNull Iterator<E> descendingIterator() {
+        return (new KeyIterator(!descending));
+    }
+
+    @Override
+    public @NotNull NavigableSet<E> subSet(@NotNull final E fromElement, final boolean fromInclusive,
+                                           @NotNull final E toElement, final boolean toInclusive) {
+        if (compareInOrder(fromElement, toElement) > 0)
+            throw (new IllegalArgumentException("The start of the range is after its end."));
+        return (bounded(fromElement, fromInclusive, toElement, toInclusive));
+    }
+
+    @Override
+    public @NotNull NavigableSet<E> headSet(@NotNull final E toElement, final boolean inclusive) {
+        return (bounded(null, true, toElement, inclusive));
+    }
+
+    @Override
+    public @NotNull NavigableSet<E> tailSet(@NotNull final E fromElement, final boolean inclusive) {
+        return (bounded(fromElement, inclusive, null, true));
+    }
+
+    @Override
+    public @NotNull SortedSet<E> subSet(@NotNull final E fromElement, @NotNull final E toElement) {
+        return (subSet(fromElement, true, toElement, false));
+    }
+
+    @Override
+    public @NotNull SortedSet<E> headSet(@NotNull final E toElement) {
+        return (headSet(toElement, false));
+    }
+
+    @Override
+    public @NotNull SortedSet<E> tailSet(@NotNull final E fromElement) {
+        return (tailSet(fromElement, true));
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private @Nullable E elementOrNull(final int key) {
+        return (key == NONE ? null : elementOf(key));
+    }
+
+    private int compareInOrder(@NotNull final E a, @NotNull final E b) {
+        final int cmp = Integer.compare(keyOf(a), keyOf(b));
+        return (descending ? -cmp : cmp);
+    }
+
+    /**
+     * Create a view limited by elements given in the order of the set.
+     * A null element means no limit on that side.
+     */
+    private @NotNull AbstractBucketSet<E> bounded(@Nullable final E fromElement, final boolean fromInclusive,
+                                                  @Nullable final E toElement, final boolean toInclusive) {
+        int newLow = low;
+        int newHigh = high;
+        final E lowElement = descending ? toElement : fromElement;
+        final boolean lowInclusive = descending ? toInclusive : fromInclusive;
+        final E highElement = descending ? fromElement : toElement;
+        final boolean highInclusive = descending ? fromInclusive : toInclusive;
+        if (lowElement != null) {
+            final int key = keyOf(lowElement);
+            if (key < low || key > (long)high + 1)
+                throw (new IllegalArgumentException("The element is out of the range of the set."));
+            newLow = lowInclusive ? key : key + 1;
+        }
+        if (highElement != null) {
+            final int key = keyOf(highElement);
+            if (key > high || key < (long)low - 1)
+                throw (new IllegalArgumentException("The element is out of the range of the set."));
+            newHigh = highInclusive ? key : key - 1;
+        }
+        return (view(newLow, newHigh, descending));
+    }
+
+    private final class KeyIterator implements Iterator<E> {
+
+        private final boolean reversed;
+
+        private int next;
+
+        private int last = NONE;
+
+        KeyIterator(final boolean reversed) {
+            this.reversed = reversed;
+            this.next = reversed ? floorKey(high) : ceilingKey(low);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return (next != NONE);
+        }
+
+        @Override
+        public E next() {
+            if (next == NONE)
+                throw (new NoSuchElementException());
+            last = next;
+            if (reversed)
+                next = next == low ? NONE : floorKey(next - 1);
+            else
+                next = next == high ? NONE : ceilingKey(next + 1);
+            return (elementOf(last));
+        }
+
+        @Override
+        public void remove() {
+            if (last == NONE)
+                throw (new IllegalStateException());
+            bits.clear(last);
+            last = NONE;
+        }
+
+    }
+
+}
@@ -0,0 +1,296 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Base class of the maps keyed by a time bucket and storing their values in a
+ * dense array indexed by the offset of the bucket from a base bucket.
+ * <p>
+ * The array grows at either end when a bucket outside of it is added.
+ * A null slot is an absent key, so null values are not allowed.
+ * Iteration is in chronological order.
+ * @param <K> The type of the time bucket.
+ * @param <V> The type of the values.
+ */
+abstract class AbstractDenseBucketMap<K, V> extends AbstractMap<K, V> {
+
+    static final int INITIAL_CAPACITY = 16;
+
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * The values, the slot of a key is {@code key - base}.
+     */
+    @NotNull
+    private Object[] values = EMPTY;
+
+    /**
+     * The key of the first slot.
+     */
+    private int base;
+
+    private int size;
+
+    /*
+     $      Key mapping
+     */
+
+    abstract int keyOf(@NotNull K bucket);
+
+    abstract @NotNull K bucketOf(int key);
+
+    abstract boolean isBucket(@Nullable Object o);
+
+    /*
+     $      Key operations
+     */
+
+    @SuppressWarnings("unchecked")
+    final @Nullable V getByKey(final int key) {
+        final int slot = key - base;
+        if (slot < 0 || slot >= values.length)
+            return (null);
+        return ((V)values[slot]);
+    }
+
+    @SuppressWarnings("unchecked")
+    final @Nullable V putByKey(final int key, @NotNull final V value) {
+        Objects.requireNonNull(value, "The value cannot be null.");
+        final int slot = ensureSlot(key);
+        final V old = (V)values[slot];
+        values[slot] = value;
+        if (old == null)
+            size++;
+        return (old);
+    }
+
+    @SuppressWarnings("unchecked")
+    final @Nullable V removeByKey(final int key) {
+        final int slot = key - base;
+        if (slot < 0 || slot >= values.length)
+            return (null);
+        final V old = (V)values[slot];
+        values[slot] = null;
+        if (old != null)
+            size--;
+        return (old);
+    }
+
+    /**
+     * Merge every entry of the other map into this map. When a key is present
+     * in both maps, the function computes the new value from the two values.
+     * @param other The other map.
+     * @param function The merge function.
+     */
+    @SuppressWarnings("unchecked")
+    final void mergeFrom(@NotNull final AbstractDenseBucketMap<K, V> other,
+                         @NotNull final BiFunction<? super V, ? super V, ? extends V> function) {
+        for (int slot = 0; slot < other.values.length; slot++) {
+            final V value = (V)other.values[slot];
+            if (value == null)
+                continue;
+            final int key = other.base + slot;
+            final V old = getByKey(key);
+            if (old == null) {
+                putByKey(key, value);
+                continue;
+            }
+            final V merged = function.apply(old, value);
+            if (merged == null)
+                removeByKey(key);
+            else
+                putByKey(key, merged);
+        }
+    }
+
+    /*
+     $      Map
+     */
+
+    @Override
+    public int size() {
+        return (size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(@Nullable final Object key) {
+        return (isBucket(key) && getByKey(keyOf((K)key)) != null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(@Nullable final Object key) {
+        return (isBucket(key) ? getByKey(keyOf((K)key)) : null);
+    }
+
+    @Override
+    public @Nullable V put(@NotNull final K key, @NotNull final V value) {
+        return (putByKey(keyOf(key), value));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(@Nullable final Object key) {
+        return (isBucket(key) ? removeByKey(keyOf((K)key)) : null);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(@NotNull final BiConsumer<? super K, ? super V> action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null)
+                action.accept(bucketOf(base + slot), (V)values[slot]);
+        }
+    }
+
+    @Override
+    public @NotNull Set<Entry<K, V>> entrySet() {
+        return (new AbstractSet<Entry<K, V>>() {
+            @Override
+            public @NotNull Iterator<Entry<K, V>> iterator() {
+                return (new EntryIterator());
+            }
+
+            @Override
+            public int size() {
+                return (size);
+            }
+
+            @Override
+            public void clear() {
+                AbstractDenseBucketMap.this.clear();
+            }
+        });
+    }
+
+    /*
+     $      Private methods
+     */
+
+    /**
+     * Grow the values so they contain the given key.
+     * @param key The key.
+     * @return The slot of the key.
+     */
+    private int ensureSlot(final int key) {
+        if (values.length == 0) {
+            values = new Object[INITIAL_CAPACITY];
+            base = key;
+            return (0);
+        }
+        final int slot = key - base;
+        if (slot >= 0 && slot < values.length)
+            return (slot);
+        final int shift = shiftOf(values.length, slot);
+        final Object[] grown = new Object[grownLength(values.length, slot, shift)];
+        System.arraycopy(values, 0, grown, shift, values.length);
+        values = grown;
+        base -= shift;
+        return (slot + shift);
+    }
+
+    /**
+     * Compute where the values of an array are moved when it grows to contain a slot.
+     * @param length The length of the array.
+     * @param slot The slot, before the array or after it.
+     * @return The index of the first value in the grown array, 0 if it grows at its end.
+     */
+    static int shiftOf(final int length, final int slot) {
+        return (slot < 0 ? Math.max(-slot, length) : 0);
+    }
+
+    /**
+     * Compute the length of an array grown to contain a slot.
+     * @param length The length of the array.
+     * @param slot The slot, before the array or after it.
+     * @param shift The shift computed by {@link #shiftOf(int, int)}.
+     * @return The length of the grown array.
+     */
+    static int grownLength(final int length, final int slot, final int shift) {
+        return (shift > 0 ? length + shift : Math.max(slot + 1, length * 2));
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private int next = advance(0);
+
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return (next < values.length);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (next >= values.length)
+                throw (new NoSuchElementException());
+            last = next;
+            next = advance(next + 1);
+            final int key = base + last;
+            return (new DenseEntry<>(AbstractDenseBucketMap.this, key, (V)values[last]));
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0)
+                throw (new IllegalStateException());
+            removeByKey(base + last);
+            last = -1;
+        }
+
+        private int advance(int slot) {
+            while (slot < values.length && values[slot] == null)
+                slot++;
+            return (slot);
+        }
+
+    }
+
+    /**
+     * An entry of the map, writing its new values through to the map.
+     * @param <K> The type of the time bucket.
+     * @param <V> The type of the values.
+     */
+    private static final class DenseEntry<K, V> extends SimpleEntry<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final transient AbstractDenseBucketMap<K, V> map;
+
+        private final int key;
+
+        DenseEntry(@NotNull final AbstractDenseBucketMap<K, V> map, final int key, @NotNull final V value) {
+            super(map.bucketOf(key), value);
+            this.map = map;
+            this.key = key;
+        }
+
+        @Override
+        public V setValue(@NotNull final V value) {
+            super.setValue(value);
+            return (map.putByKey(key, value));
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Base class of the maps from a time bucket to a primitive double, the raw bits
+ * of the values are stored by {@link AbstractDensePrimitiveMap}.
+ * @param <K> The type of the time bucket.
+ */
+abstract class AbstractDenseDoubleMap<K> extends AbstractDensePrimitiveMap<K> {
+
+    /*
+     $      Key operations
+     */
+
+    final double getByKey(final int key, final double defaultValue) {
+        return (Double.longBitsToDouble(getBits(key, Double.doubleToRawLongBits(defaultValue))));
+    }
+
+    final double putByKey(final int key, final double value) {
+        return (Double.longBitsToDouble(putBits(key, Double.doubleToRawLongBits(value))));
+    }
+
+    final double addByKey(final int key, final double delta) {
+        final int slot = slotOf(key);
+        final double value = Double.longBitsToDouble(values[slot]) + delta;
+        values[slot] = Double.doubleToRawLongBits(value);
+        return (value);
+    }
+
+    /**
+     * Merge every entry of the other map into this map. When a key is present
+     * in both maps, the operator computes the new value from the two values.
+     * @param other The other map.
+     * @param operator The merge operator.
+     */
+    final void mergeFrom(@NotNull final AbstractDenseDoubleMap<K> other,
+                         @NotNull final DoubleBinaryOperator operator) {
+        for (int key = other.firstKey(); key != IdBitSet.NONE; key = other.nextKey(key)) {
+            final double value = Double.longBitsToDouble(other.values[key - other.base]);
+            putBits(key, Double.doubleToRawLongBits(containsKey(key)
+                    ? operator.applyAsDouble(Double.longBitsToDouble(values[key - base]), value) : value));
+        }
+    }
+
+    /*
+     $      Public methods
+     */
+
+    /**
+     * Get the value of a bucket.
+     * @param bucket The bucket.
+     * @return The value, or 0 if the bucket is absent.
+     */
+    public double get(@NotNull final K bucket) {
+        return (getByKey(keyOf(bucket), 0));
+    }
+
+    /**
+     * Get the value of a bucket.
+     * @param bucket The bucket.
+     * @param defaultValue The value returned if the bucket is absent.
+     * @return The value, or the default value if the bucket is absent.
+     */
+    public double getOrDefault(@NotNull final K bucket, final double defaultValue) {
+        return (getByKey(keyOf(bucket), defaultValue));
+    }
+
+    /**
+     * Set the value of a bucket.
+     * @param bucket The bucket.
+     * @param value The value.
+     * @return The previous value, or 0 if the bucket was absent.
+     */
+    public double put(@NotNull final K bucket, final double value) {
+        return (putByKey(keyOf(bucket), value));
+    }
+
+    /**
+     * Add a delta to the value of a bucket, an absent bucket counts as 0.
+     * @param bucket The bucket.
+     * @param delta The delta to add.
+     * @return The new value.
+     */
+    public double add(@NotNull final K bucket, final double delta) {
+        return (addByKey(keyOf(bucket), delta));
+    }
+
+    /**
+     * Call the action for every bucket, in chronological order.
+     * @param action The action.
+     */
+    public void forEach(@NotNull final ObjDoubleConsumer<? super K> action) {
+        for (int key = firstKey(); key != IdBitSet.NONE; key = nextKey(key))
+            action.accept(bucketOf(key), Double.longBitsToDouble(values[key - base]));
+    }
+
+    /*
+     $      Abstract dense primitive map
+     */
+
+    @Override
+    void appendValue(@NotNull final StringBuilder builder, final long bits) {
+        builder.append(Double.longBitsToDouble(bits));
+    }
+
+}
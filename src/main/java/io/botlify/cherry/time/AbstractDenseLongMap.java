@@ -0,0 +1,107 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.LongBinaryOperator;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Base class of the maps from a time bucket to a primitive long, the values
+ * are stored by {@link AbstractDensePrimitiveMap}.
+ * @param <K> The type of the time bucket.
+ */
+abstract class AbstractDenseLongMap<K> extends AbstractDensePrimitiveMap<K> {
+
+    /*
+     $      Key operations
+     */
+
+    final long getByKey(final int key, final long defaultValue) {
+        return (getBits(key, defaultValue));
+    }
+
+    final long putByKey(final int key, final long value) {
+        return (putBits(key, value));
+    }
+
+    final long addByKey(final int key, final long delta) {
+        final int slot = slotOf(key);
+        return (values[slot] += delta);
+    }
+
+    /**
+     * Merge every entry of the other map into this map. When a key is present
+     * in both maps, the operator computes the new value from the two values.
+     * @param other The other map.
+     * @param operator The merge operator.
+     */
+    final void mergeFrom(@NotNull final AbstractDenseLongMap<K> other,
+                         @NotNull final LongBinaryOperator operator) {
+        for (int key = other.firstKey(); key != IdBitSet.NONE; key = other.nextKey(key)) {
+            final long value = other.values[key - other.base];
+            putBits(key, containsKey(key) ? operator.applyAsLong(values[key - base], value) : value);
+        }
+    }
+
+    /*
+     $      Public methods
+     */
+
+    /**
+     * Get the value of a bucket.
+     * @param bucket The bucket.
+     * @return The value, or 0 if the bucket is absent.
+     */
+    public long get(@NotNull final K bucket) {
+        return (getByKey(keyOf(bucket), 0));
+    }
+
+    /**
+     * Get the value of a bucket.
+     * @param bucket The bucket.
+     * @param defaultValue The value returned if the bucket is absent.
+     * @return The value, or the default value if the bucket is absent.
+     */
+    public long getOrDefault(@NotNull final K bucket, final long defaultValue) {
+        return (getByKey(keyOf(bucket), defaultValue));
+    }
+
+    /**
+     * Set the value of a bucket.
+     * @param bucket The bucket.
+     * @param value The value.
+     * @return The previous value, or 0 if the bucket was absent.
+     */
+    public long put(@NotNull final K bucket, final long value) {
+        return (putByKey(keyOf(bucket), value));
+    }
+
+    /**
+     * Add a delta to the value of a bucket, an absent bucket counts as 0.
+     * @param bucket The bucket.
+     * @param delta The delta to add.
+     * @return The new value.
+     */
+    public long add(@NotNull final K bucket, final long delta) {
+        return (addByKey(keyOf(bucket), delta));
+    }
+
+    /**
+     * Call the action for every bucket, in chronological order.
+     * @param action The action.
+     */
+    public void forEach(@NotNull final ObjLongConsumer<? super K> action) {
+        for (int key = firstKey(); key != IdBitSet.NONE; key = nextKey(key))
+            action.accept(bucketOf(key), values[key - base]);
+    }
+
+    /*
+     $      Abstract dense primitive map
+     */
+
+    @Override
+    void appendValue(@NotNull final StringBuilder builder, final long bits) {
+        builder.append(bits);
+    }
+
+}
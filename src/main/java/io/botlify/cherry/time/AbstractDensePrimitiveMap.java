@@ -0,0 +1,179 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Base class of the maps from a time bucket to a primitive value, storing the values
+ * in a dense array indexed by the offset of the bucket from a base bucket.
+ * <p>
+ * The array grows at either end when a bucket outside of it is added, and a bitset
+ * keeps track of the buckets present. The values are kept as 64 bits, the raw bits of
+ * a double for the double maps, so a subclass only adds its typed accessors. An absent
+ * bucket has the bits 0, that is 0 for a long and 0.0 for a double.
+ * Iteration is in chronological order.
+ * @param <K> The type of the time bucket.
+ */
+abstract class AbstractDensePrimitiveMap<K> {
+
+    /**
+     * The bits of the values, the slot of a key is {@code key - base}.
+     */
+    @NotNull
+    long[] values = new long[0];
+
+    /**
+     * The key of the first slot.
+     */
+    int base;
+
+    /**
+     * The keys present in the map.
+     */
+    @NotNull
+    private final IdBitSet present = new IdBitSet();
+
+    /*
+     $      Key mapping
+     */
+
+    abstract int keyOf(@NotNull K bucket);
+
+    abstract @NotNull K bucketOf(int key);
+
+    abstract void appendValue(@NotNull StringBuilder builder, long bits);
+
+    /*
+     $      Key operations
+     */
+
+    final boolean containsKey(final int key) {
+        return (present.get(key));
+    }
+
+    final long getBits(final int key, final long defaultBits) {
+        return (present.get(key) ? values[key - base] : defaultBits);
+    }
+
+    /**
+     * Set the bits of a key.
+     * @param key The key.
+     * @param bits The bits.
+     * @return The previous bits, or 0 if the key was absent.
+     */
+    final long putBits(final int key, final long bits) {
+        final int slot = ensureSlot(key);
+        final long old = values[slot];
+        values[slot] = bits;
+        present.set(key);
+        return (old);
+    }
+
+    /**
+     * Find the slot of a key, adding the key with the bits 0 if absent.
+     * @param key The key.
+     * @return The slot of the key.
+     */
+    final int slotOf(final int key) {
+        final int slot = ensureSlot(key);
+        present.set(key);
+        return (slot);
+    }
+
+    final boolean removeByKey(final int key) {
+        if (!present.clear(key))
+            return (false);
+        values[key - base] = 0;
+        return (true);
+    }
+
+    /**
+     * @return The first key present, or {@link IdBitSet#NONE}.
+     */
+    final int firstKey() {
+        return (present.nextSetBit(Integer.MIN_VALUE + 1));
+    }
+
+    /**
+     * @param key A key.
+     * @return The first key present after it, or {@link IdBitSet#NONE}.
+     */
+    final int nextKey(final int key) {
+        return (present.nextSetBit(key + 1));
+    }
+
+    /*
+     $      Public methods
+     */
+
+    /**
+     * Check if the map contains a bucket.
+     * @param bucket The bucket.
+     * @return True if the bucket is present.
+     */
+    public boolean containsKey(@NotNull final K bucket) {
+        return (containsKey(keyOf(bucket)));
+    }
+
+    /**
+     * Remove a bucket.
+     * @param bucket The bucket.
+     * @return True if the bucket was present.
+     */
+    public boolean remove(@NotNull final K bucket) {
+        return (removeByKey(keyOf(bucket)));
+    }
+
+    public int size() {
+        return (present.cardinality());
+    }
+
+    public boolean isEmpty() {
+        return (present.cardinality() == 0);
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        present.clearAll();
+    }
+
+    @Override
+    public @NotNull String toString() {
+        final StringBuilder sb = new StringBuilder("{");
+        for (int key = firstKey(); key != IdBitSet.NONE; key = nextKey(key)) {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(bucketOf(key)).append('=');
+            appendValue(sb, values[key - base]);
+        }
+        return (sb.append('}').toString());
+    }
+
+    /*
+     $      Private methods
+     */
+
+    /**
+     * Grow the values so they contain the given key.
+     * @param key The key.
+     * @return The slot of the key.
+     */
+    private int ensureSlot(final int key) {
+        if (values.length == 0) {
+            values = new long[AbstractDenseBucketMap.INITIAL_CAPACITY];
+            base = key;
+            return (0);
+        }
+        final int slot = key - base;
+        if (slot >= 0 && slot < values.length)
+            return (slot);
+        final int shift = AbstractDenseBucketMap.shiftOf(values.length, slot);
+        final long[] grown = new long[AbstractDenseBucketMap.grownLength(values.length, slot, shift)];
+        System.arraycopy(values, 0, grown, shift, values.length);
+        values = grown;
+        base -= shift;
+        return (slot + shift);
+    }
+
+}
@@ -0,0 +1,178 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Clock;
+
+/**
+ * A clock giving the current day, month and week, cached until the next day starts.
+ * <p>
+ * The clock keeps a snapshot of the current buckets with the interval of time where it
+ * is valid, the current day. Reading a bucket reads the time of the underlying
+ * {@link Clock} and the volatile snapshot, and the buckets are only computed again when
+ * the time leaves the interval. The buckets are computed in UTC, or in the zone of a
+ * {@link ZoneTable}; in a zone, the interval also ends at the next offset transition.
+ * The zone of the underlying clock is not used.
+ * <p>
+ * The no-argument constructors of {@link MonthYear} and {@link WeekOfYear} use the default
+ * clock, the system clock in UTC, which can be replaced with {@link #setDefault(BucketClock)},
+ * for example by a clock built on {@link Clock#fixed} in tests.
+ * Instances are safe to share across threads.
+ */
+public final class BucketClock {
+
+    @NotNull
+    private static volatile BucketClock defaultClock = new BucketClock(Clock.systemUTC());
+
+    @NotNull
+    private final Clock clock;
+
+    @Nullable
+    private final ZoneTable zone;
+
+    @NotNull
+    private volatile Snapshot snapshot;
+
+    /**
+     * Create a clock computing the buckets in UTC.
+     * @param clock The source of the current time.
+     */
+    public BucketClock(@NotNull final Clock clock) {
+        this(clock, null);
+    }
+
+    /**
+     * Create a clock computing the buckets in a time zone.
+     * @param clock The source of the current time.
+     * @param zone The time zone, null for UTC.
+     */
+    public BucketClock(@NotNull final Clock clock, @Nullable final ZoneTable zone) {
+        this.clock = clock;
+        this.zone = zone;
+        this.snapshot = snapshot(clock.millis());
+    }
+
+    /*
+     $      Default clock
+     */
+
+    /**
+     * Get the clock used by the no-argument constructors.
+     * @return The default clock.
+     */
+    public static @NotNull BucketClock getDefault() {
+        return (defaultClock);
+    }
+
+    /**
+     * Replace the clock used by the no-argument constructors.
+     * @param clock The new default clock.
+     */
+    public static void setDefault(@NotNull final BucketClock clock) {
+        defaultClock = clock;
+    }
+
+    /*
+     $      Current buckets
+     */
+
+    /**
+     * Get the current day.
+     * @return The epoch day.
+     */
+    public int currentEpochDay() {
+        return (current().epochDay);
+    }
+
+    /**
+     * Get the current month.
+     * @return The month year, a shared instance.
+     */
+    public @NotNull MonthYear currentMonthYear() {
+        return (current().monthYear);
+    }
+
+    /**
+     * Get the current week.
+     * @return The week of year, a shared instance.
+     */
+    public @NotNull WeekOfYear currentWeekOfYear() {
+        return (current().weekOfYear);
+    }
+
+    public @NotNull Clock getClock() {
+        return (clock);
+    }
+
+    public @Nullable ZoneTable getZone() {
+        return (zone);
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private @NotNull Snapshot current() {
+        final long now = clock.millis();
+        final Snapshot current = snapshot;
+        if (now >= current.validFrom && now < current.validUntil)
+            return (current);
+        // Several threads may compute the same snapshot at a boundary, any of them can be kept.
+        final Snapshot next = snapshot(now);
+        snapshot = next;
+        return (next);
+    }
+
+    private @NotNull Snapshot snapshot(final long now) {
+        if (zone == null) {
+            final long day = Math.floorDiv(now, EpochConverter.MILLIS_PER_DAY);
+            final long start = day * EpochConverter.MILLIS_PER_DAY;
+            return (new Snapshot(CalendarMath.checkedEpochDay(day), start, start + EpochConverter.MILLIS_PER_DAY));
+        }
+        if (now >= zone.limit) {
+            // After the table, the offset comes from the rules of the zone, the snapshot is never reused.
+            return (new Snapshot(CalendarMath.checkedEpochDay(zone.localEpochDayOfMillis(now)), now, now));
+        }
+        final int interval = zone.intervalOf(now);
+        final int offset = zone.offsets[interval];
+        final long day = Math.floorDiv(now + offset, EpochConverter.MILLIS_PER_DAY);
+        final long start = day * EpochConverter.MILLIS_PER_DAY - offset;
+        return (new Snapshot(CalendarMath.checkedEpochDay(day), Math.max(start, zone.intervalStart(interval)),
+                Math.min(start + EpochConverter.MILLIS_PER_DAY, zone.intervalEnd(interval))));
+    }
+
+    /**
+     * The buckets of a day, with the interval of time where they are current.
+     */
+    private static final class Snapshot {
+
+        final int epochDay;
+
+        @NotNull
+        final MonthYear monthYear;
+
+        @NotNull
+        final WeekOfYear weekOfYear;
+
+        /**
+         * The first epoch millisecond of the snapshot, inclusive.
+         */
+        final long validFrom;
+
+        /**
+         * The end of the snapshot in epoch milliseconds, exclusive.
+         */
+        final long validUntil;
+
+        Snapshot(final int epochDay, final long validFrom, final long validUntil) {
+            this.epochDay = epochDay;
+            this.monthYear = MonthYear.ofId(CalendarMath.monthIdOfEpochDay(epochDay));
+            this.weekOfYear = WeekOfYear.ofId(CalendarMath.weekIdOfEpochDay(epochDay));
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+
+    }
+
+}
@@ -0,0 +1,601 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.Buffer;
+import java.nio.LongBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bulk conversion of epoch milliseconds to bucket ids.
+ * <p>
+ * Each method reads a column of epoch milliseconds and writes a column of epoch days,
+ * epoch month ids (see {@link MonthYear#getId()}) or ISO week ids
+ * (see {@link WeekOfYear#getId()}), computed in UTC. The calendar is computed with
+ * multiplications and shifts on values shifted to be never negative, so the loops
+ * have no floor division, almost no branch, and allocate nothing per element.
+ * <p>
+ * The timestamps are validated in the same pass: an {@link IllegalArgumentException}
+ * is thrown if one of them is outside the years supported by {@link MonthYear},
+ * in which case the output is partially written.
+ * <p>
+ * The methods taking a {@link ZoneTable} compute the local days, months and weeks
+ * of a time zone: the offset is looked up in the transitions of the zone, and only
+ * when a timestamp is not between the same two transitions as the previous one.
+ * <p>
+ * The {@code parallel} methods split the column in chunks converted by the
+ * common {@link ForkJoinPool}, they are only worth it for large columns.
+ * <p>
+ * On Java 21 with the {@code jdk.incubator.vector} module, the conversions to epoch
+ * days in UTC use the Vector API, see {@link VectorKernel}.
+ */
+public final class BucketKernel {
+
+    /**
+     * Number of days from 0000-03-01 to 1970-01-01.
+     */
+    private static final int DAYS_0000_TO_1970 = 719468;
+
+    private static final int DAYS_PER_CYCLE = 146097;
+
+    /**
+     * Number of 400 years cycles added to the days so the supported
+     * range of years is always positive.
+     */
+    private static final int CYCLE_SHIFT = 2600;
+
+    private static final long DAY_SHIFT = DAYS_0000_TO_1970 + (long)CYCLE_SHIFT * DAYS_PER_CYCLE;
+
+    private static final long YEAR_SHIFT = CYCLE_SHIFT * 400L;
+
+    /**
+     * A multiple of 7 added to the days so the day of week is a plain remainder.
+     */
+    private static final int WEEK_SHIFT = 7 * 53_000_000;
+
+    /**
+     * Below this number of elements, a parallel task is not split anymore.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final int DAY = 0;
+
+    private static final int MONTH = 1;
+
+    private static final int WEEK = 2;
+
+    private BucketKernel() {
+    }
+
+    /*
+     $      Epoch day
+     */
+
+    /**
+     * Convert epoch milliseconds to epoch days.
+     * @param epochMillis The epoch milliseconds.
+     * @return A new array with the epoch days.
+     */
+    public static @NotNull int[] epochDays(@NotNull final long[] epochMillis) {
+        final int[] out = new int[epochMillis.length];
+        convert(DAY, epochMillis, 0, epochMillis.length, out, 0, null);
+        return (out);
+    }
+
+    /**
+     * Convert a range of epoch milliseconds to epoch days.
+     * @param epochMillis The epoch milliseconds.
+     * @param fromIndex The first index to convert, inclusive.
+     * @param toIndex The last index to convert, exclusive.
+     * @param out The array receiving the epoch days.
+     * @param outOffset The index in {@code out} of the first epoch day.
+     */
+    public static void epochDays(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                                 @NotNull final int[] out, final int outOffset) {
+        checkRange(epochMillis.length, fromIndex, toIndex, out.length, outOffset);
+        convert(DAY, epochMillis, fromIndex, toIndex, out, outOffset, null);
+    }
+
+    /**
+     * Convert the remaining epoch milliseconds of a buffer to epoch days,
+     * the position of the buffer is moved to its limit.
+     * @param epochMillis The epoch milliseconds.
+     * @param out The array receiving the epoch days.
+     * @param outOffset The index in {@code out} of the first epoch day.
+     */
+    public static void epochDays(@NotNull final LongBuffer epochMillis, @NotNull final int[] out, final int outOffset) {
+        convert(DAY, epochMillis, out, outOffset);
+    }
+
+    /**
+     * Convert epoch milliseconds to epoch days in parallel.
+     * @param epochMillis The epoch milliseconds.
+     * @return A new array with the epoch days.
+     */
+    public static @NotNull int[] parallelEpochDays(@NotNull final long[] epochMillis) {
+        final int[] out = new int[epochMillis.length];
+        parallel(DAY, epochMillis, out, null);
+        return (out);
+    }
+
+    /**
+     * Convert epoch milliseconds to local epoch days in a time zone.
+     * @param epochMillis The epoch milliseconds.
+     * @param zone The time zone.
+     * @return A new array with the epoch days.
+     */
+    public static @NotNull int[] epochDays(@NotNull final long[] epochMillis, @NotNull final ZoneTable zone) {
+        final int[] out = new int[epochMillis.length];
+        convert(DAY, epochMillis, 0, epochMillis.length, out, 0, zone);
+        return (out);
+    }
+
+    /**
+     * Convert a range of epoch milliseconds to local epoch days in a time zone.
+     * @param epochMillis The epoch milliseconds.
+     * @param fromIndex The first index to convert, inclusive.
+     * @param toIndex The last index to convert, exclusive.
+     * @param out The array receiving the epoch days.
+     * @param outOffset The index in {@code out} of the first epoch day.
+     * @param zone The time zone.
+     */
+    public static void epochDays(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                                 @NotNull final int[] out, final int outOffset, @NotNull final ZoneTable zone) {
+        checkRange(epochMillis.length, fromIndex, toIndex, out.length, outOffset);
+        convert(DAY, epochMillis, fromIndex, toIndex, out, outOffset, zone);
+    }
+
+    /**
+     * Convert epoch milliseconds to local epoch days in a time zone, in parallel.
+     * @param epochMillis The epoch milliseconds.
+     * @param zone The time zone.
+     * @return A new array with the epoch days.
+     */
+    public static @NotNull int[] parallelEpochDays(@NotNull final long[] epochMillis, @NotNull final ZoneTable zone) {
+        final int[] out = new int[epochMillis.length];
+        parallel(DAY, epochMillis, out, zone);
+        return (out);
+    }
+
+    /*
+     $      Month id
+     */
+
+    /**
+     * Convert epoch milliseconds to epoch month ids.
+     * @param epochMillis The epoch milliseconds.
+     * @return A new array with the month ids.
+     */
+    public static @NotNull int[] monthIds(@NotNull final long[] epochMillis) {
+        final int[] out = new int[epochMillis.length];
+        convert(MONTH, epochMillis, 0, epochMillis.length, out, 0, null);
+        return (out);
+    }
+
+    /**
+     * Convert a range of epoch milliseconds to epoch month ids.
+     * @param epochMillis The epoch milliseconds.
+     * @param fromIndex The first index to convert, inclusive.
+     * @param toIndex The last index to convert, exclusive.
+     * @param out The array receiving the month ids.
+     * @param outOffset The index in {@code out} of the first month id.
+     */
+    public static void monthIds(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                                @NotNull final int[] out, final int outOffset) {
+        checkRange(epochMillis.length, fromIndex, toIndex, out.length, outOffset);
+        convert(MONTH, epochMillis, fromIndex, toIndex, out, outOffset, null);
+    }
+
+    /**
+     * Convert the remaining epoch milliseconds of a buffer to epoch month ids,
+     * the position of the buffer is moved to its limit.
+     * @param epochMillis The epoch milliseconds.
+     * @param out The array receiving the month ids.
+     * @param outOffset The index in {@code out} of the first month id.
+     */
+    public static void monthIds(@NotNull final LongBuffer epochMillis, @NotNull final int[] out, final int outOffset) {
+        convert(MONTH, epochMillis, out, outOffset);
+    }
+
+    /**
+     * Convert epoch milliseconds to epoch month ids in parallel.
+     * @param epochMillis The epoch milliseconds.
+     * @return A new array with the month ids.
+     */
+    public static @NotNull int[] parallelMonthIds(@NotNull final long[] epochMillis) {
+        final int[] out = new int[epochMillis.length];
+        parallel(MONTH, epochMillis, out, null);
+        return (out);
+    }
+
+    /**
+     * Convert epoch milliseconds to local epoch month ids in a time zone.
+     * @param epochMillis The epoch milliseconds.
+     * @param zone The time zone.
+     * @return A new array with the month ids.
+     */
+    public static @NotNull int[] monthIds(@NotNull final long[] epochMillis, @NotNull final ZoneTable zone) {
+        final int[] out = new int[epochMillis.length];
+        convert(MONTH, epochMillis, 0, epochMillis.length, out, 0, zone);
+        return (out);
+    }
+
+    /**
+     * Convert a range of epoch milliseconds to local epoch month ids in a time zone.
+     * @param epochMillis The epoch milliseconds.
+     * @param fromIndex The first index to convert, inclusive.
+     * @param toIndex The last index to convert, exclusive.
+     * @param out The array receiving the month ids.
+     * @param outOffset The index in {@code out} of the first month id.
+     * @param zone The time zone.
+     */
+    public static void monthIds(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                                @NotNull final int[] out, final int outOffset, @NotNull final ZoneTable zone) {
+        checkRange(epochMillis.length, fromIndex, toIndex, out.length, outOffset);
+        convert(MONTH, epochMillis, fromIndex, toIndex, out, outOffset, zone);
+    }
+
+    /**
+     * Convert epoch milliseconds to local epoch month ids in a time zone, in parallel.
+     * @param epochMillis The epoch milliseconds.
+     * @param zone The time zone.
+     * @return A new array with the month ids.
+     */
+    public static @NotNull int[] parallelMonthIds(@NotNull final long[] epochMillis, @NotNull final ZoneTable zone) {
+        final int[] out = new int[epochMillis.length];
+        parallel(MONTH, epochMillis, out, zone);
+        return (out);
+    }
+
+    /*
+     $      Week id
+     */
+
+    /**
+     * Convert epoch milliseconds to ISO week ids.
+     * @param epochMillis The epoch milliseconds.
+     * @return A new array with the week ids.
+     */
+    public static @NotNull int[] weekIds(@NotNull final long[] epochMillis) {
+        final int[] out = new int[epochMillis.length];
+        convert(WEEK, epochMillis, 0, epochMillis.length, out, 0, null);
+        return (out);
+    }
+
+    /**
+     * Convert a range of epoch milliseconds to ISO week ids.
+     * @param epochMillis The epoch milliseconds.
+     * @param fromIndex The first index to convert, inclusive.
+     * @param toIndex The last index to convert, exclusive.
+     * @param out The array receiving the week ids.
+     * @param outOffset The index in {@code out} of the first week id.
+     */
+    public static void weekIds(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                               @NotNull final int[] out, final int outOffset) {
+        checkRange(epochMillis.length, fromIndex, toIndex, out.length, outOffset);
+        convert(WEEK, epochMillis, fromIndex, toIndex, out, outOffset, null);
+    }
+
+    /**
+     * Convert the remaining epoch milliseconds of a buffer to ISO week ids,
+     * the position of the buffer is moved to its limit.
+     * @param epochMillis The epoch milliseconds.
+     * @param out The array receiving the week ids.
+     * @param outOffset The index in {@code out} of the first week id.
+     */
+    public static void weekIds(@NotNull final LongBuffer epochMillis, @NotNull final int[] out, final int outOffset) {
+        convert(WEEK, epochMillis, out, outOffset);
+    }
+
+    /**
+     * Convert epoch milliseconds to ISO week ids in parallel.
+     * @param epochMillis The epoch milliseconds.
+     * @return A new array with the week ids.
+     */
+    public static @NotNull int[] parallelWeekIds(@NotNull final long[] epochMillis) {
+        final int[] out = new int[epochMillis.length];
+        parallel(WEEK, epochMillis, out, null);
+        return (out);
+    }
+
+    /**
+     * Convert epoch milliseconds to local ISO week ids in a time zone.
+     * @param epochMillis The epoch milliseconds.
+     * @param zone The time zone.
+     * @return A new array with the week ids.
+     */
+    public static @NotNull int[] weekIds(@NotNull final long[] epochMillis, @NotNull final ZoneTable zone) {
+        final int[] out = new int[epochMillis.length];
+        convert(WEEK, epochMillis, 0, epochMillis.length, out, 0, zone);
+        return (out);
+    }
+
+    /**
+     * Convert a range of epoch milliseconds to local ISO week ids in a time zone.
+     * @param epochMillis The epoch milliseconds.
+     * @param fromIndex The first index to convert, inclusive.
+     * @param toIndex The last index to convert, exclusive.
+     * @param out The array receiving the week ids.
+     * @param outOffset The index in {@code out} of the first week id.
+     * @param zone The time zone.
+     */
+    public static void weekIds(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                               @NotNull final int[] out, final int outOffset, @NotNull final ZoneTable zone) {
+        checkRange(epochMillis.length, fromIndex, toIndex, out.length, outOffset);
+        convert(WEEK, epochMillis, fromIndex, toIndex, out, outOffset, zone);
+    }
+
+    /**
+     * Convert epoch milliseconds to local ISO week ids in a time zone, in parallel.
+     * @param epochMillis The epoch milliseconds.
+     * @param zone The time zone.
+     * @return A new array with the week ids.
+     */
+    public static @NotNull int[] parallelWeekIds(@NotNull final long[] epochMillis, @NotNull final ZoneTable zone) {
+        final int[] out = new int[epochMillis.length];
+        parallel(WEEK, epochMillis, out, zone);
+        return (out);
+    }
+
+    /*
+     $      Kernels
+     */
+
+    /**
+     * Convert epoch milliseconds to an epoch day, without floor division.
+     * The result is only meaningful when it is in the supported range.
+     */
+    static long epochDay(final long epochMillis) {
+        // Negative values are moved down by (MILLIS_PER_DAY - 1) so the truncating division rounds down.
+        return ((epochMillis - ((epochMillis >> 63) & (EpochConverter.MILLIS_PER_DAY - 1))) / EpochConverter.MILLIS_PER_DAY);
+    }
+
+    /**
+     * Compute the epoch month id of an epoch day in the supported range.
+     */
+    static int monthId(final int epochDay) {
+        // Neri-Schneider: the divisions of the civil algorithm become multiplications and shifts.
+        final long n = 4 * (epochDay + DAY_SHIFT) + 3;
+        final long century = n / DAYS_PER_CYCLE;
+        final long p = 2939745L * ((n - century * DAYS_PER_CYCLE) | 3);
+        final long dayOfYear = (p & 0xFFFFFFFFL) / 11758980L;
+        final long year = 100 * century + (p >>> 32) - YEAR_SHIFT;
+        // The month counts from 3 (March) to 14 (February of the next year).
+        final long month = (2141 * dayOfYear + 197913) >>> 16;
+        return ((int)((year - 1970) * 12 + month - 1));
+    }
+
+    /**
+     * Compute the ISO week id of an epoch day in the supported range.
+     */
+    static int weekId(final int epochDay) {
+        // The week-based year of a day is the calendar year of the Thursday of its week.
+        final int thursday = epochDay + 3 - (epochDay + 3 + WEEK_SHIFT) % 7;
+        final long n = 4 * (thursday + DAY_SHIFT) + 3;
+        final long century = n / DAYS_PER_CYCLE;
+        final long p = 2939745L * ((n - century * DAYS_PER_CYCLE) | 3);
+        final long yearOfCentury = p >>> 32;
+        final long marchDayOfYear = (p & 0xFFFFFFFFL) / 11758980L;
+        // The year counts from March, January and February belong to the next calendar year.
+        final boolean janFeb = marchDayOfYear >= 306;
+        final int leap = (yearOfCentury & 3) == 0 && (yearOfCentury != 0 || (century & 3) == 0) ? 1 : 0;
+        final long dayOfYear = janFeb ? marchDayOfYear - 306 : marchDayOfYear + 59 + leap;
+        final long year = 100 * century + yearOfCentury - YEAR_SHIFT + (janFeb ? 1 : 0);
+        return ((int)(year * WeekOfYear.WEEKS_PER_ID_YEAR + dayOfYear / 7));
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static void convert(final int kind, @NotNull final long[] epochMillis, final int fromIndex,
+                                final int toIndex, @NotNull final int[] out, final int outOffset,
+                                @Nullable final ZoneTable zone) {
+        final long start = Instrumentation.start();
+        final Object event = FlightEvents.begin(FlightEvents.BULK_CONVERSION);
+        if (zone != null)
+            convertInZone(kind, epochMillis, fromIndex, toIndex, out, outOffset, zone);
+        else
+            convertInUtc(kind, epochMillis, fromIndex, toIndex, out, outOffset);
+        if (event != null)
+            FlightEvents.commit(event, kind == DAY ? "BucketKernel.epochDays" : kind == MONTH ? "BucketKernel.monthIds"
+                    : "BucketKernel.weekIds", toIndex - fromIndex, toIndex - fromIndex, zone == null ? null : zone.getZone().getId());
+        Instrumentation.record(operation(kind), toIndex - fromIndex, start);
+    }
+
+    private static void convertInUtc(final int kind, @NotNull final long[] epochMillis, final int fromIndex,
+                                     final int toIndex, @NotNull final int[] out, final int outOffset) {
+        // The range check is accumulated in a single value so the loops stay branch-free.
+        long invalid = 0;
+        final int shift = outOffset - fromIndex;
+        switch (kind) {
+            case DAY:
+                invalid = VectorKernel.AVAILABLE && toIndex - fromIndex >= VectorKernel.MIN_LENGTH
+                        ? VectorKernel.epochDays(epochMillis, fromIndex, toIndex, out, outOffset)
+                        : epochDaysInUtc(epochMillis, fromIndex, toIndex, out, outOffset);
+                break;
+            case MONTH:
+                for (int i = fromIndex; i < toIndex; i++) {
+                    final long day = epochDay(epochMillis[i]);
+                    invalid |= (day - CalendarMath.MIN_EPOCH_DAY) | (CalendarMath.MAX_EPOCH_DAY - day);
+                    out[i + shift] = monthId((int)day);
+                }
+                break;
+            default:
+                for (int i = fromIndex; i < toIndex; i++) {
+                    final long day = epochDay(epochMillis[i]);
+                    invalid |= (day - CalendarMath.MIN_EPOCH_DAY) | (CalendarMath.MAX_EPOCH_DAY - day);
+                    out[i + shift] = weekId((int)day);
+                }
+                break;
+        }
+        if (invalid < 0)
+            throw (invalidTimestamp(epochMillis, fromIndex, toIndex, null));
+    }
+
+    /**
+     * Convert a range of epoch milliseconds to epoch days in UTC, without throwing.
+     * @param epochMillis The epoch milliseconds.
+     * @param fromIndex The first index to convert, inclusive.
+     * @param toIndex The last index to convert, exclusive.
+     * @param out The array receiving the epoch days.
+     * @param outOffset The index in {@code out} of the first epoch day.
+     * @return A negative value if a timestamp is out of the supported range.
+     */
+    static long epochDaysInUtc(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                               @NotNull final int[] out, final int outOffset) {
+        long invalid = 0;
+        final int shift = outOffset - fromIndex;
+        for (int i = fromIndex; i < toIndex; i++) {
+            final long day = epochDay(epochMillis[i]);
+            invalid |= (day - CalendarMath.MIN_EPOCH_DAY) | (CalendarMath.MAX_EPOCH_DAY - day);
+            out[i + shift] = (int)day;
+        }
+        return (invalid);
+    }
+
+    private static void convertInZone(final int kind, @NotNull final long[] epochMillis, final int fromIndex,
+                                      final int toIndex, @NotNull final int[] out, final int outOffset,
+                                      @NotNull final ZoneTable zone) {
+        long invalid = 0;
+        final int shift = outOffset - fromIndex;
+        // The offset is only searched again when a timestamp leaves the current interval.
+        long intervalStart = 0;
+        long intervalEnd = 0;
+        int offset = 0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            final long millis = epochMillis[i];
+            if (millis < intervalStart || millis >= intervalEnd) {
+                if (millis >= zone.limit) {
+                    offset = zone.getOffsetMillis(millis);
+                    intervalStart = 0;
+                    intervalEnd = 0;
+                } else {
+                    final int interval = zone.intervalOf(millis);
+                    offset = zone.offsets[interval];
+                    intervalStart = zone.intervalStart(interval);
+                    intervalEnd = zone.intervalEnd(interval);
+                }
+            }
+            final long day = epochDay(millis + offset);
+            invalid |= (day - CalendarMath.MIN_EPOCH_DAY) | (CalendarMath.MAX_EPOCH_DAY - day)
+                    | ((millis ^ (millis + offset)) & (offset ^ (millis + offset)));
+            out[i + shift] = kind == DAY ? (int)day : kind == MONTH ? monthId((int)day) : weekId((int)day);
+        }
+        if (invalid < 0)
+            throw (invalidTimestamp(epochMillis, fromIndex, toIndex, zone));
+    }
+
+    private static void convert(final int kind, @NotNull final LongBuffer epochMillis,
+                                @NotNull final int[] out, final int outOffset) {
+        final int length = epochMillis.remaining();
+        if (epochMillis.hasArray()) {
+            final int from = epochMillis.arrayOffset() + epochMillis.position();
+            checkRange(epochMillis.array().length, from, from + length, out.length, outOffset);
+            convert(kind, epochMillis.array(), from, from + length, out, outOffset, null);
+            ((Buffer) epochMillis).position(epochMillis.limit());
+            return;
+        }
+        checkRange(length, 0, length, out.length, outOffset);
+        final long start = Instrumentation.start();
+        final int position = epochMillis.position();
+        long invalid = 0;
+        for (int i = 0; i < length; i++) {
+            final long day = epochDay(epochMillis.get(position + i));
+            invalid |= (day - CalendarMath.MIN_EPOCH_DAY) | (CalendarMath.MAX_EPOCH_DAY - day);
+            out[outOffset + i] = kind == DAY ? (int)day : kind == MONTH ? monthId((int)day) : weekId((int)day);
+        }
+        if (invalid < 0) {
+            final long[] values = new long[length];
+            epochMillis.get(values);
+            throw (invalidTimestamp(values, 0, length, null));
+        }
+        ((Buffer) epochMillis).position(epochMillis.limit());
+        Instrumentation.record(operation(kind), length, start);
+    }
+
+    private static void parallel(final int kind, @NotNull final long[] epochMillis, @NotNull final int[] out,
+                                 @Nullable final ZoneTable zone) {
+        if (epochMillis.length <= PARALLEL_THRESHOLD)
+            convert(kind, epochMillis, 0, epochMillis.length, out, 0, zone);
+        else
+            ForkJoinPool.commonPool().invoke(new ConvertTask(kind, epochMillis, 0, epochMillis.length, out, zone));
+    }
+
+    private static @NotNull TimeMetrics.Operation operation(final int kind) {
+        return (kind == DAY ? TimeMetrics.Operation.BULK_EPOCH_DAYS
+                : kind == MONTH ? TimeMetrics.Operation.BULK_MONTH_IDS : TimeMetrics.Operation.BULK_WEEK_IDS);
+    }
+
+    private static void checkRange(final int length, final int fromIndex, final int toIndex,
+                                   final int outLength, final int outOffset) {
+        if (fromIndex < 0 || toIndex > length || fromIndex > toIndex)
+            throw (new IndexOutOfBoundsException("From: " + fromIndex + ", to: " + toIndex + ", length: " + length));
+        if (outOffset < 0 || outOffset > outLength - (toIndex - fromIndex))
+            throw (new IndexOutOfBoundsException("The output array is too small."));
+    }
+
+    private static @NotNull IllegalArgumentException invalidTimestamp(@NotNull final long[] epochMillis,
+                                                                     final int fromIndex, final int toIndex,
+                                                                     @Nullable final ZoneTable zone) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            final long offset = zone == null ? 0 : zone.getOffsetMillis(epochMillis[i]);
+            final long local = epochMillis[i] + offset;
+            final boolean overflow = ((epochMillis[i] ^ local) & (offset ^ local)) < 0;
+            final long day = epochDay(local);
+            if (overflow || day < CalendarMath.MIN_EPOCH_DAY || day > CalendarMath.MAX_EPOCH_DAY)
+                return (new IllegalArgumentException("The timestamp " + epochMillis[i] + " at index " + i
+                        + " is out of the supported range."));
+        }
+        return (new IllegalArgumentException("A timestamp is out of the supported range."));
+    }
+
+    /**
+     * Convert a range of the column, split in two halves until it is small enough.
+     */
+    private static final class ConvertTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int kind;
+
+        @NotNull
+        private final long[] epochMillis;
+
+        private final int fromIndex;
+
+        private final int toIndex;
+
+        @NotNull
+        private final int[] out;
+
+        @Nullable
+        private final transient ZoneTable zone;
+
+        ConvertTask(final int kind, @NotNull final long[] epochMillis,
+                    final int fromIndex, final int toIndex, @NotNull final int[] out,
+                    @Nullable final ZoneTable zone) {
+            this.kind = kind;
+            this.epochMillis = epochMillis;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.out = out;
+            this.zone = zone;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex <= PARALLEL_THRESHOLD) {
+                convert(kind, epochMillis, fromIndex, toIndex, out, fromIndex, zone);
+                return;
+            }
+            final int middle = (fromIndex + toIndex) >>> 1;
+            invokeAll(new ConvertTask(kind, epochMillis, fromIndex, middle, out, zone),
+                    new ConvertTask(kind, epochMillis, middle, toIndex, out, zone));
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A precomputed lookup table from epoch day to epoch month id and ISO week id,
+ * for a range of years.
+ * <p>
+ * Inside the range, a conversion is one subtraction and one array read.
+ * Outside the range, the table falls back to the arithmetic of {@link EpochConverter},
+ * so every epoch day is accepted. A table covering 1970 to 2100 uses about 380 KB.
+ * Instances are immutable and safe to share across threads.
+ */
+public final class BucketTable {
+
+    private final int firstEpochDay;
+
+    @NotNull
+    private final int[] monthIds;
+
+    @NotNull
+    private final int[] weekIds;
+
+    /**
+     * Build the table for every day from the 1st of January of the first year
+     * to the 31st of December of the last year.
+     * @param fromYear The first year, inclusive.
+     * @param toYear The last year, inclusive.
+     */
+    public BucketTable(final int fromYear, final int toYear) {
+        CalendarMath.checkYear(fromYear);
+        CalendarMath.checkYear(toYear);
+        if (fromYear > toYear)
+            throw (new IllegalArgumentException("The first year is after the last year."));
+        this.firstEpochDay = CalendarMath.epochDay(fromYear, 1, 1);
+        final int length = CalendarMath.epochDay(toYear + 1, 1, 1) - firstEpochDay;
+        this.monthIds = new int[length];
+        this.weekIds = new int[length];
+        int monthId = CalendarMath.monthIdOfEpochDay(firstEpochDay);
+        int nextMonthDay = CalendarMath.firstEpochDayOfMonth(monthId + 1);
+        int weekId = CalendarMath.weekIdOfEpochDay(firstEpochDay);
+        int dayOfWeek = CalendarMath.dayOfWeek(firstEpochDay);
+        for (int i = 0; i < length; i++) {
+            final int epochDay = firstEpochDay + i;
+            if (epochDay == nextMonthDay) {
+                monthId++;
+                nextMonthDay = CalendarMath.firstEpochDayOfMonth(monthId + 1);
+            }
+            if (dayOfWeek == 8) {
+                weekId = CalendarMath.weekIdOfEpochDay(epochDay);
+                dayOfWeek = 1;
+            }
+            monthIds[i] = monthId;
+            weekIds[i] = weekId;
+            dayOfWeek++;
+        }
+    }
+
+    /**
+     * Convert an epoch day to an epoch month id.
+     * @param epochDay The epoch day.
+     * @return The epoch month id.
+     */
+    public int monthIdOfEpochDay(final int epochDay) {
+        final int index = epochDay - firstEpochDay;
+        if (index >= 0 && index < monthIds.length)
+            return (monthIds[index]);
+        return (CalendarMath.monthIdOfEpochDay(epochDay));
+    }
+
+    /**
+     * Convert an epoch day to an ISO week id.
+     * @param epochDay The epoch day.
+     * @return The week id.
+     */
+    public int weekIdOfEpochDay(final int epochDay) {
+        final int index = epochDay - firstEpochDay;
+        if (index >= 0 && index < weekIds.length)
+            return (weekIds[index]);
+        return (CalendarMath.weekIdOfEpochDay(epochDay));
+    }
+
+    /**
+     * Convert epoch milliseconds to an epoch month id.
+     * @param epochMillis The epoch milliseconds.
+     * @return The epoch month id.
+     */
+    public int monthIdOfMillis(final long epochMillis) {
+        return (monthIdOfEpochDay(EpochConverter.epochDayOfMillis(epochMillis)));
+    }
+
+    /**
+     * Convert epoch milliseconds to an ISO week id.
+     * @param epochMillis The epoch milliseconds.
+     * @return The week id.
+     */
+    public int weekIdOfMillis(final long epochMillis) {
+        return (weekIdOfEpochDay(EpochConverter.epochDayOfMillis(epochMillis)));
+    }
+
+    /**
+     * Convert epoch seconds to an epoch month id.
+     * @param epochSeconds The epoch seconds.
+     * @return The epoch month id.
+     */
+    public int monthIdOfSeconds(final long epochSeconds) {
+        return (monthIdOfEpochDay(EpochConverter.epochDayOfSeconds(epochSeconds)));
+    }
+
+    /**
+     * Convert epoch seconds to an ISO week id.
+     * @param epochSeconds The epoch seconds.
+     * @return The week id.
+     */
+    public int weekIdOfSeconds(final long epochSeconds) {
+        return (weekIdOfEpochDay(EpochConverter.epochDayOfSeconds(epochSeconds)));
+    }
+
+    /**
+     * Get the first epoch day covered by the table.
+     * @return The first epoch day.
+     */
+    public int getFirstEpochDay() {
+        return (firstEpochDay);
+    }
+
+    /**
+     * Get the last epoch day covered by the table.
+     * @return The last epoch day.
+     */
+    public int getLastEpochDay() {
+        return (firstEpochDay + monthIds.length - 1);
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The Flight Recorder events of the expensive operations.
+ * <p>
+ * This is the Java 8 version of the class, which records nothing so the library
+ * compiles without {@code jdk.jfr}. The jar is a multi-release jar, its Java 11
+ * version of this class (from {@code src/main/java11}) defines the events.
+ */
+final class CalendarEvent {
+
+    private CalendarEvent() {
+    }
+
+    /**
+     * @return Always false, the events are not recorded.
+     */
+    static boolean available() {
+        return (false);
+    }
+
+    /**
+     * Start an event.
+     * @param type The type of event, see {@link FlightEvents}.
+     * @return Always null, the event is not recorded.
+     */
+    static @Nullable Object begin(final int type) {
+        return (null);
+    }
+
+    /**
+     * End an event, never called since {@link #begin(int)} returns null.
+     * @param started The event returned by {@link #begin(int)}.
+     * @param operation The name of the operation.
+     * @param inputSize The number of elements given to the operation.
+     * @param resultSize The number of elements produced.
+     * @param zone The id of the time zone, null for UTC.
+     */
+    static void commit(@NotNull final Object started, @NotNull final String operation,
+                       final long inputSize, final long resultSize, @Nullable final String zone) {
+    }
+
+}
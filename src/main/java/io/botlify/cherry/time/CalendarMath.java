@@ -0,0 +1,179 @@
+package io.botlify.cherry.time;
+
+/**
+ * Calendar arithmetic on epoch days (number of days since 1970-01-01)
+ * in the proleptic ISO calendar.
+ * Every method is a handful of integer operations and never allocates.
+ */
+final class CalendarMath {
+
+    /**
+     * Number of days from 0000-03-01 to 1970-01-01.
+     */
+    private static final int DAYS_0000_TO_1970 = 719468;
+
+    private static final int DAYS_PER_CYCLE = 146097;
+
+    static final int MIN_EPOCH_DAY = epochDay(MonthYear.MIN_YEAR, 1, 1);
+
+    static final int MAX_EPOCH_DAY = epochDay(MonthYear.MAX_YEAR, 12, 31);
+
+    private CalendarMath() {
+    }
+
+    /**
+     * Check that the year is in the supported range.
+     * @param year The year to check.
+     */
+    static void checkYear(final int year) {
+        if (year < MonthYear.MIN_YEAR || year > MonthYear.MAX_YEAR)
+            throw (new IllegalArgumentException("The year " + year + " is out of the supported range."));
+    }
+
+    /**
+     * Check that the epoch day is in the supported range of years.
+     * @param epochDay The epoch day to check.
+     * @return The epoch day as an int.
+     */
+    static int checkedEpochDay(final long epochDay) {
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY)
+            throw (new IllegalArgumentException("The epoch day " + epochDay + " is out of the supported range."));
+        return ((int)epochDay);
+    }
+
+    /**
+     * Compute the epoch day of a date.
+     * @param year The year.
+     * @param month The month, from 1 to 12.
+     * @param day The day of month, from 1 to 31.
+     * @return The epoch day.
+     */
+    static int epochDay(final int year, final int month, final int day) {
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(y, 400);
+        final int yoe = y - era * 400;
+        final int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return (era * DAYS_PER_CYCLE + doe - DAYS_0000_TO_1970);
+    }
+
+    /**
+     * Compute the year of an epoch day.
+     * @param epochDay The epoch day.
+     * @return The year.
+     */
+    static int yearOfEpochDay(final int epochDay) {
+        final int z = epochDay + DAYS_0000_TO_1970;
+        final int era = Math.floorDiv(z, DAYS_PER_CYCLE);
+        final int doe = z - era * DAYS_PER_CYCLE;
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        final int mp = (5 * doy + 2) / 153;
+        return (yoe + era * 400 + (mp >= 10 ? 1 : 0));
+    }
+
+    /**
+     * Compute the epoch month id of an epoch day.
+     * @param epochDay The epoch day.
+     * @return The epoch month id, see {@link MonthYear#getId()}.
+     */
+    static int monthIdOfEpochDay(final int epochDay) {
+        final int z = epochDay + DAYS_0000_TO_1970;
+        final int era = Math.floorDiv(z, DAYS_PER_CYCLE);
+        final int doe = z - era * DAYS_PER_CYCLE;
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        final int mp = (5 * doy + 2) / 153;
+        // The year starts in March, so month index mp + 2 is counted from January.
+        return ((yoe + era * 400 - 1970) * 12 + mp + 2);
+    }
+
+    /**
+     * Compute the epoch day of the first day of a month.
+     * @param monthId The epoch month id.
+     * @return The epoch day.
+     */
+    static int firstEpochDayOfMonth(final int monthId) {
+        return (epochDay(MonthYear.year(monthId), MonthYear.month(monthId), 1));
+    }
+
+    /**
+     * Compute the epoch day of the last day of a month.
+     * @param monthId The epoch month id.
+     * @return The epoch day.
+     */
+    static int lastEpochDayOfMonth(final int monthId) {
+        return (firstEpochDayOfMonth(monthId + 1) - 1);
+    }
+
+    /**
+     * Compute the ISO day of week of an epoch day.
+     * @param epochDay The epoch day.
+     * @return The day of week, from 1 (Monday) to 7 (Sunday).
+     */
+    static int dayOfWeek(final int epochDay) {
+        return (Math.floorMod(epochDay + 3, 7) + 1);
+    }
+
+    /**
+     * Compute the epoch day of the Monday of the first ISO week of a week-based year.
+     * @param weekYear The ISO week-based year.
+     * @return The epoch day.
+     */
+    static int firstEpochDayOfWeekYear(final int weekYear) {
+        // The first week is the one containing the 4th of January.
+        final int jan4 = epochDay(weekYear, 1, 4);
+        return (jan4 - dayOfWeek(jan4) + 1);
+    }
+
+    /**
+     * Compute the number of ISO weeks of a week-based year.
+     * @param weekYear The ISO week-based year.
+     * @return 52 or 53.
+     */
+    static int weeksInWeekYear(final int weekYear) {
+        return ((firstEpochDayOfWeekYear(weekYear + 1) - firstEpochDayOfWeekYear(weekYear)) / 7);
+    }
+
+    /**
+     * Compute the ISO week id of an epoch day.
+     * @param epochDay The epoch day.
+     * @return The week id, see {@link WeekOfYear#getId()}.
+     */
+    static int weekIdOfEpochDay(final int epochDay) {
+        // The week-based year of a day is the calendar year of the Thursday of its week.
+        final int thursday = epochDay - dayOfWeek(epochDay) + 4;
+        final int weekYear = yearOfEpochDay(thursday);
+        final int week = (thursday - epochDay(weekYear, 1, 1)) / 7;
+        return (weekYear * WeekOfYear.WEEKS_PER_ID_YEAR + week);
+    }
+
+    /**
+     * Compute the epoch week of an epoch day, the dense number of ISO weeks
+     * since the week starting on Monday 1969-12-29.
+     * @param epochDay The epoch day.
+     * @return The epoch week.
+     */
+    static int epochWeekOfEpochDay(final int epochDay) {
+        return (Math.floorDiv(epochDay + 3, 7));
+    }
+
+    /**
+     * Compute the epoch day of the Monday of an epoch week.
+     * @param epochWeek The epoch week.
+     * @return The epoch day.
+     */
+    static int firstEpochDayOfEpochWeek(final int epochWeek) {
+        return (epochWeek * 7 - 3);
+    }
+
+    /**
+     * Compute the epoch day of the Monday of an ISO week.
+     * @param weekId The week id.
+     * @return The epoch day.
+     */
+    static int firstEpochDayOfWeek(final int weekId) {
+        return (firstEpochDayOfWeekYear(WeekOfYear.year(weekId)) + (WeekOfYear.week(weekId) - 1) * 7);
+    }
+
+}
@@ -0,0 +1,39 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Run an action for a range of chunks, split in two halves until a single chunk is left.
+ * Used by the parallel modes to run every chunk of a job in the common fork-join pool.
+ */
+final class ChunkTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int fromChunk;
+
+    private final int toChunk;
+
+    @NotNull
+    private final transient IntConsumer action;
+
+    ChunkTask(final int fromChunk, final int toChunk, @NotNull final IntConsumer action) {
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+        this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+        if (toChunk - fromChunk == 1) {
+            action.accept(fromChunk);
+            return;
+        }
+        final int middle = (fromChunk + toChunk) >>> 1;
+        invokeAll(new ChunkTask(fromChunk, middle, action), new ChunkTask(middle, toChunk, action));
+    }
+
+}
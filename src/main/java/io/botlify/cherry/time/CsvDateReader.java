@@ -0,0 +1,346 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * A reader of date columns in CSV files, in the {@code YYYY-MM-DD} format.
+ * <p>
+ * The file is memory-mapped and split in chunks aligned on the lines: a chunk reads the
+ * lines starting inside it, to their end. The chunks are parsed in parallel with the
+ * common {@link ForkJoinPool}, and the rows are kept in the order of the file. The chosen
+ * columns are parsed in place from the bytes by {@link IsoParser}, into columns of epoch
+ * days or into a {@link PeriodArray}, so no object is created per row.
+ * <p>
+ * The lines end with {@code \n} or {@code \r\n}, the empty lines are skipped. A field may be
+ * quoted with {@code "}, but a quoted field must not contain a line break. The extra
+ * columns of a line are ignored, a missing column is an error. Errors are thrown as
+ * {@link IllegalArgumentException} with the byte offset of the line in the file.
+ * A line must be shorter than 1 GiB.
+ * Instances are immutable and safe to share across threads.
+ */
+public final class CsvDateReader {
+
+    /**
+     * The minimum number of bytes per chunk.
+     */
+    static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The maximum number of bytes per chunk, a line may run up to the end of its mapping.
+     */
+    static final int MAX_CHUNK_SIZE = 1 << 30;
+
+    private static final int INITIAL_ROWS = 1 << 10;
+
+    private final byte delimiter;
+
+    private final boolean header;
+
+    /**
+     * Create a reader of comma-separated files having a header line.
+     */
+    public CsvDateReader() {
+        this(',', true);
+    }
+
+    /**
+     * Create a reader.
+     * @param delimiter The delimiter of the fields, an ASCII character.
+     * @param header True if the first line of the file is a header, it is skipped.
+     */
+    public CsvDateReader(final char delimiter, final boolean header) {
+        if (delimiter > 0x7F || delimiter == '\n' || delimiter == '\r' || delimiter == '"')
+            throw (new IllegalArgumentException("Invalid delimiter: " + delimiter));
+        this.delimiter = (byte)delimiter;
+        this.header = header;
+    }
+
+    /*
+     $      Periods
+     */
+
+    /**
+     * Read the periods of a file.
+     * @param file The file.
+     * @param startColumn The index of the column of the start dates, from 0.
+     * @param endColumn The index of the column of the end dates, from 0.
+     * @return The periods, in the order of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public @NotNull PeriodArray readPeriods(@NotNull final Path file, final int startColumn, final int endColumn)
+            throws IOException {
+        return (toPeriods(readEpochDays(file, startColumn, endColumn)));
+    }
+
+    /**
+     * Read the periods of a buffer of CSV text, from its position to its limit.
+     * @param buffer The buffer, its position is not changed.
+     * @param startColumn The index of the column of the start dates, from 0.
+     * @param endColumn The index of the column of the end dates, from 0.
+     * @return The periods, in the order of the text.
+     */
+    public @NotNull PeriodArray readPeriods(@NotNull final ByteBuffer buffer, final int startColumn, final int endColumn) {
+        return (toPeriods(readEpochDays(buffer, startColumn, endColumn)));
+    }
+
+    /*
+     $      Epoch days
+     */
+
+    /**
+     * Read date columns of a file.
+     * @param file The file.
+     * @param columns The indexes of the columns, from 0.
+     * @return The epoch days of every column, in the order of the arguments.
+     * @throws IOException If the file cannot be read.
+     */
+    public @NotNull int[][] readEpochDays(@NotNull final Path file, @NotNull final int... columns) throws IOException {
+        final int[] slots = slots(columns);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final int chunks = chunks(size);
+            // The mappings are created first, the chunks only read them.
+            final ByteBuffer[] buffers = new ByteBuffer[chunks];
+            final long[] bases = new long[chunks];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                // A chunk also maps the byte before it, to know if it starts on a line.
+                bases[chunk] = Math.max(0, chunkStart(size, chunks, chunk) - 1);
+                buffers[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, bases[chunk],
+                        Math.min(size - bases[chunk], Integer.MAX_VALUE));
+            }
+            return (read(chunks, columns.length, slots, chunk -> {
+                final long base = bases[chunk];
+                final ByteBuffer text = buffers[chunk];
+                return (readChunk(text, base, (int)(chunkStart(size, chunks, chunk) - base),
+                        (int)(chunkStart(size, chunks, chunk + 1) - base), chunk == 0,
+                        base + text.limit() == size, columns.length, slots));
+            }));
+        }
+    }
+
+    /**
+     * Read date columns of a buffer of CSV text, from its position to its limit.
+     * @param buffer The buffer, its position is not changed.
+     * @param columns The indexes of the columns, from 0.
+     * @return The epoch days of every column, in the order of the arguments.
+     */
+    public @NotNull int[][] readEpochDays(@NotNull final ByteBuffer buffer, @NotNull final int... columns) {
+        final int[] slots = slots(columns);
+        final ByteBuffer text = buffer.duplicate();
+        final int start = text.position();
+        final int size = text.limit() - start;
+        final int chunks = chunks(size);
+        return (read(chunks, columns.length, slots, chunk -> readChunk(text, 0,
+                start + (int)chunkStart(size, chunks, chunk), start + (int)chunkStart(size, chunks, chunk + 1),
+                chunk == 0, true, columns.length, slots)));
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static @NotNull PeriodArray toPeriods(@NotNull final int[][] columns) {
+        try {
+            return (PeriodArray.wrap(columns[0], columns[1], columns[0].length));
+        } catch (IllegalArgumentException e) {
+            throw (new IllegalArgumentException("Invalid period in the CSV text: " + e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Map the column indexes to their position in the result.
+     * @param columns The indexes of the columns.
+     * @return The position of every column up to the last one, -1 for the ignored columns.
+     */
+    private static @NotNull int[] slots(@NotNull final int[] columns) {
+        if (columns.length == 0)
+            throw (new IllegalArgumentException("No column to read."));
+        int last = 0;
+        for (int column : columns) {
+            if (column < 0)
+                throw (new IllegalArgumentException("Invalid column: " + column));
+            last = Math.max(last, column);
+        }
+        final int[] slots = new int[last + 1];
+        Arrays.fill(slots, -1);
+        for (int i = 0; i < columns.length; i++) {
+            if (slots[columns[i]] != -1)
+                throw (new IllegalArgumentException("Duplicate column: " + columns[i]));
+            slots[columns[i]] = i;
+        }
+        return (slots);
+    }
+
+    private static int chunks(final long size) {
+        final long chunks = Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L, size / MIN_CHUNK_SIZE);
+        return ((int)Math.max(Math.max(chunks, 1), (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE));
+    }
+
+    private static long chunkStart(final long size, final int chunks, final int chunk) {
+        // The product cannot overflow: a chunk is at least 1 MiB, or there is a single chunk.
+        return (size / chunks * chunk + size % chunks * chunk / chunks);
+    }
+
+    private static @NotNull int[][] read(final int chunks, final int columns, @NotNull final int[] slots,
+                                         @NotNull final IntFunction<int[][]> reader) {
+        final int[][][] results = new int[chunks][][];
+        final IntConsumer action = chunk -> results[chunk] = reader.apply(chunk);
+        if (chunks == 1)
+            action.accept(0);
+        else
+            ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, action));
+        // The last slot of a chunk result is its number of rows.
+        long rows = 0;
+        for (int[][] result : results)
+            rows += result[columns][0];
+        if (rows > Integer.MAX_VALUE - 8)
+            throw (new IllegalArgumentException("Too many rows: " + rows));
+        final int[][] days = new int[columns][(int)rows];
+        int offset = 0;
+        for (int[][] result : results) {
+            final int count = result[columns][0];
+            for (int column = 0; column < columns; column++)
+                System.arraycopy(result[column], 0, days[column], offset, count);
+            offset += count;
+        }
+        return (days);
+    }
+
+    /**
+     * Read the lines starting in a chunk.
+     * @param text The text, from the mapping of the chunk to the end of the file or of the mapping.
+     * @param base The offset of the text in the file, for the errors.
+     * @param from The start of the chunk in the text.
+     * @param to The end of the chunk in the text.
+     * @param first True if the chunk is the first one.
+     * @param complete True if the text runs to the end of the file.
+     * @param columns The number of columns to read.
+     * @param slots The position of every column in the result, -1 for the ignored columns.
+     * @return The epoch days of every column, followed by a single value: the number of rows.
+     */
+    private @NotNull int[][] readChunk(@NotNull final ByteBuffer text, final long base, final int from, final int to,
+                                       final boolean first, final boolean complete,
+                                       final int columns, @NotNull final int[] slots) {
+        final int limit = text.limit();
+        int line = from;
+        // Skip the header, or the end of the line started in the previous chunk.
+        if (first ? header : text.get(from - 1) != '\n')
+            line = nextLine(text, from, limit);
+        int[][] days = new int[columns][INITIAL_ROWS];
+        int rows = 0;
+        final int[] fields = new int[columns * 2];
+        int last = line;
+        while (line < to) {
+            last = line;
+            final int end = readLine(text, base, line, limit, slots, fields);
+            if (end > 0) {
+                if (rows == days[0].length) {
+                    for (int column = 0; column < columns; column++)
+                        days[column] = Arrays.copyOf(days[column], rows + (rows >> 1));
+                }
+                for (int column = 0; column < columns; column++)
+                    days[column][rows] = parse(text, base, line, fields[column * 2], fields[column * 2 + 1]);
+                rows++;
+            }
+            line = Math.abs(end);
+        }
+        if (line > limit && !complete)
+            throw (error(base, last, "the line is too long"));
+        final int[][] result = Arrays.copyOf(days, columns + 1);
+        result[columns] = new int[] {rows};
+        return (result);
+    }
+
+    /**
+     * Find the fields of a line.
+     * @param text The text.
+     * @param base The offset of the text in the file, for the errors.
+     * @param line The start of the line.
+     * @param limit The end of the text.
+     * @param slots The position of every column in the result, -1 for the ignored columns.
+     * @param fields Filled with the start and the end of every field read.
+     * @return The start of the next line, negated if the line is empty.
+     */
+    private int readLine(@NotNull final ByteBuffer text, final long base, final int line, final int limit,
+                         @NotNull final int[] slots, @NotNull final int[] fields) {
+        int index = line;
+        int column = 0;
+        while (true) {
+            int start = index;
+            int end;
+            if (index < limit && text.get(index) == '"') {
+                start = ++index;
+                while (true) {
+                    if (index >= limit || text.get(index) == '\n')
+                        throw (error(base, line, "unterminated quoted field"));
+                    if (text.get(index) == '"') {
+                        if (index + 1 < limit && text.get(index + 1) == '"') {
+                            index += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    index++;
+                }
+                end = index++;
+                if (index < limit && text.get(index) == '\r')
+                    index++;
+                if (index < limit && text.get(index) != delimiter && text.get(index) != '\n')
+                    throw (error(base, line, "text after a quoted field"));
+            } else {
+                byte b;
+                while (index < limit && (b = text.get(index)) != delimiter && b != '\n')
+                    index++;
+                end = index;
+                if (end > start && text.get(end - 1) == '\r' && (index == limit || text.get(index) == '\n'))
+                    end--;
+            }
+            if (column < slots.length && slots[column] != -1) {
+                fields[slots[column] * 2] = start;
+                fields[slots[column] * 2 + 1] = end;
+            }
+            column++;
+            if (index >= limit || text.get(index) == '\n') {
+                final int next = index + 1;
+                if (column == 1 && end == line)
+                    return (-next);
+                if (column < slots.length)
+                    throw (error(base, line, "expected at least " + slots.length + " columns, found " + column));
+                return (next);
+            }
+            index++;
+        }
+    }
+
+    private static int nextLine(@NotNull final ByteBuffer text, final int from, final int limit) {
+        int index = from;
+        while (index < limit && text.get(index) != '\n')
+            index++;
+        return (index + 1);
+    }
+
+    private static int parse(@NotNull final ByteBuffer text, final long base, final int line,
+                             final int from, final int to) {
+        try {
+            return (IsoParser.parseEpochDay(text, from, to));
+        } catch (DateTimeParseException e) {
+            throw (error(base, line, e.getMessage()));
+        }
+    }
+
+    private static @NotNull IllegalArgumentException error(final long base, final int line, @NotNull final String message) {
+        return (new IllegalArgumentException("Invalid CSV line at byte " + (base + line) + ": " + message));
+    }
+
+}
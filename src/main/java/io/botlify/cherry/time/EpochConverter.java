@@ -0,0 +1,147 @@
+package io.botlify.cherry.time;
+
+/**
+ * This class converts timestamps to bucket ids without any object allocation.
+ * <p>
+ * Every conversion is done in UTC with pure integer arithmetic, the input is
+ * epoch milliseconds or epoch seconds and the output is an epoch day, an epoch
+ * month id (see {@link MonthYear#getId()}) or a week id
+ * (see {@link WeekOfYear#getId()}). No range check is done, the timestamps must be
+ * inside the years supported by {@link MonthYear}.
+ * <p>
+ * For hot loops over a known range of dates, a {@link BucketTable} replaces the
+ * arithmetic by a single array lookup.
+ */
+public final class EpochConverter {
+
+    public static final long MILLIS_PER_DAY = 86_400_000L;
+
+    public static final long SECONDS_PER_DAY = 86_400L;
+
+    private EpochConverter() {
+    }
+
+    /*
+     $      Epoch day
+     */
+
+    /**
+     * Convert epoch milliseconds to an epoch day.
+     * @param epochMillis The epoch milliseconds.
+     * @return The epoch day.
+     */
+    public static int epochDayOfMillis(final long epochMillis) {
+        return ((int)Math.floorDiv(epochMillis, MILLIS_PER_DAY));
+    }
+
+    /**
+     * Convert epoch seconds to an epoch day.
+     * @param epochSeconds The epoch seconds.
+     * @return The epoch day.
+     */
+    public static int epochDayOfSeconds(final long epochSeconds) {
+        return ((int)Math.floorDiv(epochSeconds, SECONDS_PER_DAY));
+    }
+
+    /**
+     * Compute the epoch day of a date.
+     * No range check is done.
+     * @param year The year.
+     * @param month The month, from 1 to 12.
+     * @param day The day of month, from 1 to 31.
+     * @return The epoch day.
+     */
+    public static int epochDayOf(final int year, final int month, final int day) {
+        return (CalendarMath.epochDay(year, month, day));
+    }
+
+    /*
+     $      Month id
+     */
+
+    /**
+     * Convert an epoch day to an epoch month id.
+     * @param epochDay The epoch day.
+     * @return The epoch month id.
+     */
+    public static int monthIdOfEpochDay(final int epochDay) {
+        return (CalendarMath.monthIdOfEpochDay(epochDay));
+    }
+
+    /**
+     * Convert epoch milliseconds to an epoch month id.
+     * @param epochMillis The epoch milliseconds.
+     * @return The epoch month id.
+     */
+    public static int monthIdOfMillis(final long epochMillis) {
+        return (CalendarMath.monthIdOfEpochDay(epochDayOfMillis(epochMillis)));
+    }
+
+    /**
+     * Convert epoch seconds to an epoch month id.
+     * @param epochSeconds The epoch seconds.
+     * @return The epoch month id.
+     */
+    public static int monthIdOfSeconds(final long epochSeconds) {
+        return (CalendarMath.monthIdOfEpochDay(epochDayOfSeconds(epochSeconds)));
+    }
+
+    /**
+     * Get the epoch day of the first day of a month.
+     * @param monthId The epoch month id.
+     * @return The epoch day.
+     */
+    public static int firstEpochDayOfMonth(final int monthId) {
+        return (CalendarMath.firstEpochDayOfMonth(monthId));
+    }
+
+    /**
+     * Get the epoch day of the last day of a month.
+     * @param monthId The epoch month id.
+     * @return The epoch day.
+     */
+    public static int lastEpochDayOfMonth(final int monthId) {
+        return (CalendarMath.lastEpochDayOfMonth(monthId));
+    }
+
+    /*
+     $      Week id
+     */
+
+    /**
+     * Convert an epoch day to an ISO week id.
+     * @param epochDay The epoch day.
+     * @return The week id.
+     */
+    public static int weekIdOfEpochDay(final int epochDay) {
+        return (CalendarMath.weekIdOfEpochDay(epochDay));
+    }
+
+    /**
+     * Convert epoch milliseconds to an ISO week id.
+     * @param epochMillis The epoch milliseconds.
+     * @return The week id.
+     */
+    public static int weekIdOfMillis(final long epochMillis) {
+        return (CalendarMath.weekIdOfEpochDay(epochDayOfMillis(epochMillis)));
+    }
+
+    /**
+     * Convert epoch seconds to an ISO week id.
+     * @param epochSeconds The epoch seconds.
+     * @return The week id.
+     */
+    public static int weekIdOfSeconds(final long epochSeconds) {
+        return (CalendarMath.weekIdOfEpochDay(epochDayOfSeconds(epochSeconds)));
+    }
+
+    /**
+     * Get the epoch day of the Monday of an ISO week.
+     * @param weekId The week id.
+     * @return The epoch day.
+     */
+    public static int firstEpochDayOfWeek(final int weekId) {
+        return (CalendarMath.firstEpochDayOfWeek(weekId));
+    }
+
+}
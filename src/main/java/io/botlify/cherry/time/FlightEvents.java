@@ -0,0 +1,74 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The Flight Recorder events of the library, when {@code jdk.jfr} is available.
+ * <p>
+ * An operation calls {@link #begin(int)} before it and, if the event is not null,
+ * {@link #commit} after it. Without {@code jdk.jfr}, {@link #begin(int)} returns null
+ * without loading any event class; with it, the events are defined by the Java 11 version
+ * of {@link CalendarEvent}, disabled by default, and {@link #begin(int)} also returns null
+ * while the event is not enabled in a recording. On Java 8, or when the virtual machine
+ * fails to resolve the event types, no event is recorded.
+ * The events are enabled by name in a recording setting or with
+ * {@code Recording.enable("io.botlify.cherry.time.BulkConversion")}.
+ */
+final class FlightEvents {
+
+    /**
+     * A period decomposed in a set of months or weeks.
+     */
+    static final int PERIOD_DECOMPOSITION = 0;
+
+    /**
+     * A collection of instants converted to buckets.
+     */
+    static final int BULK_CONVERSION = 1;
+
+    /**
+     * The table of a time zone built.
+     */
+    static final int ZONE_TABLE_BUILD = 2;
+
+    /**
+     * True if the Flight Recorder API can be loaded and records the events.
+     */
+    static final boolean AVAILABLE = available();
+
+    private FlightEvents() {
+    }
+
+    /**
+     * Start an event.
+     * @param type The type of event.
+     * @return The event to give to {@link #commit}, null if it is not recorded.
+     */
+    static @Nullable Object begin(final int type) {
+        return (AVAILABLE ? CalendarEvent.begin(type) : null);
+    }
+
+    /**
+     * End an event started by {@link #begin(int)}.
+     * @param event The event, not null.
+     * @param operation The name of the operation.
+     * @param inputSize The number of elements given to the operation.
+     * @param resultSize The number of elements produced.
+     * @param zone The id of the time zone, null for UTC.
+     */
+    static void commit(@NotNull final Object event, @NotNull final String operation,
+                       final long inputSize, final long resultSize, @Nullable final String zone) {
+        CalendarEvent.commit(event, operation, inputSize, resultSize, zone);
+    }
+
+    private static boolean available() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightEvents.class.getClassLoader());
+            return (CalendarEvent.available());
+        } catch (ClassNotFoundException | LinkageError | SecurityException e) {
+            return (false);
+        }
+    }
+
+}
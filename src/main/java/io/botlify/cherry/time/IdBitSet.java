@@ -0,0 +1,290 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A growable bitset over signed int keys.
+ * <p>
+ * The words cover a window of keys that grows at either end when a key
+ * outside of it is added, so negative keys (dates before 1970) are stored as
+ * compactly as positive ones. This class is not thread-safe.
+ */
+final class IdBitSet {
+
+    /**
+     * Returned by the search methods when no key is found.
+     * It can never be a valid key for the time buckets.
+     */
+    static final int NONE = Integer.MIN_VALUE;
+
+    private static final long[] EMPTY = new long[0];
+
+    /**
+     * The words of the bitset.
+     */
+    @NotNull
+    private long[] words;
+
+    /**
+     * The word index (key / 64) of the first word.
+     */
+    private int baseWord;
+
+    /**
+     * The number of bits set.
+     */
+    private int cardinality;
+
+    IdBitSet() {
+        this.words = EMPTY;
+    }
+
+    IdBitSet(@NotNull final IdBitSet other) {
+        this.words = other.words.clone();
+        this.baseWord = other.baseWord;
+        this.cardinality = other.cardinality;
+    }
+
+    /*
+     $      Single key
+     */
+
+    boolean get(final int key) {
+        final int index = (key >> 6) - baseWord;
+        return (index >= 0 && index < words.length && (words[index] & (1L << key)) != 0);
+    }
+
+    /**
+     * Set a key.
+     * @param key The key.
+     * @return True if the key was not set.
+     */
+    boolean set(final int key) {
+        final int index = ensureWord(key >> 6);
+        final long old = words[index];
+        words[index] = old | (1L << key);
+        if (old == words[index])
+            return (false);
+        cardinality++;
+        return (true);
+    }
+
+    /**
+     * Clear a key.
+     * @param key The key.
+     * @return True if the key was set.
+     */
+    boolean clear(final int key) {
+        final int index = (key >> 6) - baseWord;
+        if (index < 0 || index >= words.length)
+            return (false);
+        final long old = words[index];
+        words[index] = old & ~(1L << key);
+        if (old == words[index])
+            return (false);
+        cardinality--;
+        return (true);
+    }
+
+    /**
+     * Set every key of a range.
+     * @param fromKey The first key, inclusive.
+     * @param toKey The last key, inclusive.
+     */
+    void setRange(final int fromKey, final int toKey) {
+        if (fromKey > toKey)
+            return;
+        ensureWord(fromKey >> 6);
+        ensureWord(toKey >> 6);
+        final int first = (fromKey >> 6) - baseWord;
+        final int last = (toKey >> 6) - baseWord;
+        final long firstMask = -1L << fromKey;
+        final long lastMask = -1L >>> (63 - (toKey & 63));
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+        } else {
+            words[first] |= firstMask;
+            Arrays.fill(words, first + 1, last, -1L);
+            words[last] |= lastMask;
+        }
+        recount();
+    }
+
+    void clearAll() {
+        Arrays.fill(words, 0L);
+        cardinality = 0;
+    }
+
+    /*
+     $      Search
+     */
+
+    /**
+     * Find the first key set greater or equal to the given key.
+     * @param fromKey The key to start from.
+     * @return The key found, or {@link #NONE}.
+     */
+    int nextSetBit(final int fromKey) {
+        int index = (fromKey >> 6) - baseWord;
+        if (index >= words.length)
+            return (NONE);
+        long word;
+        if (index < 0) {
+            index = 0;
+            word = words.length == 0 ? 0 : words[0];
+        } else {
+            word = words[index] & (-1L << fromKey);
+        }
+        while (true) {
+            if (word != 0)
+                return (((baseWord + index) << 6) + Long.numberOfTrailingZeros(word));
+            if (++index >= words.length)
+                return (NONE);
+            word = words[index];
+        }
+    }
+
+    /**
+     * Find the last key set lower or equal to the given key.
+     * @param fromKey The key to start from.
+     * @return The key found, or {@link #NONE}.
+     */
+    int previousSetBit(final int fromKey) {
+        int index = (fromKey >> 6) - baseWord;
+        if (index < 0)
+            return (NONE);
+        long word;
+        if (index >= words.length) {
+            index = words.length - 1;
+            word = index < 0 ? 0 : words[index];
+        } else {
+            word = words[index] & (-1L >>> (63 - (fromKey & 63)));
+        }
+        while (true) {
+            if (word != 0)
+                return (((baseWord + index) << 6) + 63 - Long.numberOfLeadingZeros(word));
+            if (--index < 0)
+                return (NONE);
+            word = words[index];
+        }
+    }
+
+    /*
+     $      Counting
+     */
+
+    int cardinality() {
+        return (cardinality);
+    }
+
+    /**
+     * Count the keys set in a range.
+     * @param fromKey The first key, inclusive.
+     * @param toKey The last key, inclusive.
+     * @return The number of keys set.
+     */
+    int count(final int fromKey, final int toKey) {
+        if (fromKey > toKey || words.length == 0)
+            return (0);
+        final int lowKey = Math.max(fromKey, baseWord << 6);
+        final int highKey = Math.min(toKey, ((baseWord + words.length) << 6) - 1);
+        if (lowKey > highKey)
+            return (0);
+        final int first = (lowKey >> 6) - baseWord;
+        final int last = (highKey >> 6) - baseWord;
+        final long firstMask = -1L << lowKey;
+        final long lastMask = -1L >>> (63 - (highKey & 63));
+        if (first == last)
+            return (Long.bitCount(words[first] & firstMask & lastMask));
+        int count = Long.bitCount(words[first] & firstMask);
+        for (int i = first + 1; i < last; i++)
+            count += Long.bitCount(words[i]);
+        return (count + Long.bitCount(words[last] & lastMask));
+    }
+
+    /*
+     $      Bulk operations
+     */
+
+    /**
+     * Set every key set in the other bitset.
+     * @param other The other bitset.
+     */
+    void or(@NotNull final IdBitSet other) {
+        if (other.words.length == 0)
+            return;
+        ensureWord(other.baseWord);
+        ensureWord(other.baseWord + other.words.length - 1);
+        final int offset = other.baseWord - baseWord;
+        for (int i = 0; i < other.words.length; i++)
+            words[offset + i] |= other.words[i];
+        recount();
+    }
+
+    /**
+     * Clear every key not set in the other bitset.
+     * @param other The other bitset.
+     */
+    void and(@NotNull final IdBitSet other) {
+        final int offset = baseWord - other.baseWord;
+        for (int i = 0; i < words.length; i++) {
+            final int j = offset + i;
+            words[i] &= (j >= 0 && j < other.words.length) ? other.words[j] : 0L;
+        }
+        recount();
+    }
+
+    /**
+     * Clear every key set in the other bitset.
+     * @param other The other bitset.
+     */
+    void andNot(@NotNull final IdBitSet other) {
+        final int offset = baseWord - other.baseWord;
+        final int from = Math.max(0, -offset);
+        final int to = Math.min(words.length, other.words.length - offset);
+        for (int i = from; i < to; i++)
+            words[i] &= ~other.words[offset + i];
+        recount();
+    }
+
+    /*
+     $      Private methods
+     */
+
+    /**
+     * Grow the words so they contain the given word index.
+     * @param wordIndex The absolute word index (key / 64).
+     * @return The index of the word in the array.
+     */
+    private int ensureWord(final int wordIndex) {
+        if (words.length == 0) {
+            words = new long[4];
+            baseWord = wordIndex;
+            return (0);
+        }
+        final int index = wordIndex - baseWord;
+        if (index >= 0 && index < words.length)
+            return (index);
+        if (index >= words.length) {
+            final int length = Math.max(index + 1, words.length * 2);
+            words = Arrays.copyOf(words, length);
+            return (index);
+        }
+        final int shift = Math.max(-index, words.length);
+        final long[] grown = new long[words.length + shift];
+        System.arraycopy(words, 0, grown, shift, words.length);
+        words = grown;
+        baseWord -= shift;
+        return (index + shift);
+    }
+
+    private void recount() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        cardinality = count;
+    }
+
+}
@@ -0,0 +1,109 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * The canonical instances shared by the factories.
+ * <p>
+ * {@link MonthYear} and {@link WeekOfYear} keep an array of their instances for the years
+ * between {@link #FIRST_YEAR} and {@link #LAST_YEAR}, created on the first use of the cache.
+ * The range is read once from the system properties {@value #FIRST_YEAR_PROPERTY} and
+ * {@value #LAST_YEAR_PROPERTY}, 1900 to 2100 by default, an invalid range is replaced by
+ * the default one.
+ * <p>
+ * The periods are deduplicated by {@link Period#intern()} in a pool holding weak references,
+ * so a canonical period is collected when nothing else references it. The pool is split in
+ * stripes locked separately.
+ */
+final class InstanceCache {
+
+    /**
+     * The system property of the first year cached.
+     */
+    static final String FIRST_YEAR_PROPERTY = "io.botlify.cherry.time.cacheFirstYear";
+
+    /**
+     * The system property of the last year cached.
+     */
+    static final String LAST_YEAR_PROPERTY = "io.botlify.cherry.time.cacheLastYear";
+
+    private static final int DEFAULT_FIRST_YEAR = 1900;
+
+    private static final int DEFAULT_LAST_YEAR = 2100;
+
+    /**
+     * The maximum number of years cached, 120 000 months and 53 000 weeks.
+     */
+    private static final int MAX_YEARS = 10_000;
+
+    /**
+     * The first year cached.
+     */
+    static final int FIRST_YEAR;
+
+    /**
+     * The last year cached, inclusive.
+     */
+    static final int LAST_YEAR;
+
+    static {
+        final int first = Integer.getInteger(FIRST_YEAR_PROPERTY, DEFAULT_FIRST_YEAR);
+        final int last = Integer.getInteger(LAST_YEAR_PROPERTY, DEFAULT_LAST_YEAR);
+        final boolean valid = first >= MonthYear.MIN_YEAR && last <= MonthYear.MAX_YEAR
+                && first <= last && last - first < MAX_YEARS;
+        FIRST_YEAR = valid ? first : DEFAULT_FIRST_YEAR;
+        LAST_YEAR = valid ? last : DEFAULT_LAST_YEAR;
+    }
+
+    private static final int STRIPES = 64;
+
+    @NotNull
+    private static final PeriodStripe[] PERIODS = new PeriodStripe[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++)
+            PERIODS[i] = new PeriodStripe();
+    }
+
+    private InstanceCache() {
+    }
+
+    /**
+     * Get the canonical instance of a period.
+     * @param period The period.
+     * @return The period equal to the given one first interned and still referenced, or the given one.
+     */
+    static @NotNull Period intern(@NotNull final Period period) {
+        final int hash = period.hashCode() * 0x9E3779B9;
+        final PeriodStripe stripe = PERIODS[hash >>> 26];
+        synchronized (stripe) {
+            final @Nullable WeakReference<Period> reference = stripe.periods.get(period);
+            final @Nullable Period canonical = reference == null ? null : reference.get();
+            if (canonical != null) {
+                Instrumentation.cacheHit(TimeMetrics.Cache.PERIOD);
+                return (canonical);
+            }
+            stripe.periods.put(period, new WeakReference<>(period));
+        }
+        Instrumentation.cacheMiss(TimeMetrics.Cache.PERIOD);
+        return (period);
+    }
+
+    /**
+     * A part of the period pool, with its own lock.
+     */
+    private static final class PeriodStripe {
+
+        /**
+         * The canonical periods, the values are weak too so they do not keep their key.
+         */
+        @NotNull
+        final WeakHashMap<Period, WeakReference<Period>> periods = new WeakHashMap<>();
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The installed {@link TimeMetrics}, with the helpers called by the hot paths.
+ * <p>
+ * An operation is measured with {@link #start()} before it and {@link #record} after it.
+ * With the default metrics, both are a volatile read and a comparison once inlined.
+ */
+final class Instrumentation {
+
+    /**
+     * The start of an operation not timed.
+     */
+    static final long NOT_TIMED = Long.MIN_VALUE;
+
+    @NotNull
+    static volatile TimeMetrics metrics = TimeMetrics.NOOP;
+
+    /**
+     * True when the installed metrics are timed.
+     */
+    private static volatile boolean timed;
+
+    private Instrumentation() {
+    }
+
+    static void install(@NotNull final TimeMetrics installed) {
+        // The flag is cleared first, an operation started meanwhile is recorded without duration.
+        timed = false;
+        metrics = installed;
+        timed = installed.isTimed();
+    }
+
+    /**
+     * Start measuring an operation.
+     * @return The value to give to {@link #record}.
+     */
+    static long start() {
+        return (timed ? System.nanoTime() : NOT_TIMED);
+    }
+
+    /**
+     * Record an operation.
+     * @param operation The operation.
+     * @param items The number of elements processed.
+     * @param start The value returned by {@link #start()}.
+     */
+    static void record(@NotNull final TimeMetrics.Operation operation, final long items, final long start) {
+        final TimeMetrics current = metrics;
+        if (current != TimeMetrics.NOOP)
+            current.record(operation, items, start == NOT_TIMED ? 0 : Math.max(System.nanoTime() - start, 0));
+    }
+
+    static void cacheHit(@NotNull final TimeMetrics.Cache cache) {
+        final TimeMetrics current = metrics;
+        if (current != TimeMetrics.NOOP)
+            current.cacheHit(cache);
+    }
+
+    static void cacheMiss(@NotNull final TimeMetrics.Cache cache) {
+        final TimeMetrics current = metrics;
+        if (current != TimeMetrics.NOOP)
+            current.cacheMiss(cache);
+    }
+
+}
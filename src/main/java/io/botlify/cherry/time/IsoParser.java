@@ -0,0 +1,337 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A parser of ISO-8601 dates, months and weeks returning primitive values.
+ * <p>
+ * Three formats are read: {@code YYYY-MM-DD} as an epoch day, {@code YYYY-MM} as an
+ * epoch month id (see {@link MonthYear#getId()}) and {@code YYYY-Www} as an ISO week id
+ * (see {@link WeekOfYear#getId()}). The text is a {@link CharSequence}, a {@code char[]}
+ * or ASCII bytes ({@code byte[]}, or a {@link ByteBuffer} for dates), read between two
+ * indexes so a field can be parsed in place.
+ * Nothing is allocated unless the text is invalid.
+ * <p>
+ * The validation is the one of {@link DateTimeFormatter#ISO_LOCAL_DATE} with the strict
+ * resolver: the year has exactly 4 digits, or a sign and 4 to 10 digits ({@code +} is
+ * only allowed with more than 4 digits), the month, day and week have exactly 2 digits, and the
+ * date must exist. The year must also be in the range supported by {@link MonthYear}.
+ * An invalid text throws a {@link DateTimeParseException} whose error index is relative
+ * to the first index parsed.
+ */
+public final class IsoParser {
+
+    private static final int MAX_YEAR_DIGITS = 10;
+
+    private IsoParser() {
+    }
+
+    /*
+     $      Date
+     */
+
+    /**
+     * Parse a date in the {@code YYYY-MM-DD} format.
+     * @param text The text.
+     * @return The epoch day.
+     */
+    public static int parseEpochDay(@NotNull final CharSequence text) {
+        return (epochDay(text, 0, text.length()));
+    }
+
+    /**
+     * Parse a date in the {@code YYYY-MM-DD} format.
+     * @param text The text.
+     * @param from The index of the first character, inclusive.
+     * @param to The index of the last character, exclusive.
+     * @return The epoch day.
+     */
+    public static int parseEpochDay(@NotNull final CharSequence text, final int from, final int to) {
+        checkRange(text.length(), from, to);
+        return (epochDay(text, from, to));
+    }
+
+    /**
+     * Parse a date in the {@code YYYY-MM-DD} format.
+     * @param text The characters.
+     * @param from The index of the first character, inclusive.
+     * @param to The index of the last character, exclusive.
+     * @return The epoch day.
+     */
+    public static int parseEpochDay(@NotNull final char[] text, final int from, final int to) {
+        checkRange(text.length, from, to);
+        return (epochDay(text, from, to));
+    }
+
+    /**
+     * Parse a date in the {@code YYYY-MM-DD} format.
+     * @param text The ASCII bytes.
+     * @param from The index of the first byte, inclusive.
+     * @param to The index of the last byte, exclusive.
+     * @return The epoch day.
+     */
+    public static int parseEpochDay(@NotNull final byte[] text, final int from, final int to) {
+        checkRange(text.length, from, to);
+        return (epochDay(text, from, to));
+    }
+
+    /**
+     * Parse a date in the {@code YYYY-MM-DD} format. The position of the buffer is not used.
+     * @param text The ASCII bytes.
+     * @param from The index of the first byte, inclusive.
+     * @param to The index of the last byte, exclusive.
+     * @return The epoch day.
+     */
+    public static int parseEpochDay(@NotNull final ByteBuffer text, final int from, final int to) {
+        checkRange(text.limit(), from, to);
+        return (epochDay(text, from, to));
+    }
+
+    /*
+     $      Month
+     */
+
+    /**
+     * Parse a month in the {@code YYYY-MM} format.
+     * @param text The text.
+     * @return The epoch month id.
+     */
+    public static int parseMonthId(@NotNull final CharSequence text) {
+        return (monthId(text, 0, text.length()));
+    }
+
+    /**
+     * Parse a month in the {@code YYYY-MM} format.
+     * @param text The text.
+     * @param from The index of the first character, inclusive.
+     * @param to The index of the last character, exclusive.
+     * @return The epoch month id.
+     */
+    public static int parseMonthId(@NotNull final CharSequence text, final int from, final int to) {
+        checkRange(text.length(), from, to);
+        return (monthId(text, from, to));
+    }
+
+    /**
+     * Parse a month in the {@code YYYY-MM} format.
+     * @param text The characters.
+     * @param from The index of the first character, inclusive.
+     * @param to The index of the last character, exclusive.
+     * @return The epoch month id.
+     */
+    public static int parseMonthId(@NotNull final char[] text, final int from, final int to) {
+        checkRange(text.length, from, to);
+        return (monthId(text, from, to));
+    }
+
+    /**
+     * Parse a month in the {@code YYYY-MM} format.
+     * @param text The ASCII bytes.
+     * @param from The index of the first byte, inclusive.
+     * @param to The index of the last byte, exclusive.
+     * @return The epoch month id.
+     */
+    public static int parseMonthId(@NotNull final byte[] text, final int from, final int to) {
+        checkRange(text.length, from, to);
+        return (monthId(text, from, to));
+    }
+
+    /*
+     $      Week
+     */
+
+    /**
+     * Parse an ISO week in the {@code YYYY-Www} format.
+     * @param text The text.
+     * @return The week id.
+     */
+    public static int parseWeekId(@NotNull final CharSequence text) {
+        return (weekId(text, 0, text.length()));
+    }
+
+    /**
+     * Parse an ISO week in the {@code YYYY-Www} format.
+     * @param text The text.
+     * @param from The index of the first character, inclusive.
+     * @param to The index of the last character, exclusive.
+     * @return The week id.
+     */
+    public static int parseWeekId(@NotNull final CharSequence text, final int from, final int to) {
+        checkRange(text.length(), from, to);
+        return (weekId(text, from, to));
+    }
+
+    /**
+     * Parse an ISO week in the {@code YYYY-Www} format.
+     * @param text The characters.
+     * @param from The index of the first character, inclusive.
+     * @param to The index of the last character, exclusive.
+     * @return The week id.
+     */
+    public static int parseWeekId(@NotNull final char[] text, final int from, final int to) {
+        checkRange(text.length, from, to);
+        return (weekId(text, from, to));
+    }
+
+    /**
+     * Parse an ISO week in the {@code YYYY-Www} format.
+     * @param text The ASCII bytes.
+     * @param from The index of the first byte, inclusive.
+     * @param to The index of the last byte, exclusive.
+     * @return The week id.
+     */
+    public static int parseWeekId(@NotNull final byte[] text, final int from, final int to) {
+        checkRange(text.length, from, to);
+        return (weekId(text, from, to));
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static int epochDay(@NotNull final Object text, final int from, final int to) {
+        final long yearAndIndex = year(text, from, to);
+        final int year = (int)(yearAndIndex >> 32);
+        int index = expect(text, from, to, (int)yearAndIndex, '-');
+        final int month = twoDigits(text, from, to, index);
+        index = expect(text, from, to, index + 2, '-');
+        final int day = twoDigits(text, from, to, index);
+        expectEnd(text, from, to, index + 2);
+        checkMonth(text, from, to, month);
+        if (day < 1 || day > 31)
+            throw (invalid(text, from, to, "Invalid value for DayOfMonth (valid values 1 - 28/31): " + day));
+        if (day > 28) {
+            final int monthId = MonthYear.idOf(month, year);
+            final int length = CalendarMath.lastEpochDayOfMonth(monthId) - CalendarMath.firstEpochDayOfMonth(monthId) + 1;
+            if (day > length) {
+                if (month == 2 && day == 29)
+                    throw (invalid(text, from, to, "Invalid date 'February 29' as '" + year + "' is not a leap year"));
+                throw (invalid(text, from, to, "Invalid date '" + Month.of(month).name() + " " + day + "'"));
+            }
+        }
+        return (CalendarMath.epochDay(year, month, day));
+    }
+
+    private static int monthId(@NotNull final Object text, final int from, final int to) {
+        final long yearAndIndex = year(text, from, to);
+        final int year = (int)(yearAndIndex >> 32);
+        final int index = expect(text, from, to, (int)yearAndIndex, '-');
+        final int month = twoDigits(text, from, to, index);
+        expectEnd(text, from, to, index + 2);
+        checkMonth(text, from, to, month);
+        return (MonthYear.idOf(month, year));
+    }
+
+    private static int weekId(@NotNull final Object text, final int from, final int to) {
+        final long yearAndIndex = year(text, from, to);
+        final int year = (int)(yearAndIndex >> 32);
+        int index = expect(text, from, to, (int)yearAndIndex, '-');
+        index = expect(text, from, to, index, 'W');
+        final int week = twoDigits(text, from, to, index);
+        expectEnd(text, from, to, index + 2);
+        if (week < 1 || week > CalendarMath.weeksInWeekYear(year))
+            throw (invalid(text, from, to, "Invalid value for WeekOfWeekBasedYear (valid values 1 - 52/53): " + week));
+        return (WeekOfYear.idOf(week, year));
+    }
+
+    /**
+     * Parse the year at the start of the text.
+     * @return The year in the high 32 bits, the index after the year in the low 32 bits.
+     */
+    private static long year(@NotNull final Object text, final int from, final int to) {
+        int index = from;
+        final int sign = index < to ? charAt(text, index) : 0;
+        if (sign == '+' || sign == '-')
+            index++;
+        final int start = index;
+        long value = 0;
+        while (index < to && index - start < MAX_YEAR_DIGITS && isDigit(charAt(text, index))) {
+            value = value * 10 + charAt(text, index) - '0';
+            index++;
+        }
+        final int digits = index - start;
+        if (digits == MAX_YEAR_DIGITS && index < to && isDigit(charAt(text, index)))
+            throw (error(text, from, to, index));
+        // Without a sign the year has 4 digits, '+' is only used for more than 4 digits.
+        if (start != from && digits < 4)
+            throw (error(text, from, to, start));
+        if ((sign == '+' ? digits == 4 : start == from && digits != 4) || (sign == '-' && value == 0))
+            throw (error(text, from, to, from));
+        final long year = sign == '-' ? -value : value;
+        if (year < MonthYear.MIN_YEAR || year > MonthYear.MAX_YEAR)
+            throw (invalid(text, from, to, "Invalid value for Year (valid values "
+                    + MonthYear.MIN_YEAR + " - " + MonthYear.MAX_YEAR + "): " + year));
+        return ((year << 32) | index);
+    }
+
+    private static int twoDigits(@NotNull final Object text, final int from, final int to, final int index) {
+        if (index + 2 > to || !isDigit(charAt(text, index)) || !isDigit(charAt(text, index + 1)))
+            throw (error(text, from, to, index));
+        return ((charAt(text, index) - '0') * 10 + charAt(text, index + 1) - '0');
+    }
+
+    private static int expect(@NotNull final Object text, final int from, final int to,
+                              final int index, final char expected) {
+        if (index >= to || charAt(text, index) != expected)
+            throw (error(text, from, to, index));
+        return (index + 1);
+    }
+
+    private static void expectEnd(@NotNull final Object text, final int from, final int to, final int index) {
+        if (index < to) {
+            final String parsed = substring(text, from, to);
+            throw (new DateTimeParseException("Text '" + parsed + "' could not be parsed, unparsed text found at index "
+                    + (index - from), parsed, index - from));
+        }
+    }
+
+    private static void checkMonth(@NotNull final Object text, final int from, final int to, final int month) {
+        if (month < 1 || month > 12)
+            throw (invalid(text, from, to, "Invalid value for MonthOfYear (valid values 1 - 12): " + month));
+    }
+
+    private static int charAt(@NotNull final Object text, final int index) {
+        if (text instanceof byte[])
+            return (((byte[])text)[index] & 0xFF);
+        if (text instanceof ByteBuffer)
+            return (((ByteBuffer)text).get(index) & 0xFF);
+        if (text instanceof char[])
+            return (((char[])text)[index]);
+        return (((CharSequence)text).charAt(index));
+    }
+
+    private static boolean isDigit(final int c) {
+        return (c >= '0' && c <= '9');
+    }
+
+    private static void checkRange(final int length, final int from, final int to) {
+        if (from < 0 || to > length || from > to)
+            throw (new IndexOutOfBoundsException("From: " + from + ", to: " + to + ", length: " + length));
+    }
+
+    private static @NotNull DateTimeParseException error(@NotNull final Object text, final int from,
+                                                         final int to, final int index) {
+        final String parsed = substring(text, from, to);
+        return (new DateTimeParseException("Text '" + parsed + "' could not be parsed at index " + (index - from),
+                parsed, index - from));
+    }
+
+    private static @NotNull DateTimeParseException invalid(@NotNull final Object text, final int from,
+                                                           final int to, @NotNull final String message) {
+        final String parsed = substring(text, from, to);
+        return (new DateTimeParseException("Text '" + parsed + "' could not be parsed: " + message, parsed, 0));
+    }
+
+    private static @NotNull String substring(@NotNull final Object text, final int from, final int to) {
+        final StringBuilder builder = new StringBuilder(to - from);
+        for (int i = from; i < to; i++)
+            builder.append((char)charAt(text, i));
+        return (builder.toString());
+    }
+
+}
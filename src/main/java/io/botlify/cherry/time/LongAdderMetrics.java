@@ -0,0 +1,226 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics accumulated in {@link LongAdder}s, to be read by a scraper.
+ * <p>
+ * Each operation has a count, a number of items, a total duration and a histogram of the
+ * durations with a bucket per power of two of nanoseconds: the bucket {@code i} counts the
+ * durations from {@code 2^(i-1)} inclusive to {@code 2^i} exclusive, the bucket 0 the
+ * durations of 0. Each cache has a count of hits and misses. Recording is lock-free and
+ * allocates nothing; the values read while operations are recorded are not a consistent
+ * snapshot, every counter is only exact on its own.
+ */
+public final class LongAdderMetrics implements TimeMetrics {
+
+    /**
+     * The number of buckets of a histogram, one per bit of a duration.
+     */
+    public static final int HISTOGRAM_BUCKETS = 64;
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private static final Cache[] CACHES = Cache.values();
+
+    private final boolean timed;
+
+    @NotNull
+    private final LongAdder[] counts = adders(OPERATIONS.length);
+
+    @NotNull
+    private final LongAdder[] items = adders(OPERATIONS.length);
+
+    @NotNull
+    private final LongAdder[] nanos = adders(OPERATIONS.length);
+
+    /**
+     * The histograms of all operations, {@link #HISTOGRAM_BUCKETS} per operation.
+     */
+    @NotNull
+    private final LongAdder[] histograms = adders(OPERATIONS.length * HISTOGRAM_BUCKETS);
+
+    @NotNull
+    private final LongAdder[] hits = adders(CACHES.length);
+
+    @NotNull
+    private final LongAdder[] misses = adders(CACHES.length);
+
+    /**
+     * Create metrics measuring the durations.
+     */
+    public LongAdderMetrics() {
+        this(true);
+    }
+
+    /**
+     * Create metrics.
+     * @param timed True to measure the durations, false to only count the operations.
+     */
+    public LongAdderMetrics(final boolean timed) {
+        this.timed = timed;
+    }
+
+    /*
+     $      Recording
+     */
+
+    @Override
+    public boolean isTimed() {
+        return (timed);
+    }
+
+    @Override
+    public void record(@NotNull final Operation operation, final long items, final long nanos) {
+        final int index = operation.ordinal();
+        this.counts[index].increment();
+        this.items[index].add(items);
+        if (timed) {
+            this.nanos[index].add(nanos);
+            histograms[index * HISTOGRAM_BUCKETS + bucketOf(nanos)].increment();
+        }
+    }
+
+    @Override
+    public void cacheHit(@NotNull final Cache cache) {
+        hits[cache.ordinal()].increment();
+    }
+
+    @Override
+    public void cacheMiss(@NotNull final Cache cache) {
+        misses[cache.ordinal()].increment();
+    }
+
+    /*
+     $      Reading
+     */
+
+    /**
+     * Get the number of times an operation was done.
+     * @param operation The operation.
+     * @return The count.
+     */
+    public long getCount(@NotNull final Operation operation) {
+        return (counts[operation.ordinal()].sum());
+    }
+
+    /**
+     * Get the number of elements processed by an operation.
+     * @param operation The operation.
+     * @return The sum of the items of every call.
+     */
+    public long getItems(@NotNull final Operation operation) {
+        return (items[operation.ordinal()].sum());
+    }
+
+    /**
+     * Get the time spent in an operation.
+     * @param operation The operation.
+     * @return The sum of the durations in nanoseconds.
+     */
+    public long getTotalNanos(@NotNull final Operation operation) {
+        return (nanos[operation.ordinal()].sum());
+    }
+
+    /**
+     * Get the histogram of the durations of an operation.
+     * @param operation The operation.
+     * @return A new array of {@link #HISTOGRAM_BUCKETS} counts.
+     */
+    public @NotNull long[] getHistogram(@NotNull final Operation operation) {
+        final long[] histogram = new long[HISTOGRAM_BUCKETS];
+        final int base = operation.ordinal() * HISTOGRAM_BUCKETS;
+        for (int bucket = 0; bucket < HISTOGRAM_BUCKETS; bucket++)
+            histogram[bucket] = histograms[base + bucket].sum();
+        return (histogram);
+    }
+
+    /**
+     * Estimate a percentile of the durations of an operation from its histogram.
+     * @param operation The operation.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound in nanoseconds of the bucket containing the percentile, 0 if never timed.
+     */
+    public long getPercentileNanos(@NotNull final Operation operation, final double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw (new IllegalArgumentException("The percentile must be between 0 and 100."));
+        final long[] histogram = getHistogram(operation);
+        long total = 0;
+        for (long count : histogram)
+            total += count;
+        final long rank = (long)Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < HISTOGRAM_BUCKETS; bucket++) {
+            seen += histogram[bucket];
+            if (histogram[bucket] > 0 && seen >= rank)
+                return (bucket == 0 ? 0 : (1L << bucket) - 1);
+        }
+        return (0);
+    }
+
+    public long getHits(@NotNull final Cache cache) {
+        return (hits[cache.ordinal()].sum());
+    }
+
+    public long getMisses(@NotNull final Cache cache) {
+        return (misses[cache.ordinal()].sum());
+    }
+
+    /**
+     * Get the ratio of the lookups of a cache finding a shared instance.
+     * @param cache The cache.
+     * @return The hit rate between 0 and 1, NaN if the cache was never used.
+     */
+    public double getHitRate(@NotNull final Cache cache) {
+        final long hit = getHits(cache);
+        final long total = hit + getMisses(cache);
+        return (total == 0 ? Double.NaN : (double)hit / total);
+    }
+
+    /**
+     * Reset every counter. The operations recorded meanwhile may be partially kept.
+     */
+    public void reset() {
+        for (LongAdder[] adders : new LongAdder[][] {counts, items, nanos, histograms, hits, misses}) {
+            for (LongAdder adder : adders)
+                adder.reset();
+        }
+    }
+
+    @Override
+    public @NotNull String toString() {
+        final StringBuilder builder = new StringBuilder("LongAdderMetrics[");
+        for (Operation operation : OPERATIONS) {
+            final long count = getCount(operation);
+            if (count == 0)
+                continue;
+            builder.append(operation).append(": count=").append(count).append(", items=").append(getItems(operation));
+            if (timed)
+                builder.append(", nanos=").append(getTotalNanos(operation));
+            builder.append("; ");
+        }
+        for (Cache cache : CACHES)
+            builder.append(cache).append(": hits=").append(getHits(cache)).append(", misses=").append(getMisses(cache)).append("; ");
+        builder.setLength(builder.length() - 2);
+        return (builder.append(']').toString());
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static int bucketOf(final long nanos) {
+        // A negative duration, only given by a broken clock, is counted as 0.
+        return (64 - Long.numberOfLeadingZeros(Math.max(nanos, 0)));
+    }
+
+    private static @NotNull LongAdder[] adders(final int length) {
+        final LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++)
+            adders[i] = new LongAdder();
+        return (adders);
+    }
+
+}
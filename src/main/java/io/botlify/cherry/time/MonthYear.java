@@ -3,58 +3,162 @@ package io.botlify.cherry.time;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.Instant;
 import java.time.Month;
 import java.time.Year;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
-import java.util.TimeZone;
 
 /**
  * This class store a month and a year in UTC timezone.
+ * <p>
+ * The value is packed in a single int, the epoch month id, which is the
+ * number of months since January 1970 (January 1970 is {@code 0}, December 1969
+ * is {@code -1}). Comparisons, hashing and month stepping only cost a few
+ * integer operations. The static helpers ({@link #plusMonths(int, int)},
+ * {@link #compare(int, int)}, {@link #year(int)}, {@link #month(int)}) work
+ * directly on ids and never allocate.
  */
 public final class MonthYear implements Comparable<MonthYear>, Serializable {
 
-    @NotNull
-    private final Month month;
+    private static final long serialVersionUID = 1L;
 
-    private final Year year;
+    /**
+     * The minimum supported year.
+     */
+    public static final int MIN_YEAR = -1_000_000;
+
+    /**
+     * The maximum supported year.
+     */
+    public static final int MAX_YEAR = 1_000_000;
+
+    /**
+     * The epoch month id.
+     */
+    private final int id;
 
+    /**
+     * Construct the current month year, from the default {@link BucketClock}.
+     */
     public MonthYear() {
-        this(Instant.now());
+        this(BucketClock.getDefault().currentMonthYear());
     }
 
     public MonthYear(@NotNull final Instant instant) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(instant.toEpochMilli());
-        this.month = Month.of(calendar.get(Calendar.MONTH) + 1);
-        this.year = Year.of(calendar.get(Calendar.YEAR));
+        final long start = Instrumentation.start();
+        final long epochDay = Math.floorDiv(instant.getEpochSecond(), EpochConverter.SECONDS_PER_DAY);
+        this.id = CalendarMath.monthIdOfEpochDay(CalendarMath.checkedEpochDay(epochDay));
+        Instrumentation.record(TimeMetrics.Operation.INSTANT_TO_MONTH_YEAR, 1, start);
+    }
+
+    /**
+     * Construct the month year containing the instant in a time zone.
+     * @param instant The instant.
+     * @param timeZone The id of the time zone, resolved once by {@link ZoneTable#of(String)}.
+     */
+    public MonthYear(@NotNull final Instant instant,
+                     @NotNull final String timeZone) {
+        this(instant, ZoneTable.of(timeZone));
+    }
+
+    /**
+     * Construct the month year containing the instant in a time zone.
+     * @param instant The instant.
+     * @param zone The time zone.
+     */
+    public MonthYear(@NotNull final Instant instant,
+                     @NotNull final ZoneTable zone) {
+        final long start = Instrumentation.start();
+        final long epochDay = zone.localEpochDayOfSeconds(instant.getEpochSecond());
+        this.id = CalendarMath.monthIdOfEpochDay(CalendarMath.checkedEpochDay(epochDay));
+        Instrumentation.record(TimeMetrics.Operation.INSTANT_TO_MONTH_YEAR, 1, start);
     }
 
     public MonthYear(@NotNull final Month month,
                      @NotNull final Year year) {
-        this.month = month;
-        this.year = year;
+        this.id = checkedId(month.getValue(), year.getValue());
     }
 
     public MonthYear(int month, int year) {
-        this.month = Month.of(month);
-        this.year = Year.of(year);
+        this.id = checkedId(Month.of(month).getValue(), year);
     }
 
     public MonthYear(@NotNull final MonthYear monthYear) {
-        this.month = Month.of(monthYear.getMonth().getValue());
-        this.year = Year.of(monthYear.getYear().getValue());
+        this.id = monthYear.id;
+    }
+
+    private MonthYear(final int id) {
+        this.id = id;
+    }
+
+    /**
+     * Get a month year. The month years of the years cached by {@link InstanceCache}
+     * are shared instances.
+     * @param month The month, from 1 to 12.
+     * @param year The year.
+     * @return The month year.
+     */
+    public static @NotNull MonthYear of(final int month, final int year) {
+        return (cached(checkedId(Month.of(month).getValue(), year)));
+    }
+
+    /**
+     * Get a month year. The month years of the years cached by {@link InstanceCache}
+     * are shared instances.
+     * @param month The month.
+     * @param year The year.
+     * @return The month year.
+     */
+    public static @NotNull MonthYear of(@NotNull final Month month, @NotNull final Year year) {
+        return (cached(checkedId(month.getValue(), year.getValue())));
+    }
+
+    /**
+     * Get the current month year, from the default {@link BucketClock}.
+     * @return The month year, a shared instance.
+     */
+    public static @NotNull MonthYear now() {
+        return (BucketClock.getDefault().currentMonthYear());
+    }
+
+    /**
+     * Get a month year from its epoch month id. The month years of the years cached
+     * by {@link InstanceCache} are shared instances.
+     * @param id The epoch month id.
+     * @return The month year.
+     */
+    public static @NotNull MonthYear ofId(final int id) {
+        CalendarMath.checkYear(year(id));
+        return (cached(id));
+    }
+
+    /**
+     * Parse a month year in the ISO {@code YYYY-MM} format, see {@link IsoParser}.
+     * @param text The text.
+     * @return The month year.
+     */
+    public static @NotNull MonthYear parse(@NotNull final CharSequence text) {
+        return (cached(IsoParser.parseMonthId(text)));
     }
 
     public @NotNull Month getMonth() {
-        return month;
+        return (Month.of(month(id)));
     }
 
     public @NotNull Year getYear() {
-        return year;
+        return (Year.of(year(id)));
+    }
+
+    /**
+     * Get the epoch month id, the number of months since January 1970.
+     * @return The epoch month id.
+     */
+    public int getId() {
+        return (id);
     }
 
     /**
@@ -63,17 +167,20 @@ public final class MonthYear implements Comparable<MonthYear>, Serializable {
      * @return The next month year.
      */
     public @NotNull MonthYear nextMonthYear() {
-        Month month = this.month.plus(1);
-        Year year = this.year;
-        if (month == Month.JANUARY) year = this.year.plusYears(1);
-        return new MonthYear(month, year);
+        return (ofId(id + 1));
     }
 
     public @NotNull MonthYear previousMonthYear() {
-        Month month = this.month.minus(1);
-        Year year = this.year;
-        if (month == Month.DECEMBER) year = this.year.minusYears(1);
-        return new MonthYear(month, year);
+        return (ofId(id - 1));
+    }
+
+    /**
+     * Return the month year shifted by the given number of months.
+     * @param months The number of months to add, may be negative.
+     * @return The shifted month year.
+     */
+    public @NotNull MonthYear plusMonths(final int months) {
+        return (ofId(plusMonths(id, months)));
     }
 
     /**
@@ -82,52 +189,148 @@ public final class MonthYear implements Comparable<MonthYear>, Serializable {
      * @return The first day of month.
      */
     public @NotNull Instant getFirstDateOfMonth() {
-        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        calendar.set(Calendar.YEAR, this.year.getValue());
-        calendar.set(Calendar.MONTH, this.month.getValue() - 1);
-        calendar.set(Calendar.DAY_OF_MONTH, 1);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        return (calendar.toInstant());
+        final long epochDay = CalendarMath.firstEpochDayOfMonth(id);
+        return (Instant.ofEpochSecond(epochDay * EpochConverter.SECONDS_PER_DAY));
     }
 
+    /**
+     * Return the last day of month.
+     * The time is set to 23:59:59.999.
+     * @return The last day of month.
+     */
     public @NotNull Instant getLastDayOfMonth() {
-        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        calendar.set(Calendar.YEAR, this.year.getValue());
-        calendar.set(Calendar.MONTH, this.month.getValue() - 1);
-        calendar.set(Calendar.DAY_OF_MONTH, calendar.getActualMaximum(Calendar.DAY_OF_MONTH));
-        calendar.set(Calendar.HOUR_OF_DAY, 23);
-        calendar.set(Calendar.MINUTE, 59);
-        calendar.set(Calendar.SECOND, 59);
-        calendar.set(Calendar.MILLISECOND, 999);
-        return (calendar.toInstant());
+        final long epochDay = CalendarMath.lastEpochDayOfMonth(id);
+        return (Instant.ofEpochMilli((epochDay + 1) * EpochConverter.MILLIS_PER_DAY - 1));
     }
 
     /*
      $      Public static methods
      */
 
-    public static @NotNull List<MonthYear> betweenTwoInstant(@NotNull final Instant start, @NotNull final Instant end) {
-        List<MonthYear> result = new ArrayList<>();
-        MonthYear current = new MonthYear(start);
-        while (current.getLastDayOfMonth().isBefore(end)) {
-            result.add(current);
-            current = current.nextMonthYear();
-        }
-        return (result);
+    /**
+     * Return the months from the month of the start date up to the last month
+     * ending before the end date.
+     * @param start The start date.
+     * @param end The end date.
+     * @return The range of month years, empty if no month ends before the end date.
+     */
+    public static @NotNull MonthYearRange betweenTwoInstant(@NotNull final Instant start, @NotNull final Instant end) {
+        final MonthYear first = new MonthYear(start);
+        final MonthYear last = new MonthYear(end);
+        final int lastId = last.getLastDayOfMonth().isBefore(end) ? last.id : last.id - 1;
+        return (MonthYearRange.ofIds(first.id, lastId));
     }
 
+    /**
+     * Return the distinct month years of the instants,
+     * in the order of their first occurrence.
+     * @param instants The instants.
+     * @return The month years.
+     */
     public static @NotNull List<MonthYear> fromInstants(@NotNull final List<Instant> instants) {
+        final Object event = FlightEvents.begin(FlightEvents.BULK_CONVERSION);
         List<MonthYear> monthYears = new ArrayList<>();
+        MonthYearSet seen = new MonthYearSet();
         for (Instant instant : instants) {
-            if (monthYears.contains(new MonthYear(instant))) continue;
-            monthYears.add(new MonthYear(instant));
+            final long epochDay = Math.floorDiv(instant.getEpochSecond(), EpochConverter.SECONDS_PER_DAY);
+            final int id = CalendarMath.monthIdOfEpochDay(CalendarMath.checkedEpochDay(epochDay));
+            if (seen.addId(id))
+                monthYears.add(cached(id));
         }
+        if (event != null)
+            FlightEvents.commit(event, "MonthYear.fromInstants", instants.size(), monthYears.size(), null);
+        return (monthYears);
+    }
+
+    /**
+     * Return the set of month years of the given epoch milliseconds,
+     * in one pass over the array.
+     * @param epochMillis The epoch milliseconds.
+     * @return The month years.
+     */
+    public static @NotNull MonthYearSet fromInstants(@NotNull final long[] epochMillis) {
+        final Object event = FlightEvents.begin(FlightEvents.BULK_CONVERSION);
+        MonthYearSet monthYears = new MonthYearSet();
+        for (long millis : epochMillis)
+            monthYears.addId(EpochConverter.monthIdOfMillis(millis));
+        if (event != null)
+            FlightEvents.commit(event, "MonthYear.fromInstants", epochMillis.length, monthYears.size(), null);
         return (monthYears);
     }
 
+    /*
+     $      Epoch month id helpers
+     */
+
+    /**
+     * Compute the epoch month id of a month and a year.
+     * No range check is done.
+     * @param month The month, from 1 (January) to 12 (December).
+     * @param year The year.
+     * @return The epoch month id.
+     */
+    public static int idOf(final int month, final int year) {
+        return ((year - 1970) * 12 + month - 1);
+    }
+
+    /**
+     * Get the year of an epoch month id.
+     * @param id The epoch month id.
+     * @return The year.
+     */
+    public static int year(final int id) {
+        return (Math.floorDiv(id, 12) + 1970);
+    }
+
+    /**
+     * Get the month of an epoch month id.
+     * @param id The epoch month id.
+     * @return The month, from 1 (January) to 12 (December).
+     */
+    public static int month(final int id) {
+        return (Math.floorMod(id, 12) + 1);
+    }
+
+    /**
+     * Shift an epoch month id by the given number of months.
+     * No range check is done.
+     * @param id The epoch month id.
+     * @param months The number of months to add, may be negative.
+     * @return The shifted epoch month id.
+     */
+    public static int plusMonths(final int id, final int months) {
+        return (id + months);
+    }
+
+    /**
+     * Compare two epoch month ids.
+     * @param id1 The first epoch month id.
+     * @param id2 The second epoch month id.
+     * @return A negative value, zero or a positive value if the first
+     * id is before, equal or after the second one.
+     */
+    public static int compare(final int id1, final int id2) {
+        return (Integer.compare(id1, id2));
+    }
+
+    /**
+     * Get the shared instance of a valid id, or a new instance outside of the cache.
+     */
+    private static @NotNull MonthYear cached(final int id) {
+        final int slot = id - Cache.FIRST_ID;
+        if (slot >= 0 && slot < Cache.INSTANCES.length) {
+            Instrumentation.cacheHit(TimeMetrics.Cache.MONTH_YEAR);
+            return (Cache.INSTANCES[slot]);
+        }
+        Instrumentation.cacheMiss(TimeMetrics.Cache.MONTH_YEAR);
+        return (new MonthYear(id));
+    }
+
+    private static int checkedId(final int month, final int year) {
+        CalendarMath.checkYear(year);
+        return (idOf(month, year));
+    }
+
     /*
      $      Comparaison
      */
@@ -139,9 +342,7 @@ public final class MonthYear implements Comparable<MonthYear>, Serializable {
      * the month year given in parameter.
      */
     public boolean isBefore(@NotNull final MonthYear monthYear) {
-        if (this.year.isBefore(monthYear.getYear())) return (true);
-        if (this.year.isAfter(monthYear.getYear())) return (false);
-        return (this.month.getValue() < monthYear.getMonth().getValue());
+        return (this.id < monthYear.id);
     }
 
     /**
@@ -151,9 +352,7 @@ public final class MonthYear implements Comparable<MonthYear>, Serializable {
      * the month year given in parameter.
      */
     public boolean isAfter(@NotNull final MonthYear monthYear) {
-        if (this.year.isAfter(monthYear.getYear())) return (true);
-        if (this.year.isBefore(monthYear.getYear())) return (false);
-        return (this.month.getValue() > monthYear.getMonth().getValue());
+        return (this.id > monthYear.id);
     }
 
     /*
@@ -162,9 +361,7 @@ public final class MonthYear implements Comparable<MonthYear>, Serializable {
 
     @Override
     public int compareTo(@NotNull final MonthYear my) {
-        if (this.getYear().equals(my.getYear()))
-            return (this.getMonth().compareTo(my.getMonth()));
-        return (this.getYear().compareTo(my.getYear()));
+        return (Integer.compare(this.id, my.id));
     }
 
     @Override
@@ -172,14 +369,12 @@ public final class MonthYear implements Comparable<MonthYear>, Serializable {
         if (this == o) return (true);
         if (o == null || getClass() != o.getClass()) return false;
         MonthYear monthYear = (MonthYear)o;
-        if (!month.equals(monthYear.month)) return (false);
-        return (year.equals(monthYear.year));
+        return (id == monthYear.id);
     }
 
     @Override
     public int hashCode() {
-        String hash = this.month.getValue() + "" + this.year.getValue();
-        return (Integer.parseInt(hash));
+        return (id);
     }
 
     @Override
@@ -187,4 +382,33 @@ public final class MonthYear implements Comparable<MonthYear>, Serializable {
         return (getMonth().toString() + "-" + getYear().toString());
     }
 
+    /*
+     $      Serialization
+     */
+
+    private @NotNull Object writeReplace() {
+        return (new SerializedForm(SerializedForm.MONTH_YEAR, this));
+    }
+
+    private void readObject(@NotNull final ObjectInputStream stream) throws InvalidObjectException {
+        throw (new InvalidObjectException("MonthYear is deserialized through its serialized form."));
+    }
+
+    /**
+     * The instances of the years cached, created on the first use.
+     */
+    private static final class Cache {
+
+        static final int FIRST_ID = idOf(1, InstanceCache.FIRST_YEAR);
+
+        @NotNull
+        static final MonthYear[] INSTANCES = new MonthYear[(InstanceCache.LAST_YEAR - InstanceCache.FIRST_YEAR + 1) * 12];
+
+        static {
+            for (int slot = 0; slot < INSTANCES.length; slot++)
+                INSTANCES[slot] = new MonthYear(FIRST_ID + slot);
+        }
+
+    }
+
 }
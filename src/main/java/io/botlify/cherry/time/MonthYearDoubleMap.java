@@ -0,0 +1,80 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * A map from {@link MonthYear} to a primitive double, storing its values in a
+ * dense array indexed by epoch month id.
+ * <p>
+ * Lookups and updates are an array access, without boxing, hashing nor entry
+ * objects. The array grows at either end and iteration is in chronological order.
+ * Partial aggregates built by several threads are combined with
+ * {@link #addAll(MonthYearDoubleMap)} or {@link #merge(MonthYearDoubleMap, DoubleBinaryOperator)}.
+ * This class is not thread-safe.
+ */
+public final class MonthYearDoubleMap extends AbstractDenseDoubleMap<MonthYear> {
+
+    /**
+     * Get the value of an epoch month id.
+     * @param id The epoch month id.
+     * @return The value, or 0 if absent.
+     */
+    public double getById(final int id) {
+        return (getByKey(id, 0));
+    }
+
+    /**
+     * Set the value of an epoch month id.
+     * @param id The epoch month id.
+     * @param value The value.
+     * @return The previous value, or 0 if absent.
+     */
+    public double putById(final int id, final double value) {
+        return (putByKey(id, value));
+    }
+
+    /**
+     * Add a delta to the value of an epoch month id, an absent month counts as 0.
+     * @param id The epoch month id.
+     * @param delta The delta to add.
+     * @return The new value.
+     */
+    public double addById(final int id, final double delta) {
+        return (addByKey(id, delta));
+    }
+
+    /**
+     * Add the values of the other map to the values of this map.
+     * @param other The other map.
+     */
+    public void addAll(@NotNull final MonthYearDoubleMap other) {
+        mergeFrom(other, Double::sum);
+    }
+
+    /**
+     * Merge every entry of the other map into this map. When a month is present
+     * in both maps, the operator computes the new value from the two values.
+     * @param other The other map.
+     * @param operator The merge operator.
+     */
+    public void merge(@NotNull final MonthYearDoubleMap other, @NotNull final DoubleBinaryOperator operator) {
+        mergeFrom(other, operator);
+    }
+
+    /*
+     $      Abstract dense primitive map
+     */
+
+    @Override
+    int keyOf(@NotNull final MonthYear bucket) {
+        return (bucket.getId());
+    }
+
+    @Override
+    @NotNull MonthYear bucketOf(final int key) {
+        return (MonthYear.ofId(key));
+    }
+
+}
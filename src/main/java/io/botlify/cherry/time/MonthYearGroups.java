@@ -0,0 +1,83 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The rows of a table grouped by {@link MonthYear}, built from the epoch month id
+ * of every row (for instance the output of {@link BucketKernel#monthIds(long[])}).
+ * <p>
+ * The rows of a month are a contiguous slice of a single permutation of the rows,
+ * see {@link #rowsOf}, so grouping allocates two int arrays instead of a
+ * list per month. The layout is built in two linear counting sort passes.
+ * Instances are immutable and safe to share across threads.
+ */
+public final class MonthYearGroups extends AbstractBucketGroups<MonthYear> {
+
+    private MonthYearGroups(@NotNull final int[] monthIds, final boolean parallel) {
+        super(monthIds, false, parallel);
+    }
+
+    /**
+     * Group the rows by month.
+     * @param monthIds The epoch month id of every row.
+     * @return The groups.
+     */
+    public static @NotNull MonthYearGroups of(@NotNull final int[] monthIds) {
+        return (new MonthYearGroups(monthIds, false));
+    }
+
+    /**
+     * Group the rows by month.
+     * @param monthIds The epoch month id of every row.
+     * @param parallel True to split the passes over the common {@link ForkJoinPool}.
+     * @return The groups.
+     */
+    public static @NotNull MonthYearGroups of(@NotNull final int[] monthIds, final boolean parallel) {
+        return (new MonthYearGroups(monthIds, parallel));
+    }
+
+    /**
+     * Get the months from the first one to the last one having rows,
+     * empty months included. The range is empty if there is no row.
+     * @return The range of months.
+     */
+    public @NotNull MonthYearRange getMonthYears() {
+        return (MonthYearRange.ofIds(firstKey, firstKey + bucketCount() - 1));
+    }
+
+    /**
+     * Get the number of rows of a month.
+     * @param id The epoch month id.
+     * @return The number of rows, 0 if the month has no row.
+     */
+    public int countById(final int id) {
+        return (endOfKey(id) - startOfKey(id));
+    }
+
+    /**
+     * Get the rows of a month, as a read-only view of the permutation.
+     * @param id The epoch month id.
+     * @return The row indexes, in increasing order.
+     */
+    public @NotNull IntBuffer rowsOfId(final int id) {
+        return (rowsOfKey(id));
+    }
+
+    /*
+     $      Abstract bucket groups
+     */
+
+    @Override
+    int keyOf(@NotNull final MonthYear bucket) {
+        return (bucket.getId());
+    }
+
+    @Override
+    @NotNull MonthYear bucketOf(final int key) {
+        return (MonthYear.ofId(key));
+    }
+
+}
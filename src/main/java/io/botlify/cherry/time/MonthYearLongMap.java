@@ -0,0 +1,80 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.LongBinaryOperator;
+
+/**
+ * A map from {@link MonthYear} to a primitive long, storing its values in a
+ * dense array indexed by epoch month id.
+ * <p>
+ * Lookups and updates are an array access, without boxing, hashing nor entry
+ * objects. The array grows at either end and iteration is in chronological order.
+ * Partial aggregates built by several threads are combined with
+ * {@link #addAll(MonthYearLongMap)} or {@link #merge(MonthYearLongMap, LongBinaryOperator)}.
+ * This class is not thread-safe.
+ */
+public final class MonthYearLongMap extends AbstractDenseLongMap<MonthYear> {
+
+    /**
+     * Get the value of an epoch month id.
+     * @param id The epoch month id.
+     * @return The value, or 0 if absent.
+     */
+    public long getById(final int id) {
+        return (getByKey(id, 0));
+    }
+
+    /**
+     * Set the value of an epoch month id.
+     * @param id The epoch month id.
+     * @param value The value.
+     * @return The previous value, or 0 if absent.
+     */
+    public long putById(final int id, final long value) {
+        return (putByKey(id, value));
+    }
+
+    /**
+     * Add a delta to the value of an epoch month id, an absent month counts as 0.
+     * @param id The epoch month id.
+     * @param delta The delta to add.
+     * @return The new value.
+     */
+    public long addById(final int id, final long delta) {
+        return (addByKey(id, delta));
+    }
+
+    /**
+     * Add the values of the other map to the values of this map.
+     * @param other The other map.
+     */
+    public void addAll(@NotNull final MonthYearLongMap other) {
+        mergeFrom(other, Long::sum);
+    }
+
+    /**
+     * Merge every entry of the other map into this map. When a month is present
+     * in both maps, the operator computes the new value from the two values.
+     * @param other The other map.
+     * @param operator The merge operator.
+     */
+    public void merge(@NotNull final MonthYearLongMap other, @NotNull final LongBinaryOperator operator) {
+        mergeFrom(other, operator);
+    }
+
+    /*
+     $      Abstract dense primitive map
+     */
+
+    @Override
+    int keyOf(@NotNull final MonthYear bucket) {
+        return (bucket.getId());
+    }
+
+    @Override
+    @NotNull MonthYear bucketOf(final int key) {
+        return (MonthYear.ofId(key));
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * A map keyed by {@link MonthYear}, storing its values in a dense array
+ * indexed by epoch month id.
+ * <p>
+ * Lookups and updates are an array access, without hashing nor entry objects.
+ * The array grows at either end, iteration is in chronological order and null
+ * values are not allowed. Partial aggregates built by several threads are
+ * combined with {@link #mergeAll(MonthYearMap, BiFunction)}.
+ * This class is not thread-safe.
+ * @param <V> The type of the values.
+ */
+public final class MonthYearMap<V> extends AbstractDenseBucketMap<MonthYear, V> {
+
+    /**
+     * Create an empty map.
+     */
+    public MonthYearMap() {
+    }
+
+    /**
+     * Create a map containing the entries of the given map.
+     * @param map The map to copy.
+     */
+    public MonthYearMap(@NotNull final Map<? extends MonthYear, ? extends V> map) {
+        putAll(map);
+    }
+
+    /**
+     * Get the value of an epoch month id.
+     * @param id The epoch month id.
+     * @return The value, or null if absent.
+     */
+    public @Nullable V getById(final int id) {
+        return (getByKey(id));
+    }
+
+    /**
+     * Set the value of an epoch month id.
+     * @param id The epoch month id.
+     * @param value The value.
+     * @return The previous value, or null if absent.
+     */
+    public @Nullable V putById(final int id, @NotNull final V value) {
+        return (putByKey(id, value));
+    }
+
+    /**
+     * Merge every entry of the other map into this map. When a month is present
+     * in both maps, the function computes the new value from the two values,
+     * a null result removes the month.
+     * @param other The other map.
+     * @param function The merge function.
+     */
+    public void mergeAll(@NotNull final MonthYearMap<V> other,
+                         @NotNull final BiFunction<? super V, ? super V, ? extends V> function) {
+        mergeFrom(other, function);
+    }
+
+    /*
+     $      Abstract dense bucket map
+     */
+
+    @Override
+    int keyOf(@NotNull final MonthYear bucket) {
+        return (bucket.getId());
+    }
+
+    @Override
+    @NotNull MonthYear bucketOf(final int key) {
+        return (MonthYear.ofId(key));
+    }
+
+    @Override
+    boolean isBucket(@Nullable final Object o) {
+        return (o instanceof MonthYear);
+    }
+
+}
@@ -0,0 +1,95 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable list of consecutive {@link MonthYear}, in chronological order.
+ * <p>
+ * The range only stores its first epoch month id and its size, so a range of
+ * several decades costs the same as a single month until it is iterated.
+ * {@link #size()}, {@link #get(int)}, {@link #contains(Object)} and
+ * {@link #indexOf(Object)} are O(1) and its spliterator splits in halves.
+ */
+public final class MonthYearRange extends AbstractBucketRange<MonthYear> {
+
+    private MonthYearRange(final int firstId, final int size) {
+        super(firstId, size);
+    }
+
+    /**
+     * Create the range of months between two months.
+     * The range is empty if the first month is after the last one.
+     * @param from The first month year, inclusive.
+     * @param to The last month year, inclusive.
+     * @return The range.
+     */
+    public static @NotNull MonthYearRange of(@NotNull final MonthYear from, @NotNull final MonthYear to) {
+        return (ofIds(from.getId(), to.getId()));
+    }
+
+    /**
+     * Create the range of months between two epoch month ids.
+     * The range is empty if the first id is after the last one.
+     * @param fromId The first epoch month id, inclusive.
+     * @param toId The last epoch month id, inclusive.
+     * @return The range.
+     */
+    public static @NotNull MonthYearRange ofIds(final int fromId, final int toId) {
+        return (new MonthYearRange(fromId, toId - fromId + 1));
+    }
+
+    /**
+     * Check if the range contains an epoch month id.
+     * @param id The epoch month id.
+     * @return True if the id is in the range.
+     */
+    public boolean containsId(final int id) {
+        return (containsKey(id));
+    }
+
+    /**
+     * Get the index of an epoch month id in the range.
+     * @param id The epoch month id.
+     * @return The index, or -1 if the id is not in the range.
+     */
+    public int indexOfId(final int id) {
+        return (indexOfKey(id));
+    }
+
+    /**
+     * Get the epoch month id at an index, without creating a month year.
+     * @param index The index.
+     * @return The epoch month id.
+     */
+    public int getId(final int index) {
+        if (index < 0 || index >= size)
+            throw (new IndexOutOfBoundsException("Index: " + index + ", size: " + size));
+        return (firstKey + index);
+    }
+
+    /*
+     $      Abstract bucket range
+     */
+
+    @Override
+    int keyOf(@NotNull final MonthYear element) {
+        return (element.getId());
+    }
+
+    @Override
+    @NotNull MonthYear elementOf(final int key) {
+        return (MonthYear.ofId(key));
+    }
+
+    @Override
+    boolean isElement(@Nullable final Object o) {
+        return (o instanceof MonthYear);
+    }
+
+    @Override
+    @NotNull MonthYearRange range(final int firstKey, final int size) {
+        return (new MonthYearRange(firstKey, size));
+    }
+
+}
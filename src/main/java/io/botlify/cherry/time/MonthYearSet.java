@@ -0,0 +1,184 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * A navigable set of {@link MonthYear} stored as a bitset over epoch month ids.
+ * <p>
+ * Membership, insertion and removal are O(1), navigation and rank scan
+ * 64 months per word, and the bulk operations ({@link #addAll(Collection)},
+ * {@link #retainAll(Collection)}, {@link #removeAll(Collection)}) between two
+ * month year sets are done word by word.
+ * The sets returned by {@link #subSet}, {@link #headSet}, {@link #tailSet} and
+ * {@link #descendingSet()} are views backed by this set.
+ * This class is not thread-safe.
+ */
+public final class MonthYearSet extends AbstractBucketSet<MonthYear> {
+
+    /**
+     * Create an empty set.
+     */
+    public MonthYearSet() {
+        super(new IdBitSet(), Integer.MIN_VALUE + 1, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Create a set containing the given month years.
+     * @param monthYears The month years.
+     */
+    public MonthYearSet(@NotNull final Collection<? extends MonthYear> monthYears) {
+        this();
+        addAll(monthYears);
+    }
+
+    private MonthYearSet(@NotNull final IdBitSet bits,
+                         final int low,
+                         final int high,
+                         final boolean descending) {
+        super(bits, low, high, descending);
+    }
+
+    /*
+     $      Id operations
+     */
+
+    /**
+     * Check if the set contains the given epoch month id.
+     * @param id The epoch month id.
+     * @return True if the set contains the id.
+     */
+    public boolean containsId(final int id) {
+        return (containsKey(id));
+    }
+
+    /**
+     * Add an epoch month id.
+     * @param id The epoch month id.
+     * @return True if the id was not in the set.
+     */
+    public boolean addId(final int id) {
+        return (addKey(id));
+    }
+
+    /**
+     * Remove an epoch month id.
+     * @param id The epoch month id.
+     * @return True if the id was in the set.
+     */
+    public boolean removeId(final int id) {
+        return (removeKey(id));
+    }
+
+    /**
+     * Add every month between two months.
+     * @param from The first month year, inclusive.
+     * @param to The last month year, inclusive.
+     */
+    public void addRange(@NotNull final MonthYear from, @NotNull final MonthYear to) {
+        addKeyRange(from.getId(), to.getId());
+    }
+
+    /**
+     * Add every epoch month id between two ids.
+     * @param fromId The first epoch month id, inclusive.
+     * @param toId The last epoch month id, inclusive.
+     */
+    public void addIdRange(final int fromId, final int toId) {
+        addKeyRange(fromId, toId);
+    }
+
+    /**
+     * Add every month covered by the period, from the month of its start date
+     * to the month of its end date.
+     * @param period The period.
+     */
+    public void addPeriod(@NotNull final Period period) {
+        addKeyRange(CalendarMath.monthIdOfEpochDay(period.getStartEpochDay()),
+                CalendarMath.monthIdOfEpochDay(period.getEndEpochDay()));
+    }
+
+    /**
+     * Call the consumer for every epoch month id of the set, in the order of the set.
+     * @param consumer The consumer.
+     */
+    public void forEachId(@NotNull final IntConsumer consumer) {
+        forEachKey(consumer);
+    }
+
+    /**
+     * Get the number of month years in the set.
+     * @return The number of month years.
+     */
+    public int cardinality() {
+        return (size());
+    }
+
+    /*
+     $      Public static methods
+     */
+
+    /**
+     * Create the union of two sets.
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new set containing the month years of both sets.
+     */
+    public static @NotNull MonthYearSet union(@NotNull final MonthYearSet a, @NotNull final MonthYearSet b) {
+        final MonthYearSet result = new MonthYearSet(a);
+        result.addAll(b);
+        return (result);
+    }
+
+    /**
+     * Create the intersection of two sets.
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new set containing the month years present in both sets.
+     */
+    public static @NotNull MonthYearSet intersection(@NotNull final MonthYearSet a, @NotNull final MonthYearSet b) {
+        final MonthYearSet result = new MonthYearSet(a);
+        result.retainAll(b);
+        return (result);
+    }
+
+    /**
+     * Create the difference of two sets.
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new set containing the month years of the first set that are not in the second one.
+     */
+    public static @NotNull MonthYearSet difference(@NotNull final MonthYearSet a, @NotNull final MonthYearSet b) {
+        final MonthYearSet result = new MonthYearSet(a);
+        result.removeAll(b);
+        return (result);
+    }
+
+    /*
+     $      Abstract bucket set
+     */
+
+    @Override
+    int keyOf(@NotNull final MonthYear element) {
+        return (element.getId());
+    }
+
+    @Override
+    @NotNull MonthYear elementOf(final int key) {
+        return (MonthYear.ofId(key));
+    }
+
+    @Override
+    boolean isElement(@Nullable final Object o) {
+        return (o instanceof MonthYear);
+    }
+
+    @Override
+    @NotNull MonthYearSet view(final int low, final int high, final boolean descending) {
+        return (new MonthYearSet(bits, low, high, descending));
+    }
+
+}
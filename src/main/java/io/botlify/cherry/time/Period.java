@@ -2,20 +2,26 @@ package io.botlify.cherry.time;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 
-@ToString
-public final class Period {
+/**
+ * A period of days, from a start date to an end date, both inclusive.
+ * <p>
+ * The period is stored as two epoch days (number of days since 1970-01-01),
+ * the dates are only created when {@link #getStartDate()} or {@link #getEndDate()}
+ * are called. Large sets of periods are best stored in a {@link PeriodArray}.
+ */
+public final class Period implements Serializable {
 
-    private final LocalDate startDate;
+    private static final long serialVersionUID = 1L;
 
-    private final LocalDate endDate;
+    private final int startEpochDay;
+
+    private final int endEpochDay;
 
     /*
      $      Constructor
@@ -23,23 +29,40 @@ public final class Period {
 
     /**
      * This constructor is used to create a period from two dates.
-     * This constructor convert the two dates into a LocalDate object.
+     * This constructor convert the two dates into days in UTC.
      * @param startDate The start date of the period.
      * @param endDate The end date of the period.
      */
     public Period(@NotNull final Instant startDate,
                   @NotNull final Instant endDate) {
-        this.startDate = startDate.atZone(ZoneId.of("UTC")).toLocalDate();
-        this.endDate = endDate.atZone(ZoneId.of("UTC")).toLocalDate();
-        postConstructor();
+        this(epochDayOf(startDate), epochDayOf(endDate));
     }
 
+    /**
+     * This constructor is used to create a period from two dates.
+     * This constructor convert the two dates into days in the time zone.
+     * @param startDate The start date of the period.
+     * @param endDate The end date of the period.
+     * @param timeZone The id of the time zone, resolved once by {@link ZoneTable#of(String)}.
+     */
     public Period(@NotNull final Instant startDate,
                   @NotNull final Instant endDate,
                   @NotNull final String timeZone) {
-        this.startDate = startDate.atZone(ZoneId.of(timeZone)).toLocalDate();
-        this.endDate = endDate.atZone(ZoneId.of(timeZone)).toLocalDate();
-        postConstructor();
+        this(startDate, endDate, ZoneTable.of(timeZone));
+    }
+
+    /**
+     * This constructor is used to create a period from two dates.
+     * This constructor convert the two dates into days in the time zone.
+     * @param startDate The start date of the period.
+     * @param endDate The end date of the period.
+     * @param zone The time zone.
+     */
+    public Period(@NotNull final Instant startDate,
+                  @NotNull final Instant endDate,
+                  @NotNull final ZoneTable zone) {
+        this(CalendarMath.checkedEpochDay(zone.localEpochDayOfSeconds(startDate.getEpochSecond())),
+                CalendarMath.checkedEpochDay(zone.localEpochDayOfSeconds(endDate.getEpochSecond())));
     }
 
     /**
@@ -48,9 +71,7 @@ public final class Period {
      * @param endDate The end date of the period.
      */
     public Period(@NotNull LocalDate startDate, @NotNull LocalDate endDate) {
-        this.startDate = startDate;
-        this.endDate = endDate;
-        postConstructor();
+        this(CalendarMath.checkedEpochDay(startDate.toEpochDay()), CalendarMath.checkedEpochDay(endDate.toEpochDay()));
     }
 
     /**
@@ -59,8 +80,12 @@ public final class Period {
      * @param endDate The start date of the period in YYYY-MM-DD format.
      */
     public Period(@NotNull String startDate, @NotNull String endDate) {
-        this.startDate = LocalDate.parse(startDate);
-        this.endDate = LocalDate.parse(endDate);
+        this(IsoParser.parseEpochDay(startDate), IsoParser.parseEpochDay(endDate));
+    }
+
+    private Period(final int startEpochDay, final int endEpochDay) {
+        this.startEpochDay = startEpochDay;
+        this.endEpochDay = endEpochDay;
         postConstructor();
     }
 
@@ -69,10 +94,35 @@ public final class Period {
      * The start date must be before the end date.
      */
     private void postConstructor() {
-        if (startDate.isAfter(endDate))
+        if (startEpochDay > endEpochDay)
             throw (new IllegalArgumentException("The start date is after the end date."));
     }
 
+    /*
+     $      Factories
+     */
+
+    /**
+     * Create a period from two epoch days.
+     * @param startEpochDay The start day of the period, inclusive.
+     * @param endEpochDay The end day of the period, inclusive.
+     * @return The period.
+     */
+    public static @NotNull Period ofEpochDays(final int startEpochDay, final int endEpochDay) {
+        return (new Period(CalendarMath.checkedEpochDay(startEpochDay), CalendarMath.checkedEpochDay(endEpochDay)));
+    }
+
+    /**
+     * Create a period from two epoch milliseconds, the days are computed in UTC.
+     * @param startEpochMillis The start of the period.
+     * @param endEpochMillis The end of the period.
+     * @return The period.
+     */
+    public static @NotNull Period ofEpochMillis(final long startEpochMillis, final long endEpochMillis) {
+        return (new Period(CalendarMath.checkedEpochDay(Math.floorDiv(startEpochMillis, EpochConverter.MILLIS_PER_DAY)),
+                CalendarMath.checkedEpochDay(Math.floorDiv(endEpochMillis, EpochConverter.MILLIS_PER_DAY))));
+    }
+
     /*
      $      Public function
      */
@@ -83,11 +133,13 @@ public final class Period {
      * @return True if the date is inside the period.
      */
     public boolean isInside(@NotNull final LocalDate dateLocal) {
-        return (isAfterOrEquals(startDate, dateLocal) && isBeforeOrEquals(endDate, dateLocal));
+        final long epochDay = dateLocal.toEpochDay();
+        return (epochDay >= startEpochDay && epochDay <= endEpochDay);
     }
 
     public boolean isInside(@NotNull final Instant dateInstant) {
-        return (isInside(dateInstant.atZone(ZoneId.of("UTC")).toLocalDate()));
+        final long epochDay = Math.floorDiv(dateInstant.getEpochSecond(), EpochConverter.SECONDS_PER_DAY);
+        return (epochDay >= startEpochDay && epochDay <= endEpochDay);
     }
 
     /**
@@ -96,7 +148,7 @@ public final class Period {
      * @return True if the period is inside the period.
      */
     public boolean isInside(@NotNull final Period period) {
-        return (isAfterOrEquals(startDate, period.getStartDate()) && isBeforeOrEquals(endDate, period.getEndDate()));
+        return (startEpochDay <= period.startEpochDay && endEpochDay >= period.endEpochDay);
     }
 
     /**
@@ -105,101 +157,117 @@ public final class Period {
      * @return True if the period is overlapping the period.
      */
     public boolean isOverlap(@NotNull Period period) {
-        if (startDate.isBefore(period.startDate) && endDate.isBefore(period.startDate))
-            return (false);
-        return !startDate.isAfter(period.endDate) || !endDate.isAfter(period.endDate);
+        return (startEpochDay <= period.endEpochDay && period.startEpochDay <= endEpochDay);
     }
 
-    /*
-     $      Private method
+    /**
+     * Check if the period is in month year.
+     * @param monthYear The month year to check.
+     * @return True if the period is in month year.
      */
+    public boolean isIn(@NotNull final MonthYear monthYear) {
+        final int id = monthYear.getId();
+        return (id >= startMonthId() && id <= endMonthId());
+    }
 
     /**
-     * Check if the dateLocalRef is before or equal to dateLocalB.
-     * @param dateLocalRef The reference date for comparison.
-     * @param dateLocalToCmp The second date to compare.
-     * @return True if the dateLocalRef is before or equal to dateLocalB.
+     * Check if the period is in week year.
+     * @param weekOfYear The week of year to check.
+     * @return True if the period is in week of year.
      */
-    private boolean isBeforeOrEquals(@NotNull LocalDate dateLocalRef, @NotNull LocalDate dateLocalToCmp) {
-        return (dateLocalRef.isAfter(dateLocalToCmp) || dateLocalRef.equals(dateLocalToCmp));
+    public boolean isIn(@NotNull final WeekOfYear weekOfYear) {
+        final int epochWeek = WeekOfYear.toEpochWeek(weekOfYear.getId());
+        return (epochWeek >= startEpochWeek() && epochWeek <= endEpochWeek());
     }
 
     /**
-     * Check if the dateLocalA is after or equal the dateLocalB.
-     * @param dateLocalRef The reference date for comparison.
-     * @param dateLocalToCmp The second date to compare.
-     * @return True if the dateLocalA is after or equals the dateLocalB.
+     * Return the month years covered by the period, from the month of
+     * the start date to the month of the end date.
+     * @return The range of month years.
      */
-    private boolean isAfterOrEquals(@NotNull LocalDate dateLocalRef, @NotNull LocalDate dateLocalToCmp) {
-        return (dateLocalRef.isBefore(dateLocalToCmp) || dateLocalRef.equals(dateLocalToCmp));
+    public @NotNull MonthYearRange toMonthYears() {
+        final long start = Instrumentation.start();
+        final int first = startMonthId();
+        final int last = endMonthId();
+        final MonthYearRange range = MonthYearRange.ofIds(first, last);
+        Instrumentation.record(TimeMetrics.Operation.PERIOD_TO_MONTH_YEARS, last - first + 1, start);
+        return (range);
     }
 
-    private boolean isOverlapLeft(@NotNull Period period) {
-        if (!isBeforeOrEquals(startDate, period.getStartDate()))
-            return (false);
-        if (!isBeforeOrEquals(endDate, period.getEndDate()))
-            return (false);
-        return isAfterOrEquals(startDate, period.getEndDate());
+    /**
+     * Return the weeks covered by the period, from the week of
+     * the start date to the week of the end date.
+     * @return The range of weeks.
+     */
+    public @NotNull WeekOfYearRange toWeekYears() {
+        final long start = Instrumentation.start();
+        final int first = startEpochWeek();
+        final int last = endEpochWeek();
+        final WeekOfYearRange range = WeekOfYearRange.ofEpochWeeks(first, last);
+        Instrumentation.record(TimeMetrics.Operation.PERIOD_TO_WEEK_YEARS, last - first + 1, start);
+        return (range);
     }
 
-    private boolean isOverlapRight(@NotNull Period period) {
-        if (!isAfterOrEquals(startDate, period.getStartDate()))
-            return (false);
-        if (!isAfterOrEquals(endDate, period.getEndDate()))
-            return (false);
-        return isBeforeOrEquals(endDate, period.getStartDate());
+    /**
+     * Return the set of month years covered by the period.
+     * @return The month years, as a range in a bitset.
+     */
+    public @NotNull MonthYearSet toMonthYearSet() {
+        final Object event = FlightEvents.begin(FlightEvents.PERIOD_DECOMPOSITION);
+        MonthYearSet monthYears = new MonthYearSet();
+        monthYears.addPeriod(this);
+        if (event != null)
+            FlightEvents.commit(event, "Period.toMonthYearSet", days(), endMonthId() - startMonthId() + 1, null);
+        return (monthYears);
     }
 
-    private boolean isOverlapRightAndLeft(@NotNull Period period) {
-        return isBeforeOrEquals(startDate, period.getStartDate()) && isAfterOrEquals(endDate, period.getEndDate());
+    /**
+     * Return the set of weeks covered by the period.
+     * @return The weeks, as a range in a bitset.
+     */
+    public @NotNull WeekOfYearSet toWeekOfYearSet() {
+        final Object event = FlightEvents.begin(FlightEvents.PERIOD_DECOMPOSITION);
+        final WeekOfYearSet weeks = WeekOfYearSet.of(this);
+        if (event != null)
+            FlightEvents.commit(event, "Period.toWeekOfYearSet", days(), endEpochWeek() - startEpochWeek() + 1, null);
+        return (weeks);
     }
 
     /**
-     * Check if the period is in month year.
-     * @param monthYear The month year to check.
-     * @return True if the period is in month year.
+     * Get the canonical instance of this period, shared by every period equal to it
+     * and interned while it is still referenced.
+     * @return The canonical period.
      */
-    public boolean isIn(@NotNull final MonthYear monthYear) {
-        List<MonthYear> monthYears = toMonthYears();
-        return (monthYears.contains(monthYear));
+    public @NotNull Period intern() {
+        return (InstanceCache.intern(this));
     }
 
-    /**
-     * Check if the period is in week year.
-     * @param weekOfYear The week of year to check.
-     * @return True if the period is in week of year.
+    /*
+     $      Private method
      */
-    public boolean isIn(@NotNull final WeekOfYear weekOfYear) {
-        List<WeekOfYear> weekOfYears = toWeekYears();
-        return (weekOfYears.contains(weekOfYear));
-    }
-
-    public @NotNull List<MonthYear> toMonthYears() {
-        MonthYear tmp = new MonthYear(getStartDateAsInstant());
-        MonthYear end = new MonthYear(getEndDateAsInstant());
-        if (tmp.equals(end))
-            return (Collections.singletonList(tmp));
-        List<MonthYear> monthYears = new ArrayList<>();
-        while (tmp.isBefore(end)) {
-            monthYears.add(tmp);
-            tmp = tmp.nextMonthYear();
-        }
-        monthYears.add(end);
-        return (monthYears);
+
+    private static int epochDayOf(@NotNull final Instant instant) {
+        return (CalendarMath.checkedEpochDay(Math.floorDiv(instant.getEpochSecond(), EpochConverter.SECONDS_PER_DAY)));
+    }
+
+    private int startMonthId() {
+        return (CalendarMath.monthIdOfEpochDay(startEpochDay));
+    }
+
+    private int endMonthId() {
+        return (CalendarMath.monthIdOfEpochDay(endEpochDay));
     }
 
-    public @NotNull List<WeekOfYear> toWeekYears() {
-        WeekOfYear tmp = new WeekOfYear(getStartDateAsInstant());
-        WeekOfYear end = new WeekOfYear(getEndDateAsInstant());
-        if (tmp.equals(end))
-            return (Collections.singletonList(tmp));
-        List<WeekOfYear> weekYears = new ArrayList<>();
-        while (tmp.isBefore(end)) {
-            weekYears.add(tmp);
-            tmp = tmp.nextWeek();
-        }
-        weekYears.add(end);
-        return (weekYears);
+    private int startEpochWeek() {
+        return (CalendarMath.epochWeekOfEpochDay(startEpochDay));
+    }
+
+    private int endEpochWeek() {
+        return (CalendarMath.epochWeekOfEpochDay(endEpochDay));
+    }
+
+    private long days() {
+        return ((long)endEpochDay - startEpochDay + 1);
     }
 
     @Override
@@ -209,17 +277,22 @@ public final class Period {
 
         Period period = (Period) o;
 
-        if (!startDate.equals(period.startDate)) return false;
-        return endDate.equals(period.endDate);
+        if (startEpochDay != period.startEpochDay) return false;
+        return endEpochDay == period.endEpochDay;
     }
 
     @Override
     public int hashCode() {
-        int result = startDate.hashCode();
-        result = 31 * result + endDate.hashCode();
+        int result = startEpochDay;
+        result = 31 * result + endEpochDay;
         return result;
     }
 
+    @Override
+    public @NotNull String toString() {
+        return ("Period(startDate=" + getStartDate() + ", endDate=" + getEndDate() + ")");
+    }
+
     /*
      $      Getters and setters
      */
@@ -229,7 +302,7 @@ public final class Period {
      * @return The start date of the period.
      */
     public LocalDate getStartDate() {
-        return (startDate);
+        return (LocalDate.ofEpochDay(startEpochDay));
     }
 
     /**
@@ -237,15 +310,43 @@ public final class Period {
      * @return The end date of the period.
      */
     public LocalDate getEndDate() {
-        return (endDate);
+        return (LocalDate.ofEpochDay(endEpochDay));
+    }
+
+    /**
+     * Get the start day of the period.
+     * @return The number of days from 1970-01-01 to the start date.
+     */
+    public int getStartEpochDay() {
+        return (startEpochDay);
+    }
+
+    /**
+     * Get the end day of the period.
+     * @return The number of days from 1970-01-01 to the end date.
+     */
+    public int getEndEpochDay() {
+        return (endEpochDay);
     }
 
     public Instant getStartDateAsInstant() {
-        return (startDate.atStartOfDay().toInstant(ZoneOffset.UTC));
+        return (Instant.ofEpochSecond(startEpochDay * EpochConverter.SECONDS_PER_DAY));
     }
 
     public Instant getEndDateAsInstant() {
-        return (endDate.atStartOfDay().toInstant(ZoneOffset.UTC));
+        return (Instant.ofEpochSecond(endEpochDay * EpochConverter.SECONDS_PER_DAY));
+    }
+
+    /*
+     $      Serialization
+     */
+
+    private @NotNull Object writeReplace() {
+        return (new SerializedForm(SerializedForm.PERIOD, this));
+    }
+
+    private void readObject(@NotNull final ObjectInputStream stream) throws InvalidObjectException {
+        throw (new InvalidObjectException("Period is deserialized through its serialized form."));
     }
 
 }
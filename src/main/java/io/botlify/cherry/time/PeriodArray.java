@@ -0,0 +1,290 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A growable columnar container of periods.
+ * <p>
+ * The periods are stored as two parallel arrays of epoch days, the start days
+ * and the end days (both inclusive), so each period costs 8 bytes. A
+ * {@link Period} object is only created by {@link #get(int)}.
+ * Every period added is validated, the start day must not be after the end day.
+ * This class is not thread-safe.
+ */
+public final class PeriodArray {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The start days, valid up to {@link #size}.
+     */
+    @NotNull
+    int[] starts;
+
+    /**
+     * The end days, valid up to {@link #size}.
+     */
+    @NotNull
+    int[] ends;
+
+    int size;
+
+    /**
+     * Create an empty array.
+     */
+    public PeriodArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty array.
+     * @param capacity The initial capacity.
+     */
+    public PeriodArray(final int capacity) {
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+    }
+
+    private PeriodArray(@NotNull final int[] starts, @NotNull final int[] ends, final int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /**
+     * Create an array from two columns of epoch days. The columns are copied
+     * and validated in a single pass.
+     * @param startEpochDays The start days, inclusive.
+     * @param endEpochDays The end days, inclusive.
+     * @return The array.
+     */
+    public static @NotNull PeriodArray of(@NotNull final int[] startEpochDays, @NotNull final int[] endEpochDays) {
+        if (startEpochDays.length != endEpochDays.length)
+            throw (new IllegalArgumentException("The columns do not have the same length."));
+        final PeriodArray array = new PeriodArray(startEpochDays.clone(), endEpochDays.clone(), startEpochDays.length);
+        array.validate(0, array.size);
+        return (array);
+    }
+
+    /**
+     * Create an array using two columns of epoch days without copying them.
+     * The columns are validated in a single pass.
+     * @param startEpochDays The start days, inclusive.
+     * @param endEpochDays The end days, inclusive.
+     * @param size The number of periods.
+     * @return The array.
+     */
+    static @NotNull PeriodArray wrap(@NotNull final int[] startEpochDays, @NotNull final int[] endEpochDays,
+                                     final int size) {
+        final PeriodArray array = new PeriodArray(startEpochDays, endEpochDays, size);
+        array.validate(0, size);
+        return (array);
+    }
+
+    /*
+     $      Access
+     */
+
+    public int size() {
+        return (size);
+    }
+
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    /**
+     * Get the period at an index.
+     * @param index The index.
+     * @return A new period.
+     */
+    public @NotNull Period get(final int index) {
+        checkIndex(index);
+        return (Period.ofEpochDays(starts[index], ends[index]));
+    }
+
+    /**
+     * Get the start day of the period at an index.
+     * @param index The index.
+     * @return The start epoch day, inclusive.
+     */
+    public int getStartEpochDay(final int index) {
+        checkIndex(index);
+        return (starts[index]);
+    }
+
+    /**
+     * Get the end day of the period at an index.
+     * @param index The index.
+     * @return The end epoch day, inclusive.
+     */
+    public int getEndEpochDay(final int index) {
+        checkIndex(index);
+        return (ends[index]);
+    }
+
+    /**
+     * Copy the start days in a new array.
+     * @return The start epoch days.
+     */
+    public @NotNull int[] toStartEpochDays() {
+        return (Arrays.copyOf(starts, size));
+    }
+
+    /**
+     * Copy the end days in a new array.
+     * @return The end epoch days.
+     */
+    public @NotNull int[] toEndEpochDays() {
+        return (Arrays.copyOf(ends, size));
+    }
+
+    /*
+     $      Modification
+     */
+
+    /**
+     * Add a period.
+     * @param period The period.
+     */
+    public void add(@NotNull final Period period) {
+        addUnchecked(period.getStartEpochDay(), period.getEndEpochDay());
+    }
+
+    /**
+     * Add a period.
+     * @param startEpochDay The start day, inclusive.
+     * @param endEpochDay The end day, inclusive.
+     */
+    public void add(final int startEpochDay, final int endEpochDay) {
+        if (startEpochDay > endEpochDay)
+            throw (new IllegalArgumentException("The start date is after the end date."));
+        CalendarMath.checkedEpochDay(startEpochDay);
+        CalendarMath.checkedEpochDay(endEpochDay);
+        addUnchecked(startEpochDay, endEpochDay);
+    }
+
+    /**
+     * Add every period of the other array.
+     * @param other The other array.
+     */
+    public void addAll(@NotNull final PeriodArray other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.starts, 0, starts, size, other.size);
+        System.arraycopy(other.ends, 0, ends, size, other.size);
+        size += other.size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Make sure the array can hold the given number of periods without growing.
+     * @param capacity The capacity.
+     */
+    public void ensureCapacity(final int capacity) {
+        if (capacity <= starts.length)
+            return;
+        final int length = Math.max(capacity, starts.length + (starts.length >> 1) + 1);
+        starts = Arrays.copyOf(starts, length);
+        ends = Arrays.copyOf(ends, length);
+    }
+
+    /**
+     * Release the unused capacity.
+     */
+    public void trimToSize() {
+        if (size == starts.length)
+            return;
+        starts = Arrays.copyOf(starts, size);
+        ends = Arrays.copyOf(ends, size);
+    }
+
+    /*
+     $      Bulk operations
+     */
+
+    /**
+     * Sort the periods by start day, then by end day.
+     */
+    public void sort() {
+        // Pack (start, length) in a long, the length is never negative so
+        // the natural order of the longs is the order of the periods.
+        final long[] packed = new long[size];
+        for (int i = 0; i < size; i++)
+            packed[i] = ((long)starts[i] << 32) | (ends[i] - starts[i]);
+        Arrays.sort(packed);
+        for (int i = 0; i < size; i++) {
+            starts[i] = (int)(packed[i] >> 32);
+            ends[i] = starts[i] + (int)packed[i];
+        }
+    }
+
+    /**
+     * Check if the periods are sorted by start day, then by end day.
+     * @return True if the array is sorted.
+     */
+    public boolean isSorted() {
+        for (int i = 1; i < size; i++) {
+            if (starts[i - 1] > starts[i] || (starts[i - 1] == starts[i] && ends[i - 1] > ends[i]))
+                return (false);
+        }
+        return (true);
+    }
+
+    /**
+     * Copy a slice of the array.
+     * @param fromIndex The first index, inclusive.
+     * @param toIndex The last index, exclusive.
+     * @return A new array containing the periods of the slice.
+     */
+    public @NotNull PeriodArray slice(final int fromIndex, final int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw (new IndexOutOfBoundsException("From: " + fromIndex + ", to: " + toIndex + ", size: " + size));
+        return (new PeriodArray(Arrays.copyOfRange(starts, fromIndex, toIndex),
+                Arrays.copyOfRange(ends, fromIndex, toIndex), toIndex - fromIndex));
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private void addUnchecked(final int startEpochDay, final int endEpochDay) {
+        if (size == starts.length)
+            ensureCapacity(size + 1);
+        starts[size] = startEpochDay;
+        ends[size] = endEpochDay;
+        size++;
+    }
+
+    /**
+     * Validate the periods of a range of indexes.
+     * The periods are first checked in a branch-free loop, the faulty index
+     * is only searched when an error is found.
+     */
+    private void validate(final int fromIndex, final int toIndex) {
+        int invalid = 0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            invalid |= (ends[i] - starts[i])
+                    | (starts[i] - CalendarMath.MIN_EPOCH_DAY)
+                    | (CalendarMath.MAX_EPOCH_DAY - ends[i]);
+        }
+        if (invalid >= 0)
+            return;
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (starts[i] > ends[i])
+                throw (new IllegalArgumentException("The start date is after the end date at index " + i + "."));
+            if (starts[i] < CalendarMath.MIN_EPOCH_DAY || ends[i] > CalendarMath.MAX_EPOCH_DAY)
+                throw (new IllegalArgumentException("The period at index " + i + " is out of the supported range."));
+        }
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size)
+            throw (new IndexOutOfBoundsException("Index: " + index + ", size: " + size));
+    }
+
+}
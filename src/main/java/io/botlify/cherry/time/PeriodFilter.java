@@ -0,0 +1,372 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bulk filters of timestamps and periods by period.
+ * <p>
+ * A filter tests every element of an array and returns a selection bitmap, the bit
+ * {@code i % 64} of the word {@code i / 64} being set if the element {@code i} is
+ * selected (the layout of {@link BitSet#valueOf(long[])}), or the compacted indexes of
+ * the selected elements. The tests are written without branches: the bounds of the
+ * query are computed once, and each element is tested with subtractions and a sign bit,
+ * so the loops do not depend on the data. The timestamps are epoch milliseconds in UTC,
+ * a timestamp is inside a period if its day is between the start and the end days.
+ * <p>
+ * The parallel versions split the bitmap in ranges of words computed in the common
+ * {@link ForkJoinPool}, the result is the same as in sequential mode.
+ */
+public final class PeriodFilter {
+
+    /**
+     * The minimum number of elements per chunk in parallel mode.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * The relation tested between the periods of an array and a query period.
+     */
+    public enum Relation {
+
+        /**
+         * The period shares at least one day with the query.
+         */
+        OVERLAPS,
+
+        /**
+         * Every day of the period is in the query, the period is contained in the query.
+         */
+        INSIDE,
+
+        /**
+         * Every day of the query is in the period.
+         */
+        CONTAINS
+
+    }
+
+    private PeriodFilter() {
+    }
+
+    /*
+     $      Timestamps
+     */
+
+    /**
+     * Select the timestamps inside a period.
+     * @param epochMillis The epoch milliseconds.
+     * @param period The period.
+     * @return The selection bitmap.
+     */
+    public static @NotNull long[] inside(@NotNull final long[] epochMillis, @NotNull final Period period) {
+        final long start = Instrumentation.start();
+        final long[] bitmap = new long[words(epochMillis.length)];
+        insideWords(epochMillis, lowMillis(period), spanMillis(period), bitmap, 0, bitmap.length);
+        Instrumentation.record(TimeMetrics.Operation.FILTER_TIMESTAMPS, epochMillis.length, start);
+        return (bitmap);
+    }
+
+    /**
+     * Select the timestamps inside one of the ranges of a set.
+     * @param epochMillis The epoch milliseconds.
+     * @param periods The ranges.
+     * @return The selection bitmap.
+     */
+    public static @NotNull long[] inside(@NotNull final long[] epochMillis, @NotNull final PeriodSet periods) {
+        final long start = Instrumentation.start();
+        final long[] bitmap = new long[words(epochMillis.length)];
+        if (!periods.isEmpty())
+            insideWords(epochMillis, periods, bitmap, 0, bitmap.length);
+        Instrumentation.record(TimeMetrics.Operation.FILTER_TIMESTAMPS, epochMillis.length, start);
+        return (bitmap);
+    }
+
+    /**
+     * Find the indexes of the timestamps inside a period.
+     * @param epochMillis The epoch milliseconds.
+     * @param period The period.
+     * @return The indexes, in increasing order.
+     */
+    public static @NotNull int[] insideIndexes(@NotNull final long[] epochMillis, @NotNull final Period period) {
+        final long start = Instrumentation.start();
+        final long low = lowMillis(period);
+        final long span = spanMillis(period);
+        final int[] indexes = new int[epochMillis.length];
+        int count = 0;
+        for (int i = 0; i < epochMillis.length; i++) {
+            // The index is always written, the count only moves if the timestamp is selected.
+            indexes[count] = i;
+            count += insideBit(epochMillis[i], low, span);
+        }
+        Instrumentation.record(TimeMetrics.Operation.FILTER_TIMESTAMPS, epochMillis.length, start);
+        return (Arrays.copyOf(indexes, count));
+    }
+
+    /**
+     * Select the timestamps inside a period, in the common {@link ForkJoinPool}.
+     * @param epochMillis The epoch milliseconds.
+     * @param period The period.
+     * @return The selection bitmap.
+     */
+    public static @NotNull long[] parallelInside(@NotNull final long[] epochMillis, @NotNull final Period period) {
+        final long start = Instrumentation.start();
+        final long[] bitmap = new long[words(epochMillis.length)];
+        final long low = lowMillis(period);
+        final long span = spanMillis(period);
+        parallel(bitmap, (from, to) -> insideWords(epochMillis, low, span, bitmap, from, to));
+        Instrumentation.record(TimeMetrics.Operation.FILTER_TIMESTAMPS, epochMillis.length, start);
+        return (bitmap);
+    }
+
+    /**
+     * Select the timestamps inside one of the ranges of a set, in the common {@link ForkJoinPool}.
+     * @param epochMillis The epoch milliseconds.
+     * @param periods The ranges.
+     * @return The selection bitmap.
+     */
+    public static @NotNull long[] parallelInside(@NotNull final long[] epochMillis, @NotNull final PeriodSet periods) {
+        final long start = Instrumentation.start();
+        final long[] bitmap = new long[words(epochMillis.length)];
+        if (!periods.isEmpty())
+            parallel(bitmap, (from, to) -> insideWords(epochMillis, periods, bitmap, from, to));
+        Instrumentation.record(TimeMetrics.Operation.FILTER_TIMESTAMPS, epochMillis.length, start);
+        return (bitmap);
+    }
+
+    /*
+     $      Periods
+     */
+
+    /**
+     * Select the periods of an array in a relation with a query period.
+     * @param periods The periods.
+     * @param query The query period.
+     * @param relation The relation.
+     * @return The selection bitmap.
+     */
+    public static @NotNull long[] select(@NotNull final PeriodArray periods, @NotNull final Period query,
+                                         @NotNull final Relation relation) {
+        final long start = Instrumentation.start();
+        final long[] bitmap = new long[words(periods.size)];
+        selectWords(periods, query, relation, bitmap, 0, bitmap.length);
+        Instrumentation.record(TimeMetrics.Operation.FILTER_PERIODS, periods.size, start);
+        return (bitmap);
+    }
+
+    /**
+     * Find the indexes of the periods of an array in a relation with a query period.
+     * @param periods The periods.
+     * @param query The query period.
+     * @param relation The relation.
+     * @return The indexes, in increasing order.
+     */
+    public static @NotNull int[] selectIndexes(@NotNull final PeriodArray periods, @NotNull final Period query,
+                                               @NotNull final Relation relation) {
+        final long start = Instrumentation.start();
+        final int[] starts = periods.starts;
+        final int[] ends = periods.ends;
+        final int size = periods.size;
+        final int queryStart = query.getStartEpochDay();
+        final int queryEnd = query.getEndEpochDay();
+        final int[] indexes = new int[size];
+        int count = 0;
+        switch (relation) {
+            case OVERLAPS:
+                for (int i = 0; i < size; i++) {
+                    indexes[count] = i;
+                    count += ~((queryEnd - starts[i]) | (ends[i] - queryStart)) >>> 31;
+                }
+                break;
+            case INSIDE:
+                for (int i = 0; i < size; i++) {
+                    indexes[count] = i;
+                    count += ~((starts[i] - queryStart) | (queryEnd - ends[i])) >>> 31;
+                }
+                break;
+            default:
+                for (int i = 0; i < size; i++) {
+                    indexes[count] = i;
+                    count += ~((queryStart - starts[i]) | (ends[i] - queryEnd)) >>> 31;
+                }
+                break;
+        }
+        Instrumentation.record(TimeMetrics.Operation.FILTER_PERIODS, size, start);
+        return (Arrays.copyOf(indexes, count));
+    }
+
+    /**
+     * Select the periods of an array in a relation with a query period, in the common {@link ForkJoinPool}.
+     * @param periods The periods.
+     * @param query The query period.
+     * @param relation The relation.
+     * @return The selection bitmap.
+     */
+    public static @NotNull long[] parallelSelect(@NotNull final PeriodArray periods, @NotNull final Period query,
+                                                 @NotNull final Relation relation) {
+        final long start = Instrumentation.start();
+        final long[] bitmap = new long[words(periods.size)];
+        parallel(bitmap, (from, to) -> selectWords(periods, query, relation, bitmap, from, to));
+        Instrumentation.record(TimeMetrics.Operation.FILTER_PERIODS, periods.size, start);
+        return (bitmap);
+    }
+
+    /*
+     $      Bitmaps
+     */
+
+    /**
+     * Count the elements selected by a bitmap.
+     * @param bitmap The selection bitmap.
+     * @return The number of bits set.
+     */
+    public static int count(@NotNull final long[] bitmap) {
+        int count = 0;
+        for (long word : bitmap)
+            count += Long.bitCount(word);
+        return (count);
+    }
+
+    /**
+     * Get the indexes of the elements selected by a bitmap.
+     * @param bitmap The selection bitmap.
+     * @return The indexes, in increasing order.
+     */
+    public static @NotNull int[] toIndexes(@NotNull final long[] bitmap) {
+        final int[] indexes = new int[count(bitmap)];
+        int count = 0;
+        for (int word = 0; word < bitmap.length; word++) {
+            for (long bits = bitmap[word]; bits != 0; bits &= bits - 1)
+                indexes[count++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+        return (indexes);
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static int words(final int length) {
+        return ((length + 63) >>> 6);
+    }
+
+    private static long lowMillis(@NotNull final Period period) {
+        return (period.getStartEpochDay() * EpochConverter.MILLIS_PER_DAY);
+    }
+
+    private static long spanMillis(@NotNull final Period period) {
+        return (((long)period.getEndEpochDay() - period.getStartEpochDay() + 1) * EpochConverter.MILLIS_PER_DAY);
+    }
+
+    /**
+     * Test a timestamp against a range of milliseconds.
+     * @param epochMillis The timestamp.
+     * @param low The first millisecond of the range.
+     * @param span The number of milliseconds of the range, far below {@link Long#MAX_VALUE}.
+     * @return 1 if the timestamp is in the range, else 0.
+     */
+    private static int insideBit(final long epochMillis, final long low, final long span) {
+        // The offset may wrap for the timestamps far from the range, its sign bit is then set
+        // or it is above the span, and the second term takes the sign bit when it is above the span.
+        final long offset = epochMillis - low;
+        return ((int)(~(offset | (span - 1 - offset)) >>> 63));
+    }
+
+    private static void insideWords(@NotNull final long[] epochMillis, final long low, final long span,
+                                    @NotNull final long[] bitmap, final int fromWord, final int toWord) {
+        for (int word = fromWord; word < toWord; word++) {
+            final int base = word << 6;
+            final int end = Math.min(base + 64, epochMillis.length);
+            long bits = 0;
+            for (int i = base; i < end; i++)
+                bits |= (long)insideBit(epochMillis[i], low, span) << (i - base);
+            bitmap[word] = bits;
+        }
+    }
+
+    private static void insideWords(@NotNull final long[] epochMillis, @NotNull final PeriodSet periods,
+                                    @NotNull final long[] bitmap, final int fromWord, final int toWord) {
+        final int[] starts = periods.starts;
+        final int[] ends = periods.ends;
+        // The days out of the supported range are clamped to a day never in a set.
+        final long minDay = CalendarMath.MIN_EPOCH_DAY - 1L;
+        final long maxDay = CalendarMath.MAX_EPOCH_DAY + 1L;
+        for (int word = fromWord; word < toWord; word++) {
+            final int base = word << 6;
+            final int end = Math.min(base + 64, epochMillis.length);
+            long bits = 0;
+            for (int i = base; i < end; i++) {
+                final int day = (int)Math.min(Math.max(BucketKernel.epochDay(epochMillis[i]), minDay), maxDay);
+                // Branch-free search of the last range starting at or before the day.
+                int first = 0;
+                int length = starts.length;
+                while (length > 1) {
+                    final int half = length >>> 1;
+                    first = starts[first + half - 1] <= day ? first + half : first;
+                    length -= half;
+                }
+                final int range = (starts[first] <= day ? first + 1 : first) - 1;
+                final int safe = range & ~(range >> 31);
+                bits |= (long)(~(range | (ends[safe] - day)) >>> 31) << (i - base);
+            }
+            bitmap[word] = bits;
+        }
+    }
+
+    private static void selectWords(@NotNull final PeriodArray periods, @NotNull final Period query,
+                                    @NotNull final Relation relation, @NotNull final long[] bitmap,
+                                    final int fromWord, final int toWord) {
+        final int[] starts = periods.starts;
+        final int[] ends = periods.ends;
+        final int size = periods.size;
+        final int queryStart = query.getStartEpochDay();
+        final int queryEnd = query.getEndEpochDay();
+        // The epoch days are small enough for the differences to never overflow.
+        for (int word = fromWord; word < toWord; word++) {
+            final int base = word << 6;
+            final int end = Math.min(base + 64, size);
+            long bits = 0;
+            switch (relation) {
+                case OVERLAPS:
+                    for (int i = base; i < end; i++)
+                        bits |= (long)(~((queryEnd - starts[i]) | (ends[i] - queryStart)) >>> 31) << (i - base);
+                    break;
+                case INSIDE:
+                    for (int i = base; i < end; i++)
+                        bits |= (long)(~((starts[i] - queryStart) | (queryEnd - ends[i])) >>> 31) << (i - base);
+                    break;
+                default:
+                    for (int i = base; i < end; i++)
+                        bits |= (long)(~((queryStart - starts[i]) | (ends[i] - queryEnd)) >>> 31) << (i - base);
+                    break;
+            }
+            bitmap[word] = bits;
+        }
+    }
+
+    private static void parallel(@NotNull final long[] bitmap, @NotNull final WordRangeAction action) {
+        final int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4,
+                (int)((long)bitmap.length * 64 / PARALLEL_THRESHOLD)));
+        if (chunks == 1) {
+            action.apply(0, bitmap.length);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, chunk ->
+                action.apply((int)((long)bitmap.length * chunk / chunks),
+                        (int)((long)bitmap.length * (chunk + 1) / chunks))));
+    }
+
+    /**
+     * Fill a range of words of a bitmap.
+     */
+    @FunctionalInterface
+    private interface WordRangeAction {
+
+        void apply(int fromWord, int toWord);
+
+    }
+
+}
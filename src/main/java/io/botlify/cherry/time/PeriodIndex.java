@@ -0,0 +1,361 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * An index of periods answering stabbing queries ("which periods contain this day")
+ * and overlap queries ("which periods overlap this period").
+ * <p>
+ * Each entry is a period in epoch days with an int id chosen by the caller, for
+ * instance its index in a {@link PeriodArray}. The entries are kept in a balanced
+ * (AVL) binary search tree ordered by start day then id, where each node also stores
+ * the highest end day of its subtree, so the subtrees that cannot match are skipped.
+ * A query visits O(log n) nodes per result found, insertion and removal are O(log n).
+ * <p>
+ * The index is safe for concurrent use: queries run in parallel under a read lock,
+ * insertions and removals take the write lock. The consumers given to the queries are
+ * called while the read lock is held, so they must not modify the index.
+ */
+public final class PeriodIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    @NotNull
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Nullable
+    private Node root;
+
+    private int size;
+
+    /**
+     * Create an empty index.
+     */
+    public PeriodIndex() {
+    }
+
+    /**
+     * Build an index containing every period of the array, the id of a period
+     * is its index in the array. The tree is built balanced in a single pass
+     * after sorting the periods.
+     * @param periods The periods.
+     * @return The index.
+     */
+    public static @NotNull PeriodIndex of(@NotNull final PeriodArray periods) {
+        final int count = periods.size();
+        final long[] order = new long[count];
+        for (int i = 0; i < count; i++)
+            order[i] = ((long)periods.starts[i] << 32) | i;
+        Arrays.sort(order);
+        final PeriodIndex index = new PeriodIndex();
+        index.root = build(periods, order, 0, count - 1);
+        index.size = count;
+        return (index);
+    }
+
+    /*
+     $      Modification
+     */
+
+    /**
+     * Insert a period.
+     * @param id The id of the period.
+     * @param period The period.
+     * @return False if a period with the same id and start day is already indexed.
+     */
+    public boolean insert(final int id, @NotNull final Period period) {
+        return (insert(id, period.getStartEpochDay(), period.getEndEpochDay()));
+    }
+
+    /**
+     * Insert a period.
+     * @param id The id of the period.
+     * @param startEpochDay The start day, inclusive.
+     * @param endEpochDay The end day, inclusive.
+     * @return False if a period with the same id and start day is already indexed.
+     */
+    public boolean insert(final int id, final int startEpochDay, final int endEpochDay) {
+        if (startEpochDay > endEpochDay)
+            throw (new IllegalArgumentException("The start date is after the end date."));
+        lock.writeLock().lock();
+        try {
+            final int before = size;
+            root = insert(root, startEpochDay, endEpochDay, id);
+            return (size != before);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a period.
+     * @param id The id of the period.
+     * @param period The period.
+     * @return True if the period was indexed.
+     */
+    public boolean remove(final int id, @NotNull final Period period) {
+        return (remove(id, period.getStartEpochDay(), period.getEndEpochDay()));
+    }
+
+    /**
+     * Remove a period.
+     * @param id The id of the period.
+     * @param startEpochDay The start day, inclusive.
+     * @param endEpochDay The end day, inclusive.
+     * @return True if the period was indexed.
+     */
+    public boolean remove(final int id, final int startEpochDay, final int endEpochDay) {
+        lock.writeLock().lock();
+        try {
+            final int before = size;
+            root = remove(root, startEpochDay, endEpochDay, id);
+            return (size != before);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return (size() == 0);
+    }
+
+    /*
+     $      Queries
+     */
+
+    /**
+     * Find the periods containing a day.
+     * @param epochDay The day.
+     * @param consumer Called with the id of every period found, in start day order.
+     */
+    public void stab(final int epochDay, @NotNull final IntConsumer consumer) {
+        overlapping(epochDay, epochDay, consumer);
+    }
+
+    /**
+     * Find the periods containing a date.
+     * @param date The date.
+     * @return The ids of the periods found, in start day order.
+     */
+    public @NotNull int[] stab(@NotNull final LocalDate date) {
+        final int epochDay = CalendarMath.checkedEpochDay(date.toEpochDay());
+        return (overlapping(epochDay, epochDay));
+    }
+
+    /**
+     * Find the periods overlapping a range of days.
+     * @param startEpochDay The first day of the range, inclusive.
+     * @param endEpochDay The last day of the range, inclusive.
+     * @param consumer Called with the id of every period found, in start day order.
+     */
+    public void overlapping(final int startEpochDay, final int endEpochDay, @NotNull final IntConsumer consumer) {
+        lock.readLock().lock();
+        try {
+            overlapping(root, startEpochDay, endEpochDay, consumer);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the periods overlapping a period.
+     * @param period The period.
+     * @return The ids of the periods found, in start day order.
+     */
+    public @NotNull int[] overlapping(@NotNull final Period period) {
+        return (overlapping(period.getStartEpochDay(), period.getEndEpochDay()));
+    }
+
+    /**
+     * Find the periods overlapping a range of days.
+     * @param startEpochDay The first day of the range, inclusive.
+     * @param endEpochDay The last day of the range, inclusive.
+     * @return The ids of the periods found, in start day order.
+     */
+    public @NotNull int[] overlapping(final int startEpochDay, final int endEpochDay) {
+        final int[][] result = {EMPTY};
+        final int[] count = {0};
+        overlapping(startEpochDay, endEpochDay, id -> {
+            if (count[0] == result[0].length)
+                result[0] = Arrays.copyOf(result[0], Math.max(8, count[0] * 2));
+            result[0][count[0]++] = id;
+        });
+        return (Arrays.copyOf(result[0], count[0]));
+    }
+
+    /*
+     $      Tree
+     */
+
+    private static final class Node {
+
+        final int start;
+
+        final int end;
+
+        final int id;
+
+        int maxEnd;
+
+        int height;
+
+        @Nullable
+        Node left;
+
+        @Nullable
+        Node right;
+
+        Node(final int start, final int end, final int id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.maxEnd = end;
+            this.height = 1;
+        }
+
+    }
+
+    private static void overlapping(@Nullable final Node node, final int from, final int to,
+                                    @NotNull final IntConsumer consumer) {
+        if (node == null || node.maxEnd < from)
+            return;
+        overlapping(node.left, from, to, consumer);
+        if (node.start > to)
+            return;
+        if (node.end >= from)
+            consumer.accept(node.id);
+        overlapping(node.right, from, to, consumer);
+    }
+
+    private static @Nullable Node build(@NotNull final PeriodArray periods, @NotNull final long[] order,
+                                        final int from, final int to) {
+        if (from > to)
+            return (null);
+        final int middle = (from + to) >>> 1;
+        final int index = (int)order[middle];
+        final Node node = new Node(periods.starts[index], periods.ends[index], index);
+        node.left = build(periods, order, from, middle - 1);
+        node.right = build(periods, order, middle + 1, to);
+        update(node);
+        return (node);
+    }
+
+    private static int compare(final int start, final int id, @NotNull final Node node) {
+        final int cmp = Integer.compare(start, node.start);
+        return (cmp != 0 ? cmp : Integer.compare(id, node.id));
+    }
+
+    private @NotNull Node insert(@Nullable final Node node, final int start, final int end, final int id) {
+        if (node == null) {
+            size++;
+            return (new Node(start, end, id));
+        }
+        final int cmp = compare(start, id, node);
+        if (cmp < 0)
+            node.left = insert(node.left, start, end, id);
+        else if (cmp > 0)
+            node.right = insert(node.right, start, end, id);
+        else
+            return (node);
+        return (balance(node));
+    }
+
+    private @Nullable Node remove(@Nullable final Node node, final int start, final int end, final int id) {
+        if (node == null)
+            return (null);
+        final int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, end, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, end, id);
+        } else {
+            if (node.end != end)
+                return (node);
+            size--;
+            if (node.left == null)
+                return (node.right);
+            if (node.right == null)
+                return (node.left);
+            Node successor = node.right;
+            while (successor.left != null)
+                successor = successor.left;
+            final Node replacement = new Node(successor.start, successor.end, successor.id);
+            replacement.right = removeMin(node.right);
+            replacement.left = node.left;
+            return (balance(replacement));
+        }
+        return (balance(node));
+    }
+
+    private static @Nullable Node removeMin(@NotNull final Node node) {
+        if (node.left == null)
+            return (node.right);
+        node.left = removeMin(node.left);
+        return (balance(node));
+    }
+
+    private static int height(@Nullable final Node node) {
+        return (node == null ? 0 : node.height);
+    }
+
+    private static void update(@NotNull final Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        int maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd)
+            maxEnd = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd > maxEnd)
+            maxEnd = node.right.maxEnd;
+        node.maxEnd = maxEnd;
+    }
+
+    private static @NotNull Node balance(@NotNull final Node node) {
+        update(node);
+        final int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right))
+                node.left = rotateLeft(node.left);
+            return (rotateRight(node));
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left))
+                node.right = rotateRight(node.right);
+            return (rotateLeft(node));
+        }
+        return (node);
+    }
+
+    private static @NotNull Node rotateRight(@NotNull final Node node) {
+        final Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return (pivot);
+    }
+
+    private static @NotNull Node rotateLeft(@NotNull final Node node) {
+        final Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return (pivot);
+    }
+
+}
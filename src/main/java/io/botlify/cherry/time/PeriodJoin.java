@@ -0,0 +1,336 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An overlap join between two arrays of periods, with a sweep line.
+ * <p>
+ * Both sides are sorted by start day, then the periods are visited in the order of their
+ * start days, each side keeping the periods started and not yet ended. A period visited
+ * is matched with the periods of the other side still active, so every overlapping pair
+ * is found once, when the period starting last is visited. The cost is the sort plus the
+ * number of pairs, instead of the product of the sizes for a nested loop.
+ * <p>
+ * The pairs are given to a callback as the indexes of the periods in their arrays, with
+ * the intersection of the two periods for {@link IntersectionConsumer}. In parallel mode,
+ * the time axis is split in ranges of start days, each range emitting the pairs whose
+ * later start day is inside it, so every pair is still emitted once, but from several
+ * threads and in no particular order.
+ */
+public final class PeriodJoin {
+
+    /**
+     * The minimum number of periods per partition in parallel mode.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private PeriodJoin() {
+    }
+
+    /**
+     * Receive the pairs of overlapping periods.
+     */
+    @FunctionalInterface
+    public interface PairConsumer {
+
+        /**
+         * Called for a pair of overlapping periods.
+         * @param leftIndex The index of the period in the left array.
+         * @param rightIndex The index of the period in the right array.
+         */
+        void accept(int leftIndex, int rightIndex);
+
+    }
+
+    /**
+     * Receive the pairs of overlapping periods with their intersection.
+     */
+    @FunctionalInterface
+    public interface IntersectionConsumer {
+
+        /**
+         * Called for a pair of overlapping periods.
+         * @param leftIndex The index of the period in the left array.
+         * @param rightIndex The index of the period in the right array.
+         * @param startEpochDay The first day of both periods.
+         * @param endEpochDay The last day of both periods, inclusive.
+         */
+        void accept(int leftIndex, int rightIndex, int startEpochDay, int endEpochDay);
+
+    }
+
+    /*
+     $      Sequential
+     */
+
+    /**
+     * Call the consumer for every pair of overlapping periods.
+     * @param left The left periods.
+     * @param right The right periods.
+     * @param consumer Called with the indexes of the periods.
+     */
+    public static void overlaps(@NotNull final PeriodArray left, @NotNull final PeriodArray right,
+                                @NotNull final PairConsumer consumer) {
+        intersections(left, right, (l, r, start, end) -> consumer.accept(l, r));
+    }
+
+    /**
+     * Call the consumer for every pair of overlapping periods, with their intersection.
+     * @param left The left periods.
+     * @param right The right periods.
+     * @param consumer Called with the indexes of the periods and their intersection.
+     */
+    public static void intersections(@NotNull final PeriodArray left, @NotNull final PeriodArray right,
+                                     @NotNull final IntersectionConsumer consumer) {
+        final Sorted sortedLeft = new Sorted(left, false);
+        final Sorted sortedRight = new Sorted(right, false);
+        sweep(sortedLeft, sortedRight, 0, sortedLeft.size(), 0, sortedRight.size(), consumer);
+    }
+
+    /**
+     * Count the pairs of overlapping periods.
+     * @param left The left periods.
+     * @param right The right periods.
+     * @return The number of pairs.
+     */
+    public static long count(@NotNull final PeriodArray left, @NotNull final PeriodArray right) {
+        final long[] count = new long[1];
+        intersections(left, right, (l, r, start, end) -> count[0]++);
+        return (count[0]);
+    }
+
+    /**
+     * Collect the intersections of the overlapping periods.
+     * @param left The left periods.
+     * @param right The right periods.
+     * @return The intersection of every pair, in the order of the sweep.
+     */
+    public static @NotNull PeriodArray intersect(@NotNull final PeriodArray left, @NotNull final PeriodArray right) {
+        final PeriodArray result = new PeriodArray();
+        intersections(left, right, (l, r, start, end) -> result.add(start, end));
+        return (result);
+    }
+
+    /*
+     $      Parallel
+     */
+
+    /**
+     * Call the consumer for every pair of overlapping periods, from the common {@link ForkJoinPool}.
+     * @param left The left periods.
+     * @param right The right periods.
+     * @param consumer Called with the indexes of the periods, it must be thread-safe.
+     */
+    public static void parallelOverlaps(@NotNull final PeriodArray left, @NotNull final PeriodArray right,
+                                        @NotNull final PairConsumer consumer) {
+        parallelIntersections(left, right, (l, r, start, end) -> consumer.accept(l, r));
+    }
+
+    /**
+     * Call the consumer for every pair of overlapping periods with their intersection,
+     * from the common {@link ForkJoinPool}.
+     * @param left The left periods.
+     * @param right The right periods.
+     * @param consumer Called with the indexes of the periods and their intersection, it must be thread-safe.
+     */
+    public static void parallelIntersections(@NotNull final PeriodArray left, @NotNull final PeriodArray right,
+                                             @NotNull final IntersectionConsumer consumer) {
+        final int partitions = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4,
+                Math.max(left.size, right.size) / PARALLEL_THRESHOLD));
+        final Sorted sortedLeft = new Sorted(left, partitions > 1);
+        final Sorted sortedRight = new Sorted(right, partitions > 1);
+        if (partitions == 1) {
+            sweep(sortedLeft, sortedRight, 0, sortedLeft.size(), 0, sortedRight.size(), consumer);
+            return;
+        }
+        // The bounds of the partitions are quantiles of the start days of the largest side.
+        final Sorted largest = sortedLeft.size() >= sortedRight.size() ? sortedLeft : sortedRight;
+        final int[] bounds = new int[partitions + 1];
+        for (int partition = 1; partition < partitions; partition++)
+            bounds[partition] = largest.starts[(int)((long)largest.size() * partition / partitions)];
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, partitions, partition -> {
+            final int fromLeft = partition == 0 ? 0 : sortedLeft.firstStartingAt(bounds[partition]);
+            final int toLeft = partition == partitions - 1 ? sortedLeft.size() : sortedLeft.firstStartingAt(bounds[partition + 1]);
+            final int fromRight = partition == 0 ? 0 : sortedRight.firstStartingAt(bounds[partition]);
+            final int toRight = partition == partitions - 1 ? sortedRight.size() : sortedRight.firstStartingAt(bounds[partition + 1]);
+            sweep(sortedLeft, sortedRight, fromLeft, toLeft, fromRight, toRight, consumer);
+        }));
+    }
+
+    /**
+     * Count the pairs of overlapping periods, from the common {@link ForkJoinPool}.
+     * @param left The left periods.
+     * @param right The right periods.
+     * @return The number of pairs.
+     */
+    public static long parallelCount(@NotNull final PeriodArray left, @NotNull final PeriodArray right) {
+        final LongAdder count = new LongAdder();
+        parallelIntersections(left, right, (l, r, start, end) -> count.increment());
+        return (count.sum());
+    }
+
+    /*
+     $      Private methods
+     */
+
+    /**
+     * Emit the pairs whose later period is between two positions of each side. The periods
+     * starting before the first positions and still active are matched too.
+     */
+    private static void sweep(@NotNull final Sorted left, @NotNull final Sorted right,
+                              final int fromLeft, final int toLeft, final int fromRight, final int toRight,
+                              @NotNull final IntersectionConsumer consumer) {
+        final int first = Math.min(fromLeft < toLeft ? left.starts[fromLeft] : Integer.MAX_VALUE,
+                fromRight < toRight ? right.starts[fromRight] : Integer.MAX_VALUE);
+        final Active activeLeft = new Active(left, fromLeft, first);
+        final Active activeRight = new Active(right, fromRight, first);
+        int i = fromLeft;
+        int j = fromRight;
+        while (i < toLeft || j < toRight) {
+            if (j == toRight || (i < toLeft && left.starts[i] <= right.starts[j])) {
+                activeRight.match(left, i, true, consumer);
+                activeLeft.add(i++);
+            } else {
+                activeLeft.match(right, j, false, consumer);
+                activeRight.add(j++);
+            }
+        }
+    }
+
+    /**
+     * The periods of a side sorted by start day, with their index in the array.
+     */
+    private static final class Sorted {
+
+        @NotNull
+        final int[] starts;
+
+        @NotNull
+        final int[] ends;
+
+        @NotNull
+        final int[] indexes;
+
+        /**
+         * The largest end of the periods up to each position, only for the parallel sweeps.
+         */
+        @Nullable
+        final int[] maxEnds;
+
+        Sorted(@NotNull final PeriodArray periods, final boolean parallel) {
+            // Pack (start, index) in a long, the natural order of the longs is the order of the starts.
+            final long[] packed = new long[periods.size];
+            for (int i = 0; i < periods.size; i++)
+                packed[i] = ((long)periods.starts[i] << 32) | i;
+            if (parallel)
+                Arrays.parallelSort(packed);
+            else
+                Arrays.sort(packed);
+            this.starts = new int[packed.length];
+            this.ends = new int[packed.length];
+            this.indexes = new int[packed.length];
+            for (int i = 0; i < packed.length; i++) {
+                indexes[i] = (int)packed[i];
+                starts[i] = (int)(packed[i] >> 32);
+                ends[i] = periods.ends[indexes[i]];
+            }
+            this.maxEnds = parallel ? new int[packed.length] : null;
+            for (int i = 0; parallel && i < packed.length; i++)
+                maxEnds[i] = i == 0 ? ends[0] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+
+        int size() {
+            return (starts.length);
+        }
+
+        /**
+         * Find the first period starting at or after a day.
+         * @param epochDay The epoch day.
+         * @return The position of the period, the size if every period starts before the day.
+         */
+        int firstStartingAt(final int epochDay) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (starts[middle] < epochDay)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            return (low);
+        }
+
+    }
+
+    /**
+     * The active periods of a side, the ones started and maybe not ended yet.
+     * The ended periods are removed when they are met by a match.
+     */
+    private static final class Active {
+
+        @NotNull
+        private final Sorted side;
+
+        @NotNull
+        private int[] positions = new int[16];
+
+        private int size;
+
+        /**
+         * Create the active periods of a sweep starting at a position.
+         * @param side The periods of the side.
+         * @param from The first position of the sweep.
+         * @param firstDay The first start day of the sweep, the periods ended before it are skipped.
+         */
+        Active(@NotNull final Sorted side, final int from, final int firstDay) {
+            this.side = side;
+            if (from == 0)
+                return;
+            // Walk back while a period up to the position may still be active.
+            final int[] maxEnds = Objects.requireNonNull(side.maxEnds);
+            for (int position = from - 1; position >= 0 && maxEnds[position] >= firstDay; position--) {
+                if (side.ends[position] >= firstDay)
+                    add(position);
+            }
+        }
+
+        void add(final int position) {
+            if (size == positions.length)
+                positions = Arrays.copyOf(positions, size * 2);
+            positions[size++] = position;
+        }
+
+        /**
+         * Match a period of the other side starting after every active period.
+         */
+        void match(@NotNull final Sorted other, final int position, final boolean otherIsLeft,
+                   @NotNull final IntersectionConsumer consumer) {
+            final int start = other.starts[position];
+            final int end = other.ends[position];
+            final int index = other.indexes[position];
+            int k = 0;
+            while (k < size) {
+                final int active = positions[k];
+                final int activeEnd = side.ends[active];
+                if (activeEnd < start) {
+                    positions[k] = positions[--size];
+                    continue;
+                }
+                if (otherIsLeft)
+                    consumer.accept(index, side.indexes[active], start, Math.min(end, activeEnd));
+                else
+                    consumer.accept(side.indexes[active], index, start, Math.min(end, activeEnd));
+                k++;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,414 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An immutable set of days, stored as sorted and disjoint ranges of days.
+ * <p>
+ * The ranges are normalized: they are sorted, they do not overlap and they do not touch,
+ * two ranges are always separated by at least one day. So two sets covering the same days
+ * are equal, and a range is a maximal run of covered days. The ranges are stored as two
+ * arrays of epoch days like {@link PeriodArray}, the containment checks are binary searches,
+ * and the union, the intersection and the difference of two sets are linear merges.
+ * Instances are immutable and safe to share across threads.
+ */
+public final class PeriodSet {
+
+    /**
+     * The set without any day.
+     */
+    @NotNull
+    public static final PeriodSet EMPTY = new PeriodSet(new int[0], new int[0]);
+
+    /**
+     * The start days of the ranges, in increasing order.
+     */
+    @NotNull
+    final int[] starts;
+
+    /**
+     * The end days of the ranges, inclusive.
+     */
+    @NotNull
+    final int[] ends;
+
+    private PeriodSet(@NotNull final int[] starts, @NotNull final int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /*
+     $      Factories
+     */
+
+    /**
+     * Create the set of the days covered by periods.
+     * @param periods The periods, in any order.
+     * @return The set.
+     */
+    public static @NotNull PeriodSet of(@NotNull final Period... periods) {
+        return (of(Arrays.asList(periods)));
+    }
+
+    /**
+     * Create the set of the days covered by periods.
+     * @param periods The periods, in any order.
+     * @return The set.
+     */
+    public static @NotNull PeriodSet of(@NotNull final Collection<Period> periods) {
+        final long[] packed = new long[periods.size()];
+        int i = 0;
+        for (Period period : periods)
+            packed[i++] = pack(period.getStartEpochDay(), period.getEndEpochDay());
+        return (ofPacked(packed));
+    }
+
+    /**
+     * Create the set of the days covered by the periods of an array.
+     * @param periods The periods, in any order.
+     * @return The set.
+     */
+    public static @NotNull PeriodSet of(@NotNull final PeriodArray periods) {
+        final long[] packed = new long[periods.size];
+        for (int i = 0; i < periods.size; i++)
+            packed[i] = pack(periods.starts[i], periods.ends[i]);
+        return (ofPacked(packed));
+    }
+
+    /*
+     $      Access
+     */
+
+    /**
+     * Get the number of ranges.
+     * @return The number of ranges.
+     */
+    public int size() {
+        return (starts.length);
+    }
+
+    public boolean isEmpty() {
+        return (starts.length == 0);
+    }
+
+    /**
+     * Get a range.
+     * @param index The index of the range, in increasing order.
+     * @return The range.
+     */
+    public @NotNull Period get(final int index) {
+        return (Period.ofEpochDays(starts[index], ends[index]));
+    }
+
+    public int getStartEpochDay(final int index) {
+        return (starts[index]);
+    }
+
+    public int getEndEpochDay(final int index) {
+        return (ends[index]);
+    }
+
+    /**
+     * Get the number of days of the set.
+     * @return The number of days covered by the ranges.
+     */
+    public long totalDays() {
+        long days = 0;
+        for (int i = 0; i < starts.length; i++)
+            days += (long)ends[i] - starts[i] + 1;
+        return (days);
+    }
+
+    /**
+     * Get the smallest period containing the set.
+     * @return The period from the first day to the last day, null if the set is empty.
+     */
+    public @Nullable Period span() {
+        if (starts.length == 0)
+            return (null);
+        return (Period.ofEpochDays(starts[0], ends[ends.length - 1]));
+    }
+
+    /**
+     * Copy the ranges in a period array.
+     * @return The ranges, in increasing order.
+     */
+    public @NotNull PeriodArray toPeriodArray() {
+        return (PeriodArray.of(starts, ends));
+    }
+
+    /*
+     $      Containment
+     */
+
+    /**
+     * Check if the set contains a day.
+     * @param epochDay The epoch day.
+     * @return True if the day is in a range.
+     */
+    public boolean contains(final int epochDay) {
+        final int index = rangeOf(epochDay);
+        return (index >= 0 && ends[index] >= epochDay);
+    }
+
+    public boolean contains(@NotNull final LocalDate date) {
+        final long epochDay = date.toEpochDay();
+        return (epochDay >= CalendarMath.MIN_EPOCH_DAY && epochDay <= CalendarMath.MAX_EPOCH_DAY
+                && contains((int)epochDay));
+    }
+
+    /**
+     * Check if the set contains every day of a period.
+     * @param period The period.
+     * @return True if the period is inside a single range.
+     */
+    public boolean contains(@NotNull final Period period) {
+        final int index = rangeOf(period.getStartEpochDay());
+        return (index >= 0 && ends[index] >= period.getEndEpochDay());
+    }
+
+    /**
+     * Check if the set contains at least one day of a period.
+     * @param period The period.
+     * @return True if a range overlaps the period.
+     */
+    public boolean overlaps(@NotNull final Period period) {
+        final int index = rangeOf(period.getEndEpochDay());
+        return (index >= 0 && ends[index] >= period.getStartEpochDay());
+    }
+
+    /*
+     $      Algebra
+     */
+
+    /**
+     * Create the complement of the set within a period.
+     * @param bound The period.
+     * @return The days of the period not in the set.
+     */
+    public @NotNull PeriodSet complement(@NotNull final Period bound) {
+        final int first = bound.getStartEpochDay();
+        final int last = bound.getEndEpochDay();
+        final Builder builder = new Builder(starts.length + 1);
+        int next = first;
+        for (int i = Math.max(rangeOf(first), 0); i < starts.length && starts[i] <= last; i++) {
+            if (starts[i] > next)
+                builder.add(next, starts[i] - 1);
+            // The epoch days are far from the bounds of an int, the day after a range never overflows.
+            next = Math.max(next, ends[i] + 1);
+        }
+        if (next <= last)
+            builder.add(next, last);
+        return (builder.build());
+    }
+
+    /**
+     * Create the union of two sets.
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new set containing the days of both sets.
+     */
+    public static @NotNull PeriodSet union(@NotNull final PeriodSet a, @NotNull final PeriodSet b) {
+        if (a.isEmpty())
+            return (b);
+        if (b.isEmpty())
+            return (a);
+        final Builder builder = new Builder(a.starts.length + b.starts.length);
+        int i = 0;
+        int j = 0;
+        while (i < a.starts.length || j < b.starts.length) {
+            if (j == b.starts.length || (i < a.starts.length && a.starts[i] <= b.starts[j])) {
+                builder.merge(a.starts[i], a.ends[i]);
+                i++;
+            } else {
+                builder.merge(b.starts[j], b.ends[j]);
+                j++;
+            }
+        }
+        return (builder.build());
+    }
+
+    /**
+     * Create the intersection of two sets.
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new set containing the days present in both sets.
+     */
+    public static @NotNull PeriodSet intersection(@NotNull final PeriodSet a, @NotNull final PeriodSet b) {
+        final Builder builder = new Builder(a.starts.length + b.starts.length);
+        int i = 0;
+        int j = 0;
+        while (i < a.starts.length && j < b.starts.length) {
+            final int start = Math.max(a.starts[i], b.starts[j]);
+            final int end = Math.min(a.ends[i], b.ends[j]);
+            if (start <= end)
+                builder.add(start, end);
+            // The range ending first cannot overlap the next ranges of the other set.
+            if (a.ends[i] < b.ends[j])
+                i++;
+            else
+                j++;
+        }
+        return (builder.build());
+    }
+
+    /**
+     * Create the difference of two sets.
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new set containing the days of the first set that are not in the second one.
+     */
+    public static @NotNull PeriodSet difference(@NotNull final PeriodSet a, @NotNull final PeriodSet b) {
+        if (a.isEmpty() || b.isEmpty())
+            return (a);
+        final Builder builder = new Builder(a.starts.length + b.starts.length);
+        int j = 0;
+        for (int i = 0; i < a.starts.length; i++) {
+            int start = a.starts[i];
+            final int end = a.ends[i];
+            while (j < b.starts.length && b.ends[j] < start)
+                j++;
+            // Cut the range with the ranges of b overlapping it.
+            int k = j;
+            while (k < b.starts.length && b.starts[k] <= end) {
+                if (b.starts[k] > start)
+                    builder.add(start, b.starts[k] - 1);
+                if (b.ends[k] >= end) {
+                    start = end + 1;
+                    break;
+                }
+                start = b.ends[k] + 1;
+                k++;
+            }
+            if (start <= end)
+                builder.add(start, end);
+        }
+        return (builder.build());
+    }
+
+    /*
+     $      Object methods
+     */
+
+    @Override
+    public boolean equals(@Nullable final Object o) {
+        if (this == o)
+            return (true);
+        if (o == null || getClass() != o.getClass())
+            return (false);
+        final PeriodSet other = (PeriodSet) o;
+        return (Arrays.equals(starts, other.starts) && Arrays.equals(ends, other.ends));
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * Arrays.hashCode(starts) + Arrays.hashCode(ends));
+    }
+
+    @Override
+    public @NotNull String toString() {
+        final StringBuilder builder = new StringBuilder("PeriodSet[");
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append(LocalDate.ofEpochDay(starts[i])).append('/').append(LocalDate.ofEpochDay(ends[i]));
+        }
+        return (builder.append(']').toString());
+    }
+
+    /*
+     $      Private methods
+     */
+
+    /**
+     * Find the last range starting at or before a day.
+     * @param epochDay The epoch day.
+     * @return The index of the range, -1 if every range starts after the day.
+     */
+    private int rangeOf(final int epochDay) {
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (starts[middle] <= epochDay)
+                low = middle + 1;
+            else
+                high = middle - 1;
+        }
+        return (high);
+    }
+
+    private static long pack(final int startEpochDay, final int endEpochDay) {
+        // Same packing as PeriodArray.sort(): the order of the longs is the order of the starts.
+        if (startEpochDay > endEpochDay)
+            throw (new IllegalArgumentException("The start date is after the end date."));
+        return (((long)startEpochDay << 32) | (endEpochDay - startEpochDay));
+    }
+
+    private static @NotNull PeriodSet ofPacked(@NotNull final long[] packed) {
+        Arrays.sort(packed);
+        final Builder builder = new Builder(packed.length);
+        for (long value : packed) {
+            final int start = (int)(value >> 32);
+            builder.merge(start, start + (int)value);
+        }
+        return (builder.build());
+    }
+
+    /**
+     * The ranges of a set being built, in increasing order.
+     */
+    private static final class Builder {
+
+        @NotNull
+        private int[] starts;
+
+        @NotNull
+        private int[] ends;
+
+        private int size;
+
+        Builder(final int capacity) {
+            this.starts = new int[Math.max(capacity, 1)];
+            this.ends = new int[Math.max(capacity, 1)];
+        }
+
+        /**
+         * Add a range after the last one, they must be separated by at least one day.
+         */
+        void add(final int start, final int end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        /**
+         * Add a range starting at or after the start of the last one, merging them if they
+         * overlap or touch.
+         */
+        void merge(final int start, final int end) {
+            if (size > 0 && (long)start <= (long)ends[size - 1] + 1) {
+                ends[size - 1] = Math.max(ends[size - 1], end);
+                return;
+            }
+            add(start, end);
+        }
+
+        @NotNull PeriodSet build() {
+            if (size == 0)
+                return (EMPTY);
+            return (new PeriodSet(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size)));
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+
+/**
+ * The serialized form of {@link MonthYear}, {@link WeekOfYear} and {@link Period}.
+ * <p>
+ * The value is written by {@link TimeCodec} as a type byte followed by its varint
+ * encoding, so a value takes 2 to 11 bytes in the stream instead of its fields and
+ * their class descriptors. The classes replace themselves by this form when they are
+ * serialized, and it resolves back to the value when it is deserialized.
+ */
+final class SerializedForm implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final byte MONTH_YEAR = 1;
+
+    static final byte WEEK_OF_YEAR = 2;
+
+    static final byte PERIOD = 3;
+
+    private byte type;
+
+    private transient Object value;
+
+    /**
+     * Constructor used by the deserialization.
+     */
+    public SerializedForm() {
+    }
+
+    SerializedForm(final byte type, @NotNull final Object value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    @Override
+    public void writeExternal(@NotNull final ObjectOutput out) throws IOException {
+        out.writeByte(type);
+        switch (type) {
+            case MONTH_YEAR:
+                TimeCodec.writeVar(out, (MonthYear)value);
+                break;
+            case WEEK_OF_YEAR:
+                TimeCodec.writeVar(out, (WeekOfYear)value);
+                break;
+            default:
+                TimeCodec.writeVar(out, (Period)value);
+                break;
+        }
+    }
+
+    @Override
+    public void readExternal(@NotNull final ObjectInput in) throws IOException {
+        type = in.readByte();
+        try {
+            switch (type) {
+                case MONTH_YEAR:
+                    value = TimeCodec.readVarMonthYear(in);
+                    break;
+                case WEEK_OF_YEAR:
+                    value = TimeCodec.readVarWeekOfYear(in);
+                    break;
+                case PERIOD:
+                    value = TimeCodec.readVarPeriod(in);
+                    break;
+                default:
+                    throw (new StreamCorruptedException("Unknown serialized type: " + type));
+            }
+        } catch (IllegalArgumentException e) {
+            throw ((InvalidObjectException)new InvalidObjectException(e.getMessage()).initCause(e));
+        }
+    }
+
+    private @NotNull Object readResolve() {
+        return (value);
+    }
+
+}
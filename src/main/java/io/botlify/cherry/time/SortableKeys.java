@@ -0,0 +1,316 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An encoding of time buckets into byte keys sorted like the buckets, for the sorted
+ * key-value stores comparing their keys as unsigned bytes.
+ * <p>
+ * A bucket is written as its id in 4 bytes, big-endian, with the sign bit flipped so the
+ * negative ids sort before the positive ones: the epoch day for a day, the epoch month id
+ * for a month (see {@link MonthYear#getId()}) and the week id for a week
+ * (see {@link WeekOfYear#getId()}). A composite key starts with a tenant id in 8 bytes,
+ * encoded the same way, so the keys of a tenant are contiguous and sorted by bucket.
+ * <p>
+ * The buckets covered by a {@link Period} are the keys between a start key, inclusive,
+ * and an end key, exclusive: the key of the bucket following the last one. The range
+ * methods write both keys in arrays or buffers given by the caller, so a scan key is
+ * computed without allocation.
+ */
+public final class SortableKeys {
+
+    /**
+     * The number of bytes of a bucket key.
+     */
+    public static final int BUCKET_BYTES = Integer.BYTES;
+
+    /**
+     * The number of bytes of a tenant prefix.
+     */
+    public static final int TENANT_BYTES = Long.BYTES;
+
+    /**
+     * The number of bytes of a composite key, a tenant followed by a bucket.
+     */
+    public static final int TENANT_BUCKET_BYTES = TENANT_BYTES + BUCKET_BYTES;
+
+    private SortableKeys() {
+    }
+
+    /*
+     $      Primitives
+     */
+
+    /**
+     * Write an int in 4 sortable bytes.
+     * @param key The key.
+     * @param offset The index of the first byte.
+     * @param value The value.
+     */
+    public static void putInt(@NotNull final byte[] key, final int offset, final int value) {
+        final int flipped = value ^ Integer.MIN_VALUE;
+        key[offset] = (byte)(flipped >>> 24);
+        key[offset + 1] = (byte)(flipped >>> 16);
+        key[offset + 2] = (byte)(flipped >>> 8);
+        key[offset + 3] = (byte)flipped;
+    }
+
+    /**
+     * Write a long in 8 sortable bytes.
+     * @param key The key.
+     * @param offset The index of the first byte.
+     * @param value The value.
+     */
+    public static void putLong(@NotNull final byte[] key, final int offset, final long value) {
+        putInt(key, offset, (int)(value >> 32));
+        putInt(key, offset + 4, (int)value ^ Integer.MIN_VALUE);
+    }
+
+    /**
+     * Read an int written by {@link #putInt(byte[], int, int)}.
+     * @param key The key.
+     * @param offset The index of the first byte.
+     * @return The value.
+     */
+    public static int getInt(@NotNull final byte[] key, final int offset) {
+        return (((key[offset] & 0xFF) << 24 | (key[offset + 1] & 0xFF) << 16
+                | (key[offset + 2] & 0xFF) << 8 | (key[offset + 3] & 0xFF)) ^ Integer.MIN_VALUE);
+    }
+
+    /**
+     * Read a long written by {@link #putLong(byte[], int, long)}.
+     * @param key The key.
+     * @param offset The index of the first byte.
+     * @return The value.
+     */
+    public static long getLong(@NotNull final byte[] key, final int offset) {
+        return ((long)getInt(key, offset) << 32 | ((getInt(key, offset + 4) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Write an int in 4 sortable bytes at the position of the buffer, whatever its byte order.
+     * @param buffer The buffer.
+     * @param value The value.
+     */
+    public static void putInt(@NotNull final ByteBuffer buffer, final int value) {
+        final int flipped = value ^ Integer.MIN_VALUE;
+        buffer.put((byte)(flipped >>> 24)).put((byte)(flipped >>> 16)).put((byte)(flipped >>> 8)).put((byte)flipped);
+    }
+
+    /**
+     * Write a long in 8 sortable bytes at the position of the buffer, whatever its byte order.
+     * @param buffer The buffer.
+     * @param value The value.
+     */
+    public static void putLong(@NotNull final ByteBuffer buffer, final long value) {
+        putInt(buffer, (int)(value >> 32));
+        putInt(buffer, (int)value ^ Integer.MIN_VALUE);
+    }
+
+    /*
+     $      Buckets
+     */
+
+    public static void putMonthYear(@NotNull final byte[] key, final int offset, @NotNull final MonthYear monthYear) {
+        putInt(key, offset, monthYear.getId());
+    }
+
+    public static void putWeekOfYear(@NotNull final byte[] key, final int offset, @NotNull final WeekOfYear weekOfYear) {
+        putInt(key, offset, weekOfYear.getId());
+    }
+
+    public static void putEpochDay(@NotNull final byte[] key, final int offset, final int epochDay) {
+        putInt(key, offset, epochDay);
+    }
+
+    public static @NotNull MonthYear getMonthYear(@NotNull final byte[] key, final int offset) {
+        return (MonthYear.ofId(getInt(key, offset)));
+    }
+
+    public static @NotNull WeekOfYear getWeekOfYear(@NotNull final byte[] key, final int offset) {
+        return (WeekOfYear.ofId(getInt(key, offset)));
+    }
+
+    public static int getEpochDay(@NotNull final byte[] key, final int offset) {
+        return (getInt(key, offset));
+    }
+
+    /**
+     * Create the key of a month.
+     * @param monthYear The month year.
+     * @return The key, {@link #BUCKET_BYTES} bytes.
+     */
+    public static @NotNull byte[] keyOf(@NotNull final MonthYear monthYear) {
+        final byte[] key = new byte[BUCKET_BYTES];
+        putInt(key, 0, monthYear.getId());
+        return (key);
+    }
+
+    /**
+     * Create the key of a week.
+     * @param weekOfYear The week.
+     * @return The key, {@link #BUCKET_BYTES} bytes.
+     */
+    public static @NotNull byte[] keyOf(@NotNull final WeekOfYear weekOfYear) {
+        final byte[] key = new byte[BUCKET_BYTES];
+        putInt(key, 0, weekOfYear.getId());
+        return (key);
+    }
+
+    /**
+     * Create the composite key of a month for a tenant.
+     * @param tenant The tenant id.
+     * @param monthYear The month year.
+     * @return The key, {@link #TENANT_BUCKET_BYTES} bytes.
+     */
+    public static @NotNull byte[] keyOf(final long tenant, @NotNull final MonthYear monthYear) {
+        final byte[] key = new byte[TENANT_BUCKET_BYTES];
+        putLong(key, 0, tenant);
+        putInt(key, TENANT_BYTES, monthYear.getId());
+        return (key);
+    }
+
+    /**
+     * Create the composite key of a week for a tenant.
+     * @param tenant The tenant id.
+     * @param weekOfYear The week.
+     * @return The key, {@link #TENANT_BUCKET_BYTES} bytes.
+     */
+    public static @NotNull byte[] keyOf(final long tenant, @NotNull final WeekOfYear weekOfYear) {
+        final byte[] key = new byte[TENANT_BUCKET_BYTES];
+        putLong(key, 0, tenant);
+        putInt(key, TENANT_BYTES, weekOfYear.getId());
+        return (key);
+    }
+
+    /*
+     $      Period ranges
+     */
+
+    /**
+     * Write the range of the month keys covered by a period. The bytes before the offset,
+     * a prefix, are left untouched in both keys.
+     * @param period The period.
+     * @param startKey Receives the key of the first month, inclusive.
+     * @param endKey Receives the key after the last month, exclusive.
+     * @param offset The index of the bucket in both keys.
+     */
+    public static void putMonthRange(@NotNull final Period period, @NotNull final byte[] startKey,
+                                     @NotNull final byte[] endKey, final int offset) {
+        putInt(startKey, offset, CalendarMath.monthIdOfEpochDay(period.getStartEpochDay()));
+        putInt(endKey, offset, CalendarMath.monthIdOfEpochDay(period.getEndEpochDay()) + 1);
+    }
+
+    /**
+     * Write the range of the week keys covered by a period. The bytes before the offset,
+     * a prefix, are left untouched in both keys.
+     * @param period The period.
+     * @param startKey Receives the key of the first week, inclusive.
+     * @param endKey Receives the key after the last week, exclusive.
+     * @param offset The index of the bucket in both keys.
+     */
+    public static void putWeekRange(@NotNull final Period period, @NotNull final byte[] startKey,
+                                    @NotNull final byte[] endKey, final int offset) {
+        // The id after the last week may not be a valid week, it is only a bound.
+        putInt(startKey, offset, CalendarMath.weekIdOfEpochDay(period.getStartEpochDay()));
+        putInt(endKey, offset, CalendarMath.weekIdOfEpochDay(period.getEndEpochDay()) + 1);
+    }
+
+    /**
+     * Write the range of the day keys covered by a period. The bytes before the offset,
+     * a prefix, are left untouched in both keys.
+     * @param period The period.
+     * @param startKey Receives the key of the first day, inclusive.
+     * @param endKey Receives the key after the last day, exclusive.
+     * @param offset The index of the bucket in both keys.
+     */
+    public static void putDayRange(@NotNull final Period period, @NotNull final byte[] startKey,
+                                   @NotNull final byte[] endKey, final int offset) {
+        putInt(startKey, offset, period.getStartEpochDay());
+        putInt(endKey, offset, period.getEndEpochDay() + 1);
+    }
+
+    /**
+     * Write the range of the composite month keys of a tenant covered by a period.
+     * @param tenant The tenant id.
+     * @param period The period.
+     * @param startKey Receives the key of the first month, inclusive, {@link #TENANT_BUCKET_BYTES} bytes.
+     * @param endKey Receives the key after the last month, exclusive, {@link #TENANT_BUCKET_BYTES} bytes.
+     */
+    public static void putMonthRange(final long tenant, @NotNull final Period period,
+                                     @NotNull final byte[] startKey, @NotNull final byte[] endKey) {
+        putLong(startKey, 0, tenant);
+        putLong(endKey, 0, tenant);
+        putMonthRange(period, startKey, endKey, TENANT_BYTES);
+    }
+
+    /**
+     * Write the range of the composite week keys of a tenant covered by a period.
+     * @param tenant The tenant id.
+     * @param period The period.
+     * @param startKey Receives the key of the first week, inclusive, {@link #TENANT_BUCKET_BYTES} bytes.
+     * @param endKey Receives the key after the last week, exclusive, {@link #TENANT_BUCKET_BYTES} bytes.
+     */
+    public static void putWeekRange(final long tenant, @NotNull final Period period,
+                                    @NotNull final byte[] startKey, @NotNull final byte[] endKey) {
+        putLong(startKey, 0, tenant);
+        putLong(endKey, 0, tenant);
+        putWeekRange(period, startKey, endKey, TENANT_BYTES);
+    }
+
+    /**
+     * Write the range of the composite day keys of a tenant covered by a period.
+     * @param tenant The tenant id.
+     * @param period The period.
+     * @param startKey Receives the key of the first day, inclusive, {@link #TENANT_BUCKET_BYTES} bytes.
+     * @param endKey Receives the key after the last day, exclusive, {@link #TENANT_BUCKET_BYTES} bytes.
+     */
+    public static void putDayRange(final long tenant, @NotNull final Period period,
+                                   @NotNull final byte[] startKey, @NotNull final byte[] endKey) {
+        putLong(startKey, 0, tenant);
+        putLong(endKey, 0, tenant);
+        putDayRange(period, startKey, endKey, TENANT_BYTES);
+    }
+
+    /**
+     * Write the range of the month keys covered by a period at the positions of two buffers,
+     * after the prefix already written in them.
+     * @param period The period.
+     * @param startKey Receives the key of the first month, inclusive.
+     * @param endKey Receives the key after the last month, exclusive.
+     */
+    public static void putMonthRange(@NotNull final Period period, @NotNull final ByteBuffer startKey,
+                                     @NotNull final ByteBuffer endKey) {
+        putInt(startKey, CalendarMath.monthIdOfEpochDay(period.getStartEpochDay()));
+        putInt(endKey, CalendarMath.monthIdOfEpochDay(period.getEndEpochDay()) + 1);
+    }
+
+    /**
+     * Write the range of the week keys covered by a period at the positions of two buffers,
+     * after the prefix already written in them.
+     * @param period The period.
+     * @param startKey Receives the key of the first week, inclusive.
+     * @param endKey Receives the key after the last week, exclusive.
+     */
+    public static void putWeekRange(@NotNull final Period period, @NotNull final ByteBuffer startKey,
+                                    @NotNull final ByteBuffer endKey) {
+        putInt(startKey, CalendarMath.weekIdOfEpochDay(period.getStartEpochDay()));
+        putInt(endKey, CalendarMath.weekIdOfEpochDay(period.getEndEpochDay()) + 1);
+    }
+
+    /**
+     * Write the range of the day keys covered by a period at the positions of two buffers,
+     * after the prefix already written in them.
+     * @param period The period.
+     * @param startKey Receives the key of the first day, inclusive.
+     * @param endKey Receives the key after the last day, exclusive.
+     */
+    public static void putDayRange(@NotNull final Period period, @NotNull final ByteBuffer startKey,
+                                   @NotNull final ByteBuffer endKey) {
+        putInt(startKey, period.getStartEpochDay());
+        putInt(endKey, period.getEndEpochDay() + 1);
+    }
+
+}
@@ -0,0 +1,799 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A compact binary codec for {@link MonthYear}, {@link WeekOfYear}, {@link Period}
+ * and their collections, to and from a {@link ByteBuffer} or a {@link DataOutput}.
+ * <p>
+ * A value is written as its id (see {@link MonthYear#getId()} and {@link WeekOfYear#getId()}),
+ * a period as its two epoch days. In fixed width, an id is 4 bytes and a period 8 bytes,
+ * in the byte order of the buffer (big-endian for a {@link DataOutput}). In varint, a
+ * signed value is zigzag-encoded then written 7 bits per byte, the lowest bits first, so
+ * an id takes 1 to 5 bytes; a period is its start day followed by its number of days
+ * minus one.
+ * <p>
+ * The collections are written in varint, prefixed with their number of elements.
+ * The lists and the varint bulk arrays are written as the differences between consecutive
+ * values, and the sets as runs of consecutive buckets, each run being the gap since the
+ * previous run and its length. The values read are validated like the ones created by
+ * the factories of their class, an invalid input throws an {@link IllegalArgumentException}.
+ */
+public final class TimeCodec {
+
+    /**
+     * The maximum number of bytes of a varint.
+     */
+    public static final int MAX_VARINT_BYTES = 5;
+
+    /**
+     * The maximum capacity allocated before reading the elements, the count may be corrupted.
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+
+    private TimeCodec() {
+    }
+
+    /*
+     $      Fixed width
+     */
+
+    /**
+     * Write a month year in 4 bytes.
+     * @param buffer The buffer.
+     * @param monthYear The month year.
+     */
+    public static void write(@NotNull final ByteBuffer buffer, @NotNull final MonthYear monthYear) {
+        buffer.putInt(monthYear.getId());
+    }
+
+    /**
+     * Write a week in 4 bytes.
+     * @param buffer The buffer.
+     * @param weekOfYear The week.
+     */
+    public static void write(@NotNull final ByteBuffer buffer, @NotNull final WeekOfYear weekOfYear) {
+        buffer.putInt(weekOfYear.getId());
+    }
+
+    /**
+     * Write a period in 8 bytes.
+     * @param buffer The buffer.
+     * @param period The period.
+     */
+    public static void write(@NotNull final ByteBuffer buffer, @NotNull final Period period) {
+        buffer.putInt(period.getStartEpochDay());
+        buffer.putInt(period.getEndEpochDay());
+    }
+
+    public static @NotNull MonthYear readMonthYear(@NotNull final ByteBuffer buffer) {
+        return (MonthYear.ofId(buffer.getInt()));
+    }
+
+    public static @NotNull WeekOfYear readWeekOfYear(@NotNull final ByteBuffer buffer) {
+        return (WeekOfYear.ofId(buffer.getInt()));
+    }
+
+    public static @NotNull Period readPeriod(@NotNull final ByteBuffer buffer) {
+        final int start = buffer.getInt();
+        return (Period.ofEpochDays(start, buffer.getInt()));
+    }
+
+    /**
+     * Write a month year in 4 bytes.
+     * @param out The output.
+     * @param monthYear The month year.
+     * @throws IOException If the output fails.
+     */
+    public static void write(@NotNull final DataOutput out, @NotNull final MonthYear monthYear) throws IOException {
+        out.writeInt(monthYear.getId());
+    }
+
+    /**
+     * Write a week in 4 bytes.
+     * @param out The output.
+     * @param weekOfYear The week.
+     * @throws IOException If the output fails.
+     */
+    public static void write(@NotNull final DataOutput out, @NotNull final WeekOfYear weekOfYear) throws IOException {
+        out.writeInt(weekOfYear.getId());
+    }
+
+    /**
+     * Write a period in 8 bytes.
+     * @param out The output.
+     * @param period The period.
+     * @throws IOException If the output fails.
+     */
+    public static void write(@NotNull final DataOutput out, @NotNull final Period period) throws IOException {
+        out.writeInt(period.getStartEpochDay());
+        out.writeInt(period.getEndEpochDay());
+    }
+
+    public static @NotNull MonthYear readMonthYear(@NotNull final DataInput in) throws IOException {
+        return (MonthYear.ofId(in.readInt()));
+    }
+
+    public static @NotNull WeekOfYear readWeekOfYear(@NotNull final DataInput in) throws IOException {
+        return (WeekOfYear.ofId(in.readInt()));
+    }
+
+    public static @NotNull Period readPeriod(@NotNull final DataInput in) throws IOException {
+        final int start = in.readInt();
+        return (Period.ofEpochDays(start, in.readInt()));
+    }
+
+    /*
+     $      Varint
+     */
+
+    /**
+     * Write a month year in 1 to 5 bytes, the months close to 1970 are the shortest.
+     * @param buffer The buffer.
+     * @param monthYear The month year.
+     */
+    public static void writeVar(@NotNull final ByteBuffer buffer, @NotNull final MonthYear monthYear) {
+        writeVarInt(new BufferIO(buffer), zigzag(monthYear.getId()));
+    }
+
+    /**
+     * Write a week in 1 to 5 bytes.
+     * @param buffer The buffer.
+     * @param weekOfYear The week.
+     */
+    public static void writeVar(@NotNull final ByteBuffer buffer, @NotNull final WeekOfYear weekOfYear) {
+        writeVarInt(new BufferIO(buffer), zigzag(weekOfYear.getId()));
+    }
+
+    /**
+     * Write a period in 2 to 10 bytes.
+     * @param buffer The buffer.
+     * @param period The period.
+     */
+    public static void writeVar(@NotNull final ByteBuffer buffer, @NotNull final Period period) {
+        writePeriod(new BufferIO(buffer), period.getStartEpochDay(), period.getEndEpochDay(), 0);
+    }
+
+    public static @NotNull MonthYear readVarMonthYear(@NotNull final ByteBuffer buffer) {
+        return (MonthYear.ofId(unzigzag(readVarInt(new BufferIO(buffer)))));
+    }
+
+    public static @NotNull WeekOfYear readVarWeekOfYear(@NotNull final ByteBuffer buffer) {
+        return (WeekOfYear.ofId(unzigzag(readVarInt(new BufferIO(buffer)))));
+    }
+
+    public static @NotNull Period readVarPeriod(@NotNull final ByteBuffer buffer) {
+        return (readPeriod(new BufferIO(buffer), 0));
+    }
+
+    /**
+     * Write a month year in 1 to 5 bytes, the months close to 1970 are the shortest.
+     * @param out The output.
+     * @param monthYear The month year.
+     * @throws IOException If the output fails.
+     */
+    public static void writeVar(@NotNull final DataOutput out, @NotNull final MonthYear monthYear) throws IOException {
+        writeVarInt(new DataSink(out), zigzag(monthYear.getId()));
+    }
+
+    /**
+     * Write a week in 1 to 5 bytes.
+     * @param out The output.
+     * @param weekOfYear The week.
+     * @throws IOException If the output fails.
+     */
+    public static void writeVar(@NotNull final DataOutput out, @NotNull final WeekOfYear weekOfYear) throws IOException {
+        writeVarInt(new DataSink(out), zigzag(weekOfYear.getId()));
+    }
+
+    /**
+     * Write a period in 2 to 10 bytes.
+     * @param out The output.
+     * @param period The period.
+     * @throws IOException If the output fails.
+     */
+    public static void writeVar(@NotNull final DataOutput out, @NotNull final Period period) throws IOException {
+        writePeriod(new DataSink(out), period.getStartEpochDay(), period.getEndEpochDay(), 0);
+    }
+
+    public static @NotNull MonthYear readVarMonthYear(@NotNull final DataInput in) throws IOException {
+        return (MonthYear.ofId(unzigzag(readVarInt(new DataSource(in)))));
+    }
+
+    public static @NotNull WeekOfYear readVarWeekOfYear(@NotNull final DataInput in) throws IOException {
+        return (WeekOfYear.ofId(unzigzag(readVarInt(new DataSource(in)))));
+    }
+
+    public static @NotNull Period readVarPeriod(@NotNull final DataInput in) throws IOException {
+        return (readPeriod(new DataSource(in), 0));
+    }
+
+    /*
+     $      Collections
+     */
+
+    /**
+     * Write month years, in the order of the collection.
+     * @param buffer The buffer.
+     * @param monthYears The month years.
+     */
+    public static void writeMonthYears(@NotNull final ByteBuffer buffer,
+                                       @NotNull final Collection<MonthYear> monthYears) {
+        writeMonthYears(new BufferIO(buffer), monthYears);
+    }
+
+    /**
+     * Write weeks, in the order of the collection.
+     * @param buffer The buffer.
+     * @param weekOfYears The weeks.
+     */
+    public static void writeWeekOfYears(@NotNull final ByteBuffer buffer,
+                                        @NotNull final Collection<WeekOfYear> weekOfYears) {
+        writeWeekOfYears(new BufferIO(buffer), weekOfYears);
+    }
+
+    /**
+     * Write periods, in the order of the collection.
+     * @param buffer The buffer.
+     * @param periods The periods.
+     */
+    public static void writePeriods(@NotNull final ByteBuffer buffer, @NotNull final Collection<Period> periods) {
+        writePeriods(new BufferIO(buffer), periods);
+    }
+
+    /**
+     * Write a set of month years as runs of consecutive months.
+     * @param buffer The buffer.
+     * @param monthYears The set.
+     */
+    public static void write(@NotNull final ByteBuffer buffer, @NotNull final MonthYearSet monthYears) {
+        writeSet(new BufferIO(buffer), monthYears);
+    }
+
+    /**
+     * Write a set of weeks as runs of consecutive weeks.
+     * @param buffer The buffer.
+     * @param weekOfYears The set.
+     */
+    public static void write(@NotNull final ByteBuffer buffer, @NotNull final WeekOfYearSet weekOfYears) {
+        writeSet(new BufferIO(buffer), weekOfYears);
+    }
+
+    /**
+     * Write the periods of an array, in the order of the array.
+     * @param buffer The buffer.
+     * @param periods The periods.
+     */
+    public static void write(@NotNull final ByteBuffer buffer, @NotNull final PeriodArray periods) {
+        writePeriodArray(new BufferIO(buffer), periods);
+    }
+
+    public static @NotNull List<MonthYear> readMonthYears(@NotNull final ByteBuffer buffer) {
+        return (readMonthYears(new BufferIO(buffer)));
+    }
+
+    public static @NotNull List<WeekOfYear> readWeekOfYears(@NotNull final ByteBuffer buffer) {
+        return (readWeekOfYears(new BufferIO(buffer)));
+    }
+
+    public static @NotNull List<Period> readPeriods(@NotNull final ByteBuffer buffer) {
+        return (readPeriods(new BufferIO(buffer)));
+    }
+
+    public static @NotNull MonthYearSet readMonthYearSet(@NotNull final ByteBuffer buffer) {
+        return (readMonthYearSet(new BufferIO(buffer)));
+    }
+
+    public static @NotNull WeekOfYearSet readWeekOfYearSet(@NotNull final ByteBuffer buffer) {
+        return (readWeekOfYearSet(new BufferIO(buffer)));
+    }
+
+    public static @NotNull PeriodArray readPeriodArray(@NotNull final ByteBuffer buffer) {
+        return (readPeriodArray(new BufferIO(buffer)));
+    }
+
+    /**
+     * Write month years, in the order of the collection.
+     * @param out The output.
+     * @param monthYears The month years.
+     * @throws IOException If the output fails.
+     */
+    public static void writeMonthYears(@NotNull final DataOutput out,
+                                       @NotNull final Collection<MonthYear> monthYears) throws IOException {
+        writeMonthYears(new DataSink(out), monthYears);
+    }
+
+    /**
+     * Write weeks, in the order of the collection.
+     * @param out The output.
+     * @param weekOfYears The weeks.
+     * @throws IOException If the output fails.
+     */
+    public static void writeWeekOfYears(@NotNull final DataOutput out,
+                                        @NotNull final Collection<WeekOfYear> weekOfYears) throws IOException {
+        writeWeekOfYears(new DataSink(out), weekOfYears);
+    }
+
+    /**
+     * Write periods, in the order of the collection.
+     * @param out The output.
+     * @param periods The periods.
+     * @throws IOException If the output fails.
+     */
+    public static void writePeriods(@NotNull final DataOutput out,
+                                    @NotNull final Collection<Period> periods) throws IOException {
+        writePeriods(new DataSink(out), periods);
+    }
+
+    /**
+     * Write a set of month years as runs of consecutive months.
+     * @param out The output.
+     * @param monthYears The set.
+     * @throws IOException If the output fails.
+     */
+    public static void write(@NotNull final DataOutput out, @NotNull final MonthYearSet monthYears) throws IOException {
+        writeSet(new DataSink(out), monthYears);
+    }
+
+    /**
+     * Write a set of weeks as runs of consecutive weeks.
+     * @param out The output.
+     * @param weekOfYears The set.
+     * @throws IOException If the output fails.
+     */
+    public static void write(@NotNull final DataOutput out, @NotNull final WeekOfYearSet weekOfYears) throws IOException {
+        writeSet(new DataSink(out), weekOfYears);
+    }
+
+    /**
+     * Write the periods of an array, in the order of the array.
+     * @param out The output.
+     * @param periods The periods.
+     * @throws IOException If the output fails.
+     */
+    public static void write(@NotNull final DataOutput out, @NotNull final PeriodArray periods) throws IOException {
+        writePeriodArray(new DataSink(out), periods);
+    }
+
+    public static @NotNull List<MonthYear> readMonthYears(@NotNull final DataInput in) throws IOException {
+        return (readMonthYears(new DataSource(in)));
+    }
+
+    public static @NotNull List<WeekOfYear> readWeekOfYears(@NotNull final DataInput in) throws IOException {
+        return (readWeekOfYears(new DataSource(in)));
+    }
+
+    public static @NotNull List<Period> readPeriods(@NotNull final DataInput in) throws IOException {
+        return (readPeriods(new DataSource(in)));
+    }
+
+    public static @NotNull MonthYearSet readMonthYearSet(@NotNull final DataInput in) throws IOException {
+        return (readMonthYearSet(new DataSource(in)));
+    }
+
+    public static @NotNull WeekOfYearSet readWeekOfYearSet(@NotNull final DataInput in) throws IOException {
+        return (readWeekOfYearSet(new DataSource(in)));
+    }
+
+    public static @NotNull PeriodArray readPeriodArray(@NotNull final DataInput in) throws IOException {
+        return (readPeriodArray(new DataSource(in)));
+    }
+
+    /*
+     $      Bulk arrays
+     */
+
+    /**
+     * Write ids in fixed width, 4 bytes each, without a count.
+     * @param buffer The buffer.
+     * @param ids The ids.
+     * @param from The index of the first id, inclusive.
+     * @param to The index of the last id, exclusive.
+     */
+    public static void writeIds(@NotNull final ByteBuffer buffer, @NotNull final int[] ids, final int from, final int to) {
+        checkRange(ids.length, from, to);
+        buffer.asIntBuffer().put(ids, from, to - from);
+        // Through Buffer, the covariant override of Java 9 is not in Java 8.
+        ((Buffer) buffer).position(buffer.position() + (to - from) * Integer.BYTES);
+    }
+
+    /**
+     * Read ids written by {@link #writeIds(ByteBuffer, int[], int, int)}. The ids are not validated.
+     * @param buffer The buffer.
+     * @param ids The destination.
+     * @param from The index of the first id, inclusive.
+     * @param to The index of the last id, exclusive.
+     */
+    public static void readIds(@NotNull final ByteBuffer buffer, @NotNull final int[] ids, final int from, final int to) {
+        checkRange(ids.length, from, to);
+        buffer.asIntBuffer().get(ids, from, to - from);
+        ((Buffer) buffer).position(buffer.position() + (to - from) * Integer.BYTES);
+    }
+
+    /**
+     * Write ids as varint differences, without a count. Sorted ids take a byte each
+     * when they are close to each other.
+     * @param buffer The buffer.
+     * @param ids The ids.
+     * @param from The index of the first id, inclusive.
+     * @param to The index of the last id, exclusive.
+     */
+    public static void writeVarIds(@NotNull final ByteBuffer buffer, @NotNull final int[] ids, final int from, final int to) {
+        checkRange(ids.length, from, to);
+        final BufferIO out = new BufferIO(buffer);
+        int previous = 0;
+        for (int i = from; i < to; i++) {
+            writeVarInt(out, zigzag(ids[i] - previous));
+            previous = ids[i];
+        }
+    }
+
+    /**
+     * Read ids written by {@link #writeVarIds(ByteBuffer, int[], int, int)}. The ids are not validated.
+     * @param buffer The buffer.
+     * @param ids The destination.
+     * @param from The index of the first id, inclusive.
+     * @param to The index of the last id, exclusive.
+     */
+    public static void readVarIds(@NotNull final ByteBuffer buffer, @NotNull final int[] ids, final int from, final int to) {
+        checkRange(ids.length, from, to);
+        final BufferIO in = new BufferIO(buffer);
+        int previous = 0;
+        for (int i = from; i < to; i++) {
+            previous += unzigzag(readVarInt(in));
+            ids[i] = previous;
+        }
+    }
+
+    /**
+     * Write ids in fixed width, 4 bytes each, without a count.
+     * @param out The output.
+     * @param ids The ids.
+     * @param from The index of the first id, inclusive.
+     * @param to The index of the last id, exclusive.
+     * @throws IOException If the output fails.
+     */
+    public static void writeIds(@NotNull final DataOutput out, @NotNull final int[] ids,
+                                final int from, final int to) throws IOException {
+        checkRange(ids.length, from, to);
+        for (int i = from; i < to; i++)
+            out.writeInt(ids[i]);
+    }
+
+    /**
+     * Read ids written by {@link #writeIds(DataOutput, int[], int, int)}. The ids are not validated.
+     * @param in The input.
+     * @param ids The destination.
+     * @param from The index of the first id, inclusive.
+     * @param to The index of the last id, exclusive.
+     * @throws IOException If the input fails.
+     */
+    public static void readIds(@NotNull final DataInput in, @NotNull final int[] ids,
+                               final int from, final int to) throws IOException {
+        checkRange(ids.length, from, to);
+        for (int i = from; i < to; i++)
+            ids[i] = in.readInt();
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static int zigzag(final int value) {
+        return ((value << 1) ^ (value >> 31));
+    }
+
+    private static int unzigzag(final int value) {
+        return ((value >>> 1) ^ -(value & 1));
+    }
+
+    private static void checkRange(final int length, final int from, final int to) {
+        if (from < 0 || to > length || from > to)
+            throw (new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + ") of length " + length));
+    }
+
+    private static <X extends Exception> void writeVarInt(@NotNull final Output<X> out, final int value) throws X {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static <X extends Exception> int readVarInt(@NotNull final Input<X> in) throws X {
+        int value = 0;
+        for (int shift = 0; shift < MAX_VARINT_BYTES * 7; shift += 7) {
+            final byte b = in.readByte();
+            // The fifth byte only holds the 4 highest bits, and is the last one.
+            if (shift == (MAX_VARINT_BYTES - 1) * 7 && (b & 0xF0) != 0)
+                break;
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return (value);
+        }
+        throw (new IllegalArgumentException("Malformed varint."));
+    }
+
+    private static <X extends Exception> int readCount(@NotNull final Input<X> in) throws X {
+        final int count = readVarInt(in);
+        if (count < 0 || count > in.available())
+            throw (new IllegalArgumentException("Invalid number of elements: " + count));
+        return (count);
+    }
+
+    /**
+     * Write a period relative to the start of the previous one.
+     * @return The start of the period.
+     */
+    private static <X extends Exception> int writePeriod(@NotNull final Output<X> out, final int start, final int end,
+                                                         final int previousStart) throws X {
+        writeVarInt(out, zigzag(start - previousStart));
+        writeVarInt(out, end - start);
+        return (start);
+    }
+
+    private static <X extends Exception> @NotNull Period readPeriod(@NotNull final Input<X> in,
+                                                                   final int previousStart) throws X {
+        final int start = CalendarMath.checkedEpochDay((long)previousStart + unzigzag(readVarInt(in)));
+        final int days = readVarInt(in);
+        if (days < 0)
+            throw (new IllegalArgumentException("Invalid period length: " + days));
+        return (Period.ofEpochDays(start, CalendarMath.checkedEpochDay((long)start + days)));
+    }
+
+    private static <X extends Exception> void writeMonthYears(@NotNull final Output<X> out,
+                                                              @NotNull final Collection<MonthYear> monthYears) throws X {
+        writeVarInt(out, monthYears.size());
+        int previous = 0;
+        for (MonthYear monthYear : monthYears) {
+            writeVarInt(out, zigzag(monthYear.getId() - previous));
+            previous = monthYear.getId();
+        }
+    }
+
+    private static <X extends Exception> void writeWeekOfYears(@NotNull final Output<X> out,
+                                                               @NotNull final Collection<WeekOfYear> weekOfYears) throws X {
+        // Consecutive weeks are one epoch week apart, even across years.
+        writeVarInt(out, weekOfYears.size());
+        int previous = 0;
+        for (WeekOfYear weekOfYear : weekOfYears) {
+            final int epochWeek = WeekOfYear.toEpochWeek(weekOfYear.getId());
+            writeVarInt(out, zigzag(epochWeek - previous));
+            previous = epochWeek;
+        }
+    }
+
+    private static <X extends Exception> void writePeriods(@NotNull final Output<X> out,
+                                                           @NotNull final Collection<Period> periods) throws X {
+        writeVarInt(out, periods.size());
+        int previous = 0;
+        for (Period period : periods)
+            previous = writePeriod(out, period.getStartEpochDay(), period.getEndEpochDay(), previous);
+    }
+
+    private static <X extends Exception> void writePeriodArray(@NotNull final Output<X> out,
+                                                               @NotNull final PeriodArray periods) throws X {
+        writeVarInt(out, periods.size);
+        int previous = 0;
+        for (int i = 0; i < periods.size; i++)
+            previous = writePeriod(out, periods.starts[i], periods.ends[i], previous);
+    }
+
+    private static <X extends Exception> void writeSet(@NotNull final Output<X> out,
+                                                       @NotNull final AbstractBucketSet<?> set) throws X {
+        int runs = 0;
+        for (int key = set.ceilingKey(set.low); key != IdBitSet.NONE; key = nextRun(set, key))
+            runs++;
+        writeVarInt(out, runs);
+        int previous = 0;
+        for (int key = set.ceilingKey(set.low); key != IdBitSet.NONE; key = nextRun(set, key)) {
+            final int last = lastOfRun(set, key);
+            writeVarInt(out, zigzag(key - previous));
+            writeVarInt(out, last - key);
+            previous = last;
+        }
+    }
+
+    private static int lastOfRun(@NotNull final AbstractBucketSet<?> set, final int key) {
+        int last = key;
+        while (last < set.high && set.containsKey(last + 1))
+            last++;
+        return (last);
+    }
+
+    private static int nextRun(@NotNull final AbstractBucketSet<?> set, final int key) {
+        final int last = lastOfRun(set, key);
+        return (last >= set.high - 1 ? IdBitSet.NONE : set.ceilingKey(last + 2));
+    }
+
+    private static <X extends Exception> @NotNull List<MonthYear> readMonthYears(@NotNull final Input<X> in) throws X {
+        final int count = readCount(in);
+        final List<MonthYear> monthYears = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unzigzag(readVarInt(in));
+            monthYears.add(MonthYear.ofId(previous));
+        }
+        return (monthYears);
+    }
+
+    private static <X extends Exception> @NotNull List<WeekOfYear> readWeekOfYears(@NotNull final Input<X> in) throws X {
+        final int count = readCount(in);
+        final List<WeekOfYear> weekOfYears = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unzigzag(readVarInt(in));
+            weekOfYears.add(WeekOfYear.ofId(WeekOfYear.idOfEpochWeek(previous)));
+        }
+        return (weekOfYears);
+    }
+
+    private static <X extends Exception> @NotNull List<Period> readPeriods(@NotNull final Input<X> in) throws X {
+        final int count = readCount(in);
+        final List<Period> periods = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            final Period period = readPeriod(in, previous);
+            periods.add(period);
+            previous = period.getStartEpochDay();
+        }
+        return (periods);
+    }
+
+    private static <X extends Exception> @NotNull PeriodArray readPeriodArray(@NotNull final Input<X> in) throws X {
+        final int count = readCount(in);
+        final PeriodArray periods = new PeriodArray(Math.min(count, MAX_INITIAL_CAPACITY));
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            final Period period = readPeriod(in, previous);
+            periods.add(period.getStartEpochDay(), period.getEndEpochDay());
+            previous = period.getStartEpochDay();
+        }
+        return (periods);
+    }
+
+    private static <X extends Exception> @NotNull MonthYearSet readMonthYearSet(@NotNull final Input<X> in) throws X {
+        final MonthYearSet set = new MonthYearSet();
+        final int runs = readCount(in);
+        int previous = 0;
+        for (int run = 0; run < runs; run++) {
+            final int first = runKey(previous, unzigzag(readVarInt(in)));
+            previous = runKey(first, readRunLength(in));
+            set.addRange(MonthYear.ofId(first), MonthYear.ofId(previous));
+        }
+        return (set);
+    }
+
+    private static <X extends Exception> @NotNull WeekOfYearSet readWeekOfYearSet(@NotNull final Input<X> in) throws X {
+        final WeekOfYearSet set = new WeekOfYearSet();
+        final int runs = readCount(in);
+        int previous = 0;
+        for (int run = 0; run < runs; run++) {
+            final int first = runKey(previous, unzigzag(readVarInt(in)));
+            previous = runKey(first, readRunLength(in));
+            set.addRange(WeekOfYear.ofId(WeekOfYear.idOfEpochWeek(first)),
+                    WeekOfYear.ofId(WeekOfYear.idOfEpochWeek(previous)));
+        }
+        return (set);
+    }
+
+    private static <X extends Exception> int readRunLength(@NotNull final Input<X> in) throws X {
+        final int length = readVarInt(in);
+        if (length < 0)
+            throw (new IllegalArgumentException("Invalid run length: " + length));
+        return (length);
+    }
+
+    /**
+     * Compute a key of a run of a set, from the previous key and a difference.
+     * @param key The previous key.
+     * @param difference The difference.
+     * @return The key.
+     */
+    private static int runKey(final int key, final int difference) {
+        final long sum = (long)key + difference;
+        if (sum != (int)sum)
+            throw (new IllegalArgumentException("Invalid run of buckets ending at " + sum));
+        return ((int)sum);
+    }
+
+    /**
+     * A destination of bytes.
+     * @param <X> The exception thrown by the destination.
+     */
+    private interface Output<X extends Exception> {
+
+        void writeByte(int value) throws X;
+
+    }
+
+    /**
+     * A source of bytes.
+     * @param <X> The exception thrown by the source.
+     */
+    private interface Input<X extends Exception> {
+
+        byte readByte() throws X;
+
+        /**
+         * Get a bound of the number of bytes left.
+         * @return The number of bytes left, {@link Integer#MAX_VALUE} if unknown.
+         */
+        int available();
+
+    }
+
+    private static final class BufferIO implements Output<RuntimeException>, Input<RuntimeException> {
+
+        @NotNull
+        private final ByteBuffer buffer;
+
+        BufferIO(@NotNull final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void writeByte(final int value) {
+            buffer.put((byte)value);
+        }
+
+        @Override
+        public byte readByte() {
+            return (buffer.get());
+        }
+
+        @Override
+        public int available() {
+            return (buffer.remaining());
+        }
+
+    }
+
+    private static final class DataSink implements Output<IOException> {
+
+        @NotNull
+        private final DataOutput out;
+
+        DataSink(@NotNull final DataOutput out) {
+            this.out = out;
+        }
+
+        @Override
+        public void writeByte(final int value) throws IOException {
+            out.writeByte(value);
+        }
+
+    }
+
+    private static final class DataSource implements Input<IOException> {
+
+        @NotNull
+        private final DataInput in;
+
+        DataSource(@NotNull final DataInput in) {
+            this.in = in;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            return (in.readByte());
+        }
+
+        @Override
+        public int available() {
+            return (Integer.MAX_VALUE);
+        }
+
+    }
+
+}
@@ -0,0 +1,148 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receive the measures of the hot paths of the library.
+ * <p>
+ * Every method does nothing by default, and the installed metrics are {@link #NOOP} until
+ * {@link #install(TimeMetrics)} is called: the hot paths then only read a volatile field
+ * and skip the call. The durations are only measured when {@link #isTimed()} returns true,
+ * otherwise they are given as 0. The methods are called from any thread, often in loops,
+ * so an implementation must be thread-safe, lock-free and allocate nothing;
+ * see {@link LongAdderMetrics}.
+ */
+public interface TimeMetrics {
+
+    /**
+     * The metrics ignoring every measure.
+     */
+    @NotNull
+    TimeMetrics NOOP = new TimeMetrics() {
+    };
+
+    /**
+     * The operations measured.
+     */
+    enum Operation {
+
+        /**
+         * An instant converted to a {@link MonthYear} by a constructor.
+         */
+        INSTANT_TO_MONTH_YEAR,
+
+        /**
+         * An instant converted to a {@link WeekOfYear} by a constructor.
+         */
+        INSTANT_TO_WEEK_OF_YEAR,
+
+        /**
+         * A period decomposed by {@link Period#toMonthYears()}, the items are the months.
+         */
+        PERIOD_TO_MONTH_YEARS,
+
+        /**
+         * A period decomposed by {@link Period#toWeekYears()}, the items are the weeks.
+         */
+        PERIOD_TO_WEEK_YEARS,
+
+        /**
+         * A column of timestamps converted to epoch days by {@link BucketKernel}.
+         */
+        BULK_EPOCH_DAYS,
+
+        /**
+         * A column of timestamps converted to month ids by {@link BucketKernel}.
+         */
+        BULK_MONTH_IDS,
+
+        /**
+         * A column of timestamps converted to week ids by {@link BucketKernel}.
+         */
+        BULK_WEEK_IDS,
+
+        /**
+         * A column of timestamps filtered by {@link PeriodFilter}.
+         */
+        FILTER_TIMESTAMPS,
+
+        /**
+         * An array of periods filtered by {@link PeriodFilter}.
+         */
+        FILTER_PERIODS
+
+    }
+
+    /**
+     * The caches of shared instances, see {@link InstanceCache}.
+     */
+    enum Cache {
+
+        MONTH_YEAR,
+
+        WEEK_OF_YEAR,
+
+        /**
+         * The periods interned by {@link Period#intern()}.
+         */
+        PERIOD
+
+    }
+
+    /*
+     $      Installation
+     */
+
+    /**
+     * Install the metrics receiving the measures of the library.
+     * @param metrics The metrics, {@link #NOOP} to stop measuring.
+     */
+    static void install(@NotNull final TimeMetrics metrics) {
+        Instrumentation.install(metrics);
+    }
+
+    /**
+     * Get the metrics receiving the measures of the library.
+     * @return The installed metrics, {@link #NOOP} if none.
+     */
+    static @NotNull TimeMetrics installed() {
+        return (Instrumentation.metrics);
+    }
+
+    /*
+     $      Measures
+     */
+
+    /**
+     * Check if the durations of the operations must be measured. It is read when the
+     * metrics are installed, measuring the time costs two clock reads per operation.
+     * @return True to receive the durations.
+     */
+    default boolean isTimed() {
+        return (false);
+    }
+
+    /**
+     * Called after an operation.
+     * @param operation The operation.
+     * @param items The number of elements processed by the operation.
+     * @param nanos The duration in nanoseconds, 0 if not timed.
+     */
+    default void record(@NotNull final Operation operation, final long items, final long nanos) {
+    }
+
+    /**
+     * Called when a shared instance is found in a cache.
+     * @param cache The cache.
+     */
+    default void cacheHit(@NotNull final Cache cache) {
+    }
+
+    /**
+     * Called when an instance is not found in a cache, and a new one is created or added.
+     * @param cache The cache.
+     */
+    default void cacheMiss(@NotNull final Cache cache) {
+    }
+
+}
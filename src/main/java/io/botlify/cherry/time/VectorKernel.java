@@ -0,0 +1,48 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The epoch day kernel of {@link BucketKernel} written with the Vector API.
+ * <p>
+ * This is the Java 8 version of the class, without vectors: {@link #AVAILABLE} is false
+ * and the kernel runs the scalar loop of {@link BucketKernel}. The jar is a multi-release
+ * jar, its Java 21 version of this class (from {@code src/main/java21}) enables the vector
+ * kernel when the {@code jdk.incubator.vector} module is in the boot layer, that is when
+ * the application is started with {@code --add-modules jdk.incubator.vector}.
+ */
+final class VectorKernel {
+
+    /**
+     * True if the vector kernel is used. Not a constant expression,
+     * so the callers read it from the version of the class loaded at run time.
+     */
+    static final boolean AVAILABLE = available();
+
+    /**
+     * Below this number of elements, the conversions stay scalar.
+     */
+    static final int MIN_LENGTH = 64;
+
+    private VectorKernel() {
+    }
+
+    private static boolean available() {
+        return (false);
+    }
+
+    /**
+     * Convert a range of epoch milliseconds to epoch days in UTC, see {@link BucketKernel}.
+     * @param epochMillis The epoch milliseconds.
+     * @param fromIndex The first index to convert, inclusive.
+     * @param toIndex The last index to convert, exclusive.
+     * @param out The array receiving the epoch days.
+     * @param outOffset The index in {@code out} of the first epoch day.
+     * @return A negative value if a timestamp is out of the supported range.
+     */
+    static long epochDays(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                          @NotNull final int[] out, final int outOffset) {
+        return (BucketKernel.epochDaysInUtc(epochMillis, fromIndex, toIndex, out, outOffset));
+    }
+
+}
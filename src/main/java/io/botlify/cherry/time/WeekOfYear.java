@@ -1,50 +1,86 @@
 package io.botlify.cherry.time;
 
-import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.sql.Date;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.time.Instant;
 import java.time.Year;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 /**
  * This class store a week of year and a year.
  * It is aligned with the ISO-8601 standard and the first day of the week is Monday.
- * The first week of the year is the 1st day of the year to the last day of the week.
+ * The first week of the year is the week containing the first Thursday of the year.
+ * <p>
+ * The value is packed in a single int, the week id, computed as
+ * {@code weekBasedYear * 53 + (week - 1)}. Every operation is pure integer
+ * arithmetic in UTC, and instances are immutable and safe to share across threads.
  */
-public final class WeekOfYear implements Comparable<WeekOfYear> {
+public final class WeekOfYear implements Comparable<WeekOfYear>, Serializable {
 
-    @NotNull @Getter
-    private final Calendar calendar;
+    private static final long serialVersionUID = 1L;
 
-    @NotNull @Getter
-    private final Year year;
+    /**
+     * The multiplier of the week-based year in a week id.
+     */
+    static final int WEEKS_PER_ID_YEAR = 53;
 
-    @NotNull @Getter
-    private final Integer week;
+    /**
+     * The week id.
+     */
+    private final int id;
 
+    /**
+     * Construct the current week of year, from the default {@link BucketClock}.
+     */
     public WeekOfYear() {
-        this(Instant.now());
+        this(BucketClock.getDefault().currentWeekOfYear());
     }
 
     public WeekOfYear(@NotNull final Instant instant) {
-        this.calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        this.calendar.setTime(Date.from(instant));
-        fixCalendar();
-        // set value
-        this.year = Year.of(this.calendar.get(Calendar.YEAR));
-        this.week = this.calendar.get(Calendar.WEEK_OF_YEAR);
+        final long start = Instrumentation.start();
+        final long epochDay = Math.floorDiv(instant.getEpochSecond(), EpochConverter.SECONDS_PER_DAY);
+        this.id = CalendarMath.weekIdOfEpochDay(CalendarMath.checkedEpochDay(epochDay));
+        Instrumentation.record(TimeMetrics.Operation.INSTANT_TO_WEEK_OF_YEAR, 1, start);
+    }
+
+    /**
+     * Construct the week of year containing the instant in a time zone.
+     * @param instant The instant.
+     * @param timeZone The id of the time zone, resolved once by {@link ZoneTable#of(String)}.
+     */
+    public WeekOfYear(@NotNull final Instant instant,
+                      @NotNull final String timeZone) {
+        this(instant, ZoneTable.of(timeZone));
+    }
+
+    /**
+     * Construct the week of year containing the instant in a time zone.
+     * @param instant The instant.
+     * @param zone The time zone.
+     */
+    public WeekOfYear(@NotNull final Instant instant,
+                      @NotNull final ZoneTable zone) {
+        final long start = Instrumentation.start();
+        final long epochDay = zone.localEpochDayOfSeconds(instant.getEpochSecond());
+        this.id = CalendarMath.weekIdOfEpochDay(CalendarMath.checkedEpochDay(epochDay));
+        Instrumentation.record(TimeMetrics.Operation.INSTANT_TO_WEEK_OF_YEAR, 1, start);
     }
 
+    /**
+     * Construct the week of year containing the date of the calendar,
+     * in the time zone of the calendar.
+     * The calendar is not modified.
+     * @param calendar The calendar.
+     */
     public WeekOfYear(@NotNull final Calendar calendar) {
-        this.calendar = calendar;
-        fixCalendar();
-        // set value
-        this.year = Year.of(calendar.getWeekYear());
-        this.week = calendar.get(Calendar.WEEK_OF_YEAR);
+        final long millis = calendar.getTimeInMillis();
+        final long localMillis = millis + calendar.getTimeZone().getOffset(millis);
+        final long epochDay = Math.floorDiv(localMillis, EpochConverter.MILLIS_PER_DAY);
+        this.id = CalendarMath.weekIdOfEpochDay(CalendarMath.checkedEpochDay(epochDay));
     }
 
     /**
@@ -54,14 +90,10 @@ public final class WeekOfYear implements Comparable<WeekOfYear> {
      */
     public WeekOfYear(@NotNull final Integer week,
                       @NotNull final Year year) {
-        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        calendar.set(Calendar.YEAR, year.getValue());
-        calendar.set(Calendar.WEEK_OF_YEAR, week);
-        this.calendar = calendar;
-        fixCalendar();
-        // set value
-        this.week = week;
-        this.year = year;
+        CalendarMath.checkYear(year.getValue());
+        if (week < 1 || week > CalendarMath.weeksInWeekYear(year.getValue()))
+            throw (new IllegalArgumentException("The week " + week + " does not exist in " + year + "."));
+        this.id = idOf(week, year.getValue());
     }
 
     public WeekOfYear(@NotNull final Integer week,
@@ -70,39 +102,101 @@ public final class WeekOfYear implements Comparable<WeekOfYear> {
     }
 
     public WeekOfYear(@NotNull final WeekOfYear weekOfYear) {
-        this.calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        this.calendar.setTime(Date.from(weekOfYear.getFirstDayOfWeek()));
-        fixCalendar();
-        // set value
-        this.week = weekOfYear.getWeek();
-        this.year = weekOfYear.getYear();
+        this.id = weekOfYear.id;
+    }
+
+    private WeekOfYear(final int id) {
+        this.id = id;
     }
 
+    /**
+     * Get a week of year. The weeks of the years cached by {@link InstanceCache}
+     * are shared instances.
+     * @param week The week, from 1 to 53.
+     * @param year The ISO week-based year.
+     * @return The week of year.
+     */
+    public static @NotNull WeekOfYear of(final int week, final int year) {
+        CalendarMath.checkYear(year);
+        if (week < 1 || week > CalendarMath.weeksInWeekYear(year))
+            throw (new IllegalArgumentException("The week " + week + " does not exist in " + year + "."));
+        return (cached(idOf(week, year)));
+    }
+
+    /**
+     * Get the current week of year, from the default {@link BucketClock}.
+     * @return The week of year, a shared instance.
+     */
+    public static @NotNull WeekOfYear now() {
+        return (BucketClock.getDefault().currentWeekOfYear());
+    }
+
+    /**
+     * Get a week of year from its week id. The weeks of the years cached by
+     * {@link InstanceCache} are shared instances.
+     * @param id The week id.
+     * @return The week of year.
+     */
+    public static @NotNull WeekOfYear ofId(final int id) {
+        CalendarMath.checkYear(year(id));
+        if (week(id) > CalendarMath.weeksInWeekYear(year(id)))
+            throw (new IllegalArgumentException("The week id " + id + " does not exist."));
+        return (cached(id));
+    }
+
+    /**
+     * Parse a week of year in the ISO {@code YYYY-Www} format, see {@link IsoParser}.
+     * @param text The text.
+     * @return The week of year.
+     */
+    public static @NotNull WeekOfYear parse(@NotNull final CharSequence text) {
+        return (cached(IsoParser.parseWeekId(text)));
+    }
+
+    public @NotNull Year getYear() {
+        return (Year.of(year(id)));
+    }
+
+    public @NotNull Integer getWeek() {
+        return (week(id));
+    }
+
+    /**
+     * Get the week id, {@code weekBasedYear * 53 + (week - 1)}.
+     * @return The week id.
+     */
+    public int getId() {
+        return (id);
+    }
+
+    /**
+     * Return the same week number in another year. If the week does not
+     * exist in the target year (week 53), the following week is returned.
+     * @param year The number of years to add, may be negative.
+     * @return The week of year.
+     */
     public @NotNull WeekOfYear addYear(final int year) {
-        return (new WeekOfYear(this.week, this.year.plusYears(year)));
+        final int targetYear = year(id) + year;
+        CalendarMath.checkYear(targetYear);
+        final int monday = CalendarMath.firstEpochDayOfWeekYear(targetYear) + (week(id) - 1) * 7;
+        return (ofId(CalendarMath.weekIdOfEpochDay(monday)));
     }
 
     public @NotNull WeekOfYear addWeeks(final int weeks) {
-        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        calendar.setTimeZone(TimeZone.getTimeZone("UTC"));
-        calendar.setTime(Date.from(this.toInstant()));
-        calendar.add(Calendar.WEEK_OF_YEAR, weeks);
-        return new WeekOfYear(calendar);
+        return (ofId(plusWeeks(id, weeks)));
     }
 
     public @NotNull Instant getFirstDayOfWeek() {
         return (this.toInstant());
     }
 
+    /**
+     * Return the last day of week, the Sunday at 23:59:59.
+     * @return The last day of week.
+     */
     public @NotNull Instant getLastDayOfWeek() {
-        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        calendar.setTime(Date.from(this.toInstant()));
-        calendar.setTimeZone(TimeZone.getTimeZone("UTC"));
-        calendar.add(Calendar.DAY_OF_YEAR, 6);
-        calendar.set(Calendar.HOUR_OF_DAY, 23);
-        calendar.set(Calendar.MINUTE, 59);
-        calendar.set(Calendar.SECOND, 59);
-        return (calendar.toInstant());
+        final long monday = CalendarMath.firstEpochDayOfWeek(id);
+        return (Instant.ofEpochSecond((monday + 7) * EpochConverter.SECONDS_PER_DAY - 1));
     }
 
     public @NotNull WeekOfYear nextWeek() {
@@ -113,71 +207,125 @@ public final class WeekOfYear implements Comparable<WeekOfYear> {
      * The list contain the actual week and the next <b>number</b>
      * weeks.
      * @param number Number of weeks.
-     * @return The list of weeks.
-     */
-    public @NotNull List<WeekOfYear> nextWeeks(final int number) {
-        List<WeekOfYear> weeks = new ArrayList<>();
-        WeekOfYear week = this;
-        weeks.add(week);
-        for (int i = 0; i < number; i++) {
-            week = week.nextWeek();
-            weeks.add(week);
-        }
-        return (weeks);
+     * @return The range of weeks.
+     */
+    public @NotNull WeekOfYearRange nextWeeks(final int number) {
+        final int first = toEpochWeek(id);
+        return (WeekOfYearRange.ofEpochWeeks(first, first + Math.max(number, 0)));
     }
 
     public boolean isAfter(@NotNull final WeekOfYear weekOfYear) {
-        return (this.compareTo(weekOfYear) > 0);
+        return (this.id > weekOfYear.id);
     }
 
     public boolean isBefore(@NotNull final WeekOfYear weekOfYear) {
-        return (this.compareTo(weekOfYear) < 0);
+        return (this.id < weekOfYear.id);
     }
 
     /*
-     $      Private methods
+     $      Week id helpers
      */
 
-    private void fixCalendar() {
-        this.calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
-        this.calendar.set(Calendar.HOUR_OF_DAY, 0);
-        this.calendar.set(Calendar.MINUTE, 0);
-        this.calendar.set(Calendar.SECOND, 0);
-        this.calendar.set(Calendar.MILLISECOND, 0);
+    /**
+     * Compute the week id of a week and a week-based year.
+     * No range check is done.
+     * @param week The week, from 1 to 53.
+     * @param year The ISO week-based year.
+     * @return The week id.
+     */
+    public static int idOf(final int week, final int year) {
+        return (year * WEEKS_PER_ID_YEAR + week - 1);
+    }
+
+    /**
+     * Get the ISO week-based year of a week id.
+     * @param id The week id.
+     * @return The week-based year.
+     */
+    public static int year(final int id) {
+        return (Math.floorDiv(id, WEEKS_PER_ID_YEAR));
+    }
+
+    /**
+     * Get the week of a week id.
+     * @param id The week id.
+     * @return The week, from 1 to 53.
+     */
+    public static int week(final int id) {
+        return (Math.floorMod(id, WEEKS_PER_ID_YEAR) + 1);
+    }
+
+    /**
+     * Shift a week id by the given number of weeks.
+     * No range check is done.
+     * @param id The week id.
+     * @param weeks The number of weeks to add, may be negative.
+     * @return The shifted week id.
+     */
+    public static int plusWeeks(final int id, final int weeks) {
+        return (CalendarMath.weekIdOfEpochDay(CalendarMath.firstEpochDayOfWeek(id) + weeks * 7));
+    }
+
+    /**
+     * Convert a week id to an epoch week, the dense number of weeks since
+     * the week starting on Monday 1969-12-29. Unlike week ids, consecutive
+     * weeks always have consecutive epoch weeks.
+     * @param id The week id.
+     * @return The epoch week.
+     */
+    public static int toEpochWeek(final int id) {
+        return (CalendarMath.epochWeekOfEpochDay(CalendarMath.firstEpochDayOfWeek(id)));
+    }
+
+    /**
+     * Convert an epoch week to a week id.
+     * @param epochWeek The epoch week.
+     * @return The week id.
+     */
+    public static int idOfEpochWeek(final int epochWeek) {
+        return (CalendarMath.weekIdOfEpochDay(CalendarMath.firstEpochDayOfEpochWeek(epochWeek)));
+    }
+
+    /**
+     * Compare two week ids.
+     * @param id1 The first week id.
+     * @param id2 The second week id.
+     * @return A negative value, zero or a positive value if the first
+     * id is before, equal or after the second one.
+     */
+    public static int compare(final int id1, final int id2) {
+        return (Integer.compare(id1, id2));
     }
 
     /*
      $      Public static methods
      */
 
-    public static @NotNull List<WeekOfYear> betweenTwoInstant(@NotNull final Instant start, @NotNull final Instant end) {
-        List<WeekOfYear> weeks = new ArrayList<>();
-        WeekOfYear week = new WeekOfYear(start);
-        while (week.getLastDayOfWeek().isBefore(end)) {
-            weeks.add(week);
-            week = week.addWeeks(1);
-        }
-        return (weeks);
+    /**
+     * Return the weeks from the week of the start date up to the last week
+     * ending before the end date.
+     * @param start The start date.
+     * @param end The end date.
+     * @return The range of weeks, empty if no week ends before the end date.
+     */
+    public static @NotNull WeekOfYearRange betweenTwoInstant(@NotNull final Instant start, @NotNull final Instant end) {
+        final WeekOfYear first = new WeekOfYear(start);
+        final WeekOfYear last = new WeekOfYear(end);
+        final int lastEpochWeek = toEpochWeek(last.id) - (last.getLastDayOfWeek().isBefore(end) ? 0 : 1);
+        return (WeekOfYearRange.ofEpochWeeks(toEpochWeek(first.id), lastEpochWeek));
     }
 
     /**
      * Return the day just before next week of year and after the given date.
+     * The result is the last day of the week of the given date, at the time
+     * of day of the given date plus 23:59:59.
      * @param instant The date.
-     * @return The day just before next month and after the given date.
+     * @return The day just before next week and after the given date.
      */
     public static @NotNull Instant getPreviousInstantBeforeNextWeekOfYear(@NotNull final Instant instant) {
-        WeekOfYear monthYear = new WeekOfYear(instant);
-        Instant nextDay = instant.plus(1, ChronoUnit.DAYS);
-        WeekOfYear nextMonthYear = new WeekOfYear(nextDay);
-        while (monthYear.equals(nextMonthYear)) {
-            nextDay = nextDay.plus(1, ChronoUnit.DAYS);
-            nextMonthYear = new WeekOfYear(nextDay);
-        }
-        Instant result = nextDay.minus(1, ChronoUnit.DAYS);
-        result = result.plus(23, ChronoUnit.HOURS);
-        result = result.plus(59, ChronoUnit.MINUTES);
-        result = result.plus(59, ChronoUnit.SECONDS);
-        return (result);
+        final int epochDay = EpochConverter.epochDayOfSeconds(instant.getEpochSecond());
+        final int daysToSunday = 7 - CalendarMath.dayOfWeek(epochDay);
+        return (instant.plusSeconds(daysToSunday * EpochConverter.SECONDS_PER_DAY + EpochConverter.SECONDS_PER_DAY - 1));
     }
 
     /*
@@ -185,7 +333,7 @@ public final class WeekOfYear implements Comparable<WeekOfYear> {
      */
 
     public @NotNull Instant toInstant() {
-        return (this.calendar.toInstant());
+        return (Instant.ofEpochSecond(CalendarMath.firstEpochDayOfWeek(id) * EpochConverter.SECONDS_PER_DAY));
     }
 
     public @NotNull Period toPeriod() {
@@ -207,9 +355,7 @@ public final class WeekOfYear implements Comparable<WeekOfYear> {
 
     @Override
     public int compareTo(@NotNull WeekOfYear wy) {
-        if (this.getYear().equals(wy.getYear()))
-            return (Integer.compare(this.getWeek(), wy.getWeek()));
-        return (this.getYear().compareTo(wy.getYear()));
+        return (Integer.compare(this.id, wy.id));
     }
 
     /*
@@ -218,25 +364,77 @@ public final class WeekOfYear implements Comparable<WeekOfYear> {
 
     @Override
     public int hashCode() {
-        String sb = String.valueOf(week) + year.getValue();
-        return (Integer.parseInt(sb));
+        return (id);
     }
 
     @Override
     public boolean equals(@Nullable final Object obj) {
+        if (this == obj)
+            return (true);
         if (obj == null)
             return (false);
         if (getClass() != obj.getClass())
             return (false);
         final WeekOfYear other = (WeekOfYear) obj;
-        if (!Objects.equals(this.week, other.week))
-            return (false);
-        return Objects.equals(this.year, other.year);
+        return (this.id == other.id);
     }
 
     @Override
     public String toString() {
-        return "week " + this.week + " of " + this.year;
+        return "week " + week(id) + " of " + year(id);
+    }
+
+    /*
+     $      Serialization
+     */
+
+    private @NotNull Object writeReplace() {
+        return (new SerializedForm(SerializedForm.WEEK_OF_YEAR, this));
+    }
+
+    private void readObject(@NotNull final ObjectInputStream stream) throws InvalidObjectException {
+        throw (new InvalidObjectException("WeekOfYear is deserialized through its serialized form."));
+    }
+
+    /*
+     $      Private methods
+     */
+
+    /**
+     * Get the shared instance of an id, or a new instance outside of the cache
+     * and for the empty slots.
+     */
+    private static @NotNull WeekOfYear cached(final int id) {
+        final int slot = id - Cache.FIRST_ID;
+        final WeekOfYear instance = slot >= 0 && slot < Cache.INSTANCES.length ? Cache.INSTANCES[slot] : null;
+        if (instance != null) {
+            Instrumentation.cacheHit(TimeMetrics.Cache.WEEK_OF_YEAR);
+            return (instance);
+        }
+        Instrumentation.cacheMiss(TimeMetrics.Cache.WEEK_OF_YEAR);
+        return (new WeekOfYear(id));
+    }
+
+    /**
+     * The instances of the years cached, created on the first use. The slots of the
+     * week 53 of the years having 52 weeks are empty, their ids are never valid.
+     */
+    private static final class Cache {
+
+        static final int FIRST_ID = idOf(1, InstanceCache.FIRST_YEAR);
+
+        @NotNull
+        static final WeekOfYear[] INSTANCES = new WeekOfYear[(InstanceCache.LAST_YEAR - InstanceCache.FIRST_YEAR + 1)
+                * WEEKS_PER_ID_YEAR];
+
+        static {
+            for (int slot = 0; slot < INSTANCES.length; slot++) {
+                final int id = FIRST_ID + slot;
+                if (week(id) <= CalendarMath.weeksInWeekYear(year(id)))
+                    INSTANCES[slot] = new WeekOfYear(id);
+            }
+        }
+
     }
 
 }
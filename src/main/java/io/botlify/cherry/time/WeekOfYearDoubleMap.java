@@ -0,0 +1,80 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * A map from {@link WeekOfYear} to a primitive double, storing its values in a
+ * dense array indexed by epoch week (see {@link WeekOfYear#toEpochWeek(int)}).
+ * <p>
+ * Lookups and updates are an array access, without boxing, hashing nor entry
+ * objects. The array grows at either end and iteration is in chronological order.
+ * Partial aggregates built by several threads are combined with
+ * {@link #addAll(WeekOfYearDoubleMap)} or {@link #merge(WeekOfYearDoubleMap, DoubleBinaryOperator)}.
+ * This class is not thread-safe.
+ */
+public final class WeekOfYearDoubleMap extends AbstractDenseDoubleMap<WeekOfYear> {
+
+    /**
+     * Get the value of a week id.
+     * @param id The week id.
+     * @return The value, or 0 if absent.
+     */
+    public double getById(final int id) {
+        return (getByKey(WeekOfYear.toEpochWeek(id), 0));
+    }
+
+    /**
+     * Set the value of a week id.
+     * @param id The week id.
+     * @param value The value.
+     * @return The previous value, or 0 if absent.
+     */
+    public double putById(final int id, final double value) {
+        return (putByKey(WeekOfYear.toEpochWeek(id), value));
+    }
+
+    /**
+     * Add a delta to the value of a week id, an absent week counts as 0.
+     * @param id The week id.
+     * @param delta The delta to add.
+     * @return The new value.
+     */
+    public double addById(final int id, final double delta) {
+        return (addByKey(WeekOfYear.toEpochWeek(id), delta));
+    }
+
+    /**
+     * Add the values of the other map to the values of this map.
+     * @param other The other map.
+     */
+    public void addAll(@NotNull final WeekOfYearDoubleMap other) {
+        mergeFrom(other, Double::sum);
+    }
+
+    /**
+     * Merge every entry of the other map into this map. When a week is present
+     * in both maps, the operator computes the new value from the two values.
+     * @param other The other map.
+     * @param operator The merge operator.
+     */
+    public void merge(@NotNull final WeekOfYearDoubleMap other, @NotNull final DoubleBinaryOperator operator) {
+        mergeFrom(other, operator);
+    }
+
+    /*
+     $      Abstract dense primitive map
+     */
+
+    @Override
+    int keyOf(@NotNull final WeekOfYear bucket) {
+        return (WeekOfYear.toEpochWeek(bucket.getId()));
+    }
+
+    @Override
+    @NotNull WeekOfYear bucketOf(final int key) {
+        return (WeekOfYear.ofId(WeekOfYear.idOfEpochWeek(key)));
+    }
+
+}
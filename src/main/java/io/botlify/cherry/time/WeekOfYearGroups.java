@@ -0,0 +1,85 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The rows of a table grouped by {@link WeekOfYear}, built from the ISO week id
+ * of every row (for instance the output of {@link BucketKernel#weekIds(long[])}).
+ * <p>
+ * The rows of a week are a contiguous slice of a single permutation of the rows,
+ * see {@link #rowsOf}, so grouping allocates two int arrays instead of a
+ * list per week. The buckets are epoch weeks (see {@link WeekOfYear#toEpochWeek(int)}),
+ * so there is no empty slot between two years. The layout is built in two linear
+ * counting sort passes. Instances are immutable and safe to share across threads.
+ */
+public final class WeekOfYearGroups extends AbstractBucketGroups<WeekOfYear> {
+
+    private WeekOfYearGroups(@NotNull final int[] weekIds, final boolean parallel) {
+        super(weekIds, true, parallel);
+    }
+
+    /**
+     * Group the rows by week.
+     * @param weekIds The week id of every row.
+     * @return The groups.
+     */
+    public static @NotNull WeekOfYearGroups of(@NotNull final int[] weekIds) {
+        return (new WeekOfYearGroups(weekIds, false));
+    }
+
+    /**
+     * Group the rows by week.
+     * @param weekIds The week id of every row.
+     * @param parallel True to split the passes over the common {@link ForkJoinPool}.
+     * @return The groups.
+     */
+    public static @NotNull WeekOfYearGroups of(@NotNull final int[] weekIds, final boolean parallel) {
+        return (new WeekOfYearGroups(weekIds, parallel));
+    }
+
+    /**
+     * Get the weeks from the first one to the last one having rows,
+     * empty weeks included. The range is empty if there is no row.
+     * @return The range of weeks.
+     */
+    public @NotNull WeekOfYearRange getWeekOfYears() {
+        return (WeekOfYearRange.ofEpochWeeks(firstKey, firstKey + bucketCount() - 1));
+    }
+
+    /**
+     * Get the number of rows of a week.
+     * @param id The week id.
+     * @return The number of rows, 0 if the week has no row.
+     */
+    public int countById(final int id) {
+        final int key = WeekOfYear.toEpochWeek(id);
+        return (endOfKey(key) - startOfKey(key));
+    }
+
+    /**
+     * Get the rows of a week, as a read-only view of the permutation.
+     * @param id The week id.
+     * @return The row indexes, in increasing order.
+     */
+    public @NotNull IntBuffer rowsOfId(final int id) {
+        return (rowsOfKey(WeekOfYear.toEpochWeek(id)));
+    }
+
+    /*
+     $      Abstract bucket groups
+     */
+
+    @Override
+    int keyOf(@NotNull final WeekOfYear bucket) {
+        return (WeekOfYear.toEpochWeek(bucket.getId()));
+    }
+
+    @Override
+    @NotNull WeekOfYear bucketOf(final int key) {
+        return (WeekOfYear.ofId(WeekOfYear.idOfEpochWeek(key)));
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * A map keyed by {@link WeekOfYear}, storing its values in a dense array
+ * indexed by epoch week (see {@link WeekOfYear#toEpochWeek(int)}).
+ * <p>
+ * Lookups and updates are an array access, without hashing nor entry objects.
+ * The array grows at either end, iteration is in chronological order and null
+ * values are not allowed. Partial aggregates built by several threads are
+ * combined with {@link #mergeAll(WeekOfYearMap, BiFunction)}.
+ * This class is not thread-safe.
+ * @param <V> The type of the values.
+ */
+public final class WeekOfYearMap<V> extends AbstractDenseBucketMap<WeekOfYear, V> {
+
+    /**
+     * Create an empty map.
+     */
+    public WeekOfYearMap() {
+    }
+
+    /**
+     * Create a map containing the entries of the given map.
+     * @param map The map to copy.
+     */
+    public WeekOfYearMap(@NotNull final Map<? extends WeekOfYear, ? extends V> map) {
+        putAll(map);
+    }
+
+    /**
+     * Get the value of a week id.
+     * @param id The week id.
+     * @return The value, or null if absent.
+     */
+    public @Nullable V getById(final int id) {
+        return (getByKey(WeekOfYear.toEpochWeek(id)));
+    }
+
+    /**
+     * Set the value of a week id.
+     * @param id The week id.
+     * @param value The value.
+     * @return The previous value, or null if absent.
+     */
+    public @Nullable V putById(final int id, @NotNull final V value) {
+        return (putByKey(WeekOfYear.toEpochWeek(id), value));
+    }
+
+    /**
+     * Merge every entry of the other map into this map. When a week is present
+     * in both maps, the function computes the new value from the two values,
+     * a null result removes the week.
+     * @param other The other map.
+     * @param function The merge function.
+     */
+    public void mergeAll(@NotNull final WeekOfYearMap<V> other,
+                         @NotNull final BiFunction<? super V, ? super V, ? extends V> function) {
+        mergeFrom(other, function);
+    }
+
+    /*
+     $      Abstract dense bucket map
+     */
+
+    @Override
+    int keyOf(@NotNull final WeekOfYear bucket) {
+        return (WeekOfYear.toEpochWeek(bucket.getId()));
+    }
+
+    @Override
+    @NotNull WeekOfYear bucketOf(final int key) {
+        return (WeekOfYear.ofId(WeekOfYear.idOfEpochWeek(key)));
+    }
+
+    @Override
+    boolean isBucket(@Nullable final Object o) {
+        return (o instanceof WeekOfYear);
+    }
+
+}
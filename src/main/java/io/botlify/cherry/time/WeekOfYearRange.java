@@ -0,0 +1,99 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable list of consecutive {@link WeekOfYear}, in chronological order.
+ * <p>
+ * The range only stores its first epoch week (see {@link WeekOfYear#toEpochWeek(int)})
+ * and its size, so a range of several decades costs the same as a single week
+ * until it is iterated. {@link #size()}, {@link #get(int)}, {@link #contains(Object)}
+ * and {@link #indexOf(Object)} are O(1) and its spliterator splits in halves.
+ */
+public final class WeekOfYearRange extends AbstractBucketRange<WeekOfYear> {
+
+    private WeekOfYearRange(final int firstEpochWeek, final int size) {
+        super(firstEpochWeek, size);
+    }
+
+    /**
+     * Create the range of weeks between two weeks.
+     * The range is empty if the first week is after the last one.
+     * @param from The first week, inclusive.
+     * @param to The last week, inclusive.
+     * @return The range.
+     */
+    public static @NotNull WeekOfYearRange of(@NotNull final WeekOfYear from, @NotNull final WeekOfYear to) {
+        return (ofIds(from.getId(), to.getId()));
+    }
+
+    /**
+     * Create the range of weeks between two week ids.
+     * The range is empty if the first week is after the last one.
+     * @param fromId The first week id, inclusive.
+     * @param toId The last week id, inclusive.
+     * @return The range.
+     */
+    public static @NotNull WeekOfYearRange ofIds(final int fromId, final int toId) {
+        return (ofEpochWeeks(WeekOfYear.toEpochWeek(fromId), WeekOfYear.toEpochWeek(toId)));
+    }
+
+    static @NotNull WeekOfYearRange ofEpochWeeks(final int fromEpochWeek, final int toEpochWeek) {
+        return (new WeekOfYearRange(fromEpochWeek, toEpochWeek - fromEpochWeek + 1));
+    }
+
+    /**
+     * Check if the range contains a week id.
+     * @param id The week id.
+     * @return True if the week is in the range.
+     */
+    public boolean containsId(final int id) {
+        return (containsKey(WeekOfYear.toEpochWeek(id)));
+    }
+
+    /**
+     * Get the index of a week id in the range.
+     * @param id The week id.
+     * @return The index, or -1 if the week is not in the range.
+     */
+    public int indexOfId(final int id) {
+        return (indexOfKey(WeekOfYear.toEpochWeek(id)));
+    }
+
+    /**
+     * Get the week id at an index, without creating a week of year.
+     * @param index The index.
+     * @return The week id.
+     */
+    public int getId(final int index) {
+        if (index < 0 || index >= size)
+            throw (new IndexOutOfBoundsException("Index: " + index + ", size: " + size));
+        return (WeekOfYear.idOfEpochWeek(firstKey + index));
+    }
+
+    /*
+     $      Abstract bucket range
+     */
+
+    @Override
+    int keyOf(@NotNull final WeekOfYear element) {
+        return (WeekOfYear.toEpochWeek(element.getId()));
+    }
+
+    @Override
+    @NotNull WeekOfYear elementOf(final int key) {
+        return (WeekOfYear.ofId(WeekOfYear.idOfEpochWeek(key)));
+    }
+
+    @Override
+    boolean isElement(@Nullable final Object o) {
+        return (o instanceof WeekOfYear);
+    }
+
+    @Override
+    @NotNull WeekOfYearRange range(final int firstKey, final int size) {
+        return (new WeekOfYearRange(firstKey, size));
+    }
+
+}
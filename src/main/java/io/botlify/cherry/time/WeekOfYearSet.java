@@ -0,0 +1,188 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * A navigable set of {@link WeekOfYear} stored as a bitset over epoch weeks
+ * (see {@link WeekOfYear#toEpochWeek(int)}), so consecutive weeks are
+ * consecutive bits even across years.
+ * <p>
+ * Membership, insertion and removal are O(1), iteration is in week order,
+ * and the bulk operations ({@link #addAll(Collection)}, {@link #retainAll(Collection)},
+ * {@link #removeAll(Collection)}) between two week of year sets are done word by word.
+ * The weeks covered by a {@link Period} are added as a single range.
+ * The sets returned by {@link #subSet}, {@link #headSet}, {@link #tailSet} and
+ * {@link #descendingSet()} are views backed by this set.
+ * This class is not thread-safe.
+ */
+public final class WeekOfYearSet extends AbstractBucketSet<WeekOfYear> {
+
+    /**
+     * Create an empty set.
+     */
+    public WeekOfYearSet() {
+        super(new IdBitSet(), Integer.MIN_VALUE + 1, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Create a set containing the given weeks.
+     * @param weekOfYears The weeks.
+     */
+    public WeekOfYearSet(@NotNull final Collection<? extends WeekOfYear> weekOfYears) {
+        this();
+        addAll(weekOfYears);
+    }
+
+    private WeekOfYearSet(@NotNull final IdBitSet bits,
+                          final int low,
+                          final int high,
+                          final boolean descending) {
+        super(bits, low, high, descending);
+    }
+
+    /**
+     * Create a set containing every week covered by the period.
+     * @param period The period.
+     * @return The set of weeks.
+     */
+    public static @NotNull WeekOfYearSet of(@NotNull final Period period) {
+        final WeekOfYearSet weeks = new WeekOfYearSet();
+        weeks.addPeriod(period);
+        return (weeks);
+    }
+
+    /*
+     $      Id operations
+     */
+
+    /**
+     * Check if the set contains the given week id.
+     * @param id The week id.
+     * @return True if the set contains the week.
+     */
+    public boolean containsId(final int id) {
+        return (containsKey(WeekOfYear.toEpochWeek(id)));
+    }
+
+    /**
+     * Add a week id.
+     * @param id The week id.
+     * @return True if the week was not in the set.
+     */
+    public boolean addId(final int id) {
+        return (addKey(WeekOfYear.toEpochWeek(id)));
+    }
+
+    /**
+     * Remove a week id.
+     * @param id The week id.
+     * @return True if the week was in the set.
+     */
+    public boolean removeId(final int id) {
+        return (removeKey(WeekOfYear.toEpochWeek(id)));
+    }
+
+    /**
+     * Add every week between two weeks.
+     * @param from The first week, inclusive.
+     * @param to The last week, inclusive.
+     */
+    public void addRange(@NotNull final WeekOfYear from, @NotNull final WeekOfYear to) {
+        addKeyRange(keyOf(from), keyOf(to));
+    }
+
+    /**
+     * Add every week covered by the period, from the week of its start date
+     * to the week of its end date.
+     * @param period The period.
+     */
+    public void addPeriod(@NotNull final Period period) {
+        addKeyRange(CalendarMath.epochWeekOfEpochDay(period.getStartEpochDay()),
+                CalendarMath.epochWeekOfEpochDay(period.getEndEpochDay()));
+    }
+
+    /**
+     * Call the consumer for every week id of the set, in the order of the set.
+     * @param consumer The consumer.
+     */
+    public void forEachId(@NotNull final IntConsumer consumer) {
+        forEachKey(key -> consumer.accept(WeekOfYear.idOfEpochWeek(key)));
+    }
+
+    /**
+     * Get the number of weeks in the set.
+     * @return The number of weeks.
+     */
+    public int cardinality() {
+        return (size());
+    }
+
+    /*
+     $      Public static methods
+     */
+
+    /**
+     * Create the union of two sets.
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new set containing the weeks of both sets.
+     */
+    public static @NotNull WeekOfYearSet union(@NotNull final WeekOfYearSet a, @NotNull final WeekOfYearSet b) {
+        final WeekOfYearSet result = new WeekOfYearSet(a);
+        result.addAll(b);
+        return (result);
+    }
+
+    /**
+     * Create the intersection of two sets.
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new set containing the weeks present in both sets.
+     */
+    public static @NotNull WeekOfYearSet intersection(@NotNull final WeekOfYearSet a, @NotNull final WeekOfYearSet b) {
+        final WeekOfYearSet result = new WeekOfYearSet(a);
+        result.retainAll(b);
+        return (result);
+    }
+
+    /**
+     * Create the difference of two sets.
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new set containing the weeks of the first set that are not in the second one.
+     */
+    public static @NotNull WeekOfYearSet difference(@NotNull final WeekOfYearSet a, @NotNull final WeekOfYearSet b) {
+        final WeekOfYearSet result = new WeekOfYearSet(a);
+        result.removeAll(b);
+        return (result);
+    }
+
+    /*
+     $      Abstract bucket set
+     */
+
+    @Override
+    int keyOf(@NotNull final WeekOfYear element) {
+        return (WeekOfYear.toEpochWeek(element.getId()));
+    }
+
+    @Override
+    @NotNull WeekOfYear elementOf(final int key) {
+        return (WeekOfYear.ofId(WeekOfYear.idOfEpochWeek(key)));
+    }
+
+    @Override
+    boolean isElement(@Nullable final Object o) {
+        return (o instanceof WeekOfYear);
+    }
+
+    @Override
+    @NotNull WeekOfYearSet view(final int low, final int high, final boolean descending) {
+        return (new WeekOfYearSet(bits, low, high, descending));
+    }
+
+}
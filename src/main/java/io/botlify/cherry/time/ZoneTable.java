@@ -0,0 +1,276 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The offsets of a time zone, precomputed as a sorted table of transitions.
+ * <p>
+ * The table contains every transition of the zone up to the end of {@link #LAST_YEAR},
+ * so the offset of a timestamp is a binary search in an array, and the local epoch day
+ * is an addition and a division. After the table, the offsets come from the rules of
+ * the zone. The bulk conversions of {@link BucketKernel} accept a table, and they also
+ * skip the search while consecutive timestamps stay between the same two transitions.
+ * <p>
+ * Tables are obtained with {@link #of(String)} or {@link #of(ZoneId)}, which resolve each
+ * zone once and keep it in a cache shared by every thread. The cache holds at most
+ * {@link #MAX_CACHED_ZONES} zones, the oldest zone is evicted first.
+ * No range check is done by the conversions of a single timestamp.
+ * Instances are immutable and safe to share across threads.
+ */
+public final class ZoneTable {
+
+    /**
+     * The last year covered by the transition tables.
+     */
+    public static final int LAST_YEAR = 2100;
+
+    /**
+     * The maximum number of zones kept in the cache.
+     */
+    public static final int MAX_CACHED_ZONES = 1024;
+
+    /**
+     * The first instant scanned for transitions, for the zones without historical transitions.
+     */
+    private static final Instant FIRST_INSTANT = Instant.ofEpochSecond(
+            CalendarMath.epochDay(1900, 1, 1) * EpochConverter.SECONDS_PER_DAY);
+
+    private static final long LIMIT_MILLIS = CalendarMath.epochDay(LAST_YEAR + 1, 1, 1) * EpochConverter.MILLIS_PER_DAY;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    @NotNull
+    private static final ConcurrentHashMap<String, ZoneTable> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The cached zones, in insertion order.
+     */
+    @NotNull
+    private static final Queue<String> CACHE_ORDER = new ConcurrentLinkedQueue<>();
+
+    @NotNull
+    private final ZoneId zone;
+
+    @NotNull
+    private final ZoneRules rules;
+
+    /**
+     * The epoch milliseconds of the transitions, in increasing order.
+     */
+    @NotNull
+    final long[] transitions;
+
+    /**
+     * The offset in milliseconds between two transitions: {@code offsets[i]} applies
+     * before {@code transitions[i]}, the last one after the last transition.
+     */
+    @NotNull
+    final int[] offsets;
+
+    /**
+     * The end of the table, after it the offsets come from the rules of the zone.
+     * {@link Long#MAX_VALUE} if the zone has no more transition.
+     */
+    final long limit;
+
+    private ZoneTable(@NotNull final ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        final List<ZoneOffsetTransition> list = new ArrayList<>(rules.getTransitions());
+        if (!rules.getTransitionRules().isEmpty()) {
+            Instant cursor = list.isEmpty() ? FIRST_INSTANT : list.get(list.size() - 1).getInstant();
+            ZoneOffsetTransition next;
+            while ((next = rules.nextTransition(cursor)) != null && next.toEpochSecond() * MILLIS_PER_SECOND < LIMIT_MILLIS) {
+                list.add(next);
+                cursor = next.getInstant();
+            }
+            this.limit = LIMIT_MILLIS;
+        } else {
+            this.limit = Long.MAX_VALUE;
+        }
+        this.transitions = new long[list.size()];
+        this.offsets = new int[list.size() + 1];
+        this.offsets[0] = (list.isEmpty() ? rules.getOffset(Instant.EPOCH) : list.get(0).getOffsetBefore())
+                .getTotalSeconds() * (int)MILLIS_PER_SECOND;
+        for (int i = 0; i < list.size(); i++) {
+            transitions[i] = list.get(i).toEpochSecond() * MILLIS_PER_SECOND;
+            offsets[i + 1] = list.get(i).getOffsetAfter().getTotalSeconds() * (int)MILLIS_PER_SECOND;
+        }
+    }
+
+    /**
+     * Get the table of a zone, from the cache if it was already resolved.
+     * @param zoneId The id of the zone, see {@link ZoneId#of(String)}.
+     * @return The table of the zone.
+     */
+    public static @NotNull ZoneTable of(@NotNull final String zoneId) {
+        final ZoneTable table = CACHE.get(zoneId);
+        if (table != null)
+            return (table);
+        return (cache(zoneId, build(ZoneId.of(zoneId))));
+    }
+
+    /**
+     * Get the table of a zone, from the cache if it was already resolved.
+     * @param zone The zone.
+     * @return The table of the zone.
+     */
+    public static @NotNull ZoneTable of(@NotNull final ZoneId zone) {
+        final ZoneTable table = CACHE.get(zone.getId());
+        if (table != null)
+            return (table);
+        return (cache(zone.getId(), build(zone)));
+    }
+
+    /*
+     $      Conversions
+     */
+
+    /**
+     * Get the offset of the zone at an instant.
+     * @param epochMillis The epoch milliseconds.
+     * @return The offset from UTC in milliseconds.
+     */
+    public int getOffsetMillis(final long epochMillis) {
+        if (epochMillis >= limit)
+            return (rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * (int)MILLIS_PER_SECOND);
+        return (offsets[intervalOf(epochMillis)]);
+    }
+
+    /**
+     * Convert epoch milliseconds to the local epoch day in the zone.
+     * @param epochMillis The epoch milliseconds.
+     * @return The local epoch day.
+     */
+    public int epochDayOfMillis(final long epochMillis) {
+        return ((int)localEpochDayOfMillis(epochMillis));
+    }
+
+    /**
+     * Convert epoch seconds to the local epoch day in the zone.
+     * @param epochSeconds The epoch seconds.
+     * @return The local epoch day.
+     */
+    public int epochDayOfSeconds(final long epochSeconds) {
+        return ((int)localEpochDayOfSeconds(epochSeconds));
+    }
+
+    /**
+     * Convert epoch milliseconds to the local epoch month id in the zone.
+     * @param epochMillis The epoch milliseconds.
+     * @return The epoch month id, see {@link MonthYear#getId()}.
+     */
+    public int monthIdOfMillis(final long epochMillis) {
+        return (CalendarMath.monthIdOfEpochDay(epochDayOfMillis(epochMillis)));
+    }
+
+    /**
+     * Convert epoch milliseconds to the local ISO week id in the zone.
+     * @param epochMillis The epoch milliseconds.
+     * @return The week id, see {@link WeekOfYear#getId()}.
+     */
+    public int weekIdOfMillis(final long epochMillis) {
+        return (CalendarMath.weekIdOfEpochDay(epochDayOfMillis(epochMillis)));
+    }
+
+    public @NotNull ZoneId getZone() {
+        return (zone);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return ("ZoneTable(" + zone + ", " + transitions.length + " transitions)");
+    }
+
+    /*
+     $      Package methods
+     */
+
+    long localEpochDayOfMillis(final long epochMillis) {
+        return (Math.floorDiv(epochMillis + getOffsetMillis(epochMillis), EpochConverter.MILLIS_PER_DAY));
+    }
+
+    long localEpochDayOfSeconds(final long epochSeconds) {
+        // The search is done in milliseconds, saturated for the instants far from the table.
+        final long epochMillis = epochSeconds > Long.MAX_VALUE / MILLIS_PER_SECOND ? Long.MAX_VALUE
+                : epochSeconds < Long.MIN_VALUE / MILLIS_PER_SECOND ? Long.MIN_VALUE
+                : epochSeconds * MILLIS_PER_SECOND;
+        final int offsetSeconds = epochMillis >= limit
+                ? rules.getOffset(Instant.ofEpochSecond(epochSeconds)).getTotalSeconds()
+                : offsets[intervalOf(epochMillis)] / (int)MILLIS_PER_SECOND;
+        return (Math.floorDiv(epochSeconds + offsetSeconds, EpochConverter.SECONDS_PER_DAY));
+    }
+
+    /**
+     * Find the interval between two transitions containing an instant before the limit.
+     * @param epochMillis The epoch milliseconds.
+     * @return The number of transitions at or before the instant, the index of its offset.
+     */
+    int intervalOf(final long epochMillis) {
+        // Branch-free search: the length halves on every step, only the base moves.
+        int base = 0;
+        int length = transitions.length;
+        while (length > 1) {
+            final int half = length >>> 1;
+            base = transitions[base + half - 1] <= epochMillis ? base + half : base;
+            length -= half;
+        }
+        return (length == 1 && transitions[base] <= epochMillis ? base + 1 : base);
+    }
+
+    /**
+     * Get the first instant of an interval.
+     * @param interval The interval.
+     * @return The epoch milliseconds, inclusive.
+     */
+    long intervalStart(final int interval) {
+        return (interval == 0 ? Long.MIN_VALUE : transitions[interval - 1]);
+    }
+
+    /**
+     * Get the end of an interval.
+     * @param interval The interval.
+     * @return The epoch milliseconds, exclusive.
+     */
+    long intervalEnd(final int interval) {
+        return (interval == transitions.length ? limit : transitions[interval]);
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static @NotNull ZoneTable build(@NotNull final ZoneId zone) {
+        final Object event = FlightEvents.begin(FlightEvents.ZONE_TABLE_BUILD);
+        final ZoneTable table = new ZoneTable(zone);
+        if (event != null)
+            FlightEvents.commit(event, "ZoneTable.of", 1, table.transitions.length, zone.getId());
+        return (table);
+    }
+
+    private static @NotNull ZoneTable cache(@NotNull final String key, @NotNull final ZoneTable table) {
+        final ZoneTable previous = CACHE.putIfAbsent(key, table);
+        if (previous != null)
+            return (previous);
+        CACHE_ORDER.add(key);
+        while (CACHE.size() > MAX_CACHED_ZONES) {
+            final @Nullable String eldest = CACHE_ORDER.poll();
+            if (eldest == null)
+                break;
+            CACHE.remove(eldest);
+        }
+        return (table);
+    }
+
+}
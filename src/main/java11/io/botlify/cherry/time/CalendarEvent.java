@@ -0,0 +1,131 @@
+package io.botlify.cherry.time;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The Flight Recorder events of the expensive operations.
+ * <p>
+ * This is the Java 11 version of the class, packaged under {@code META-INF/versions/11};
+ * the Java 8 version records nothing. It is only loaded by {@link FlightEvents} once
+ * {@code jdk.jfr} is known to be available, the rest of the library never references it.
+ * The events are disabled by default, and only recorded above their threshold when
+ * enabled in a recording setting. While an event is disabled, {@link #begin(int)} only
+ * reads its enabled state and allocates nothing.
+ */
+@Category({"Cherry", "Time"})
+abstract class CalendarEvent extends Event {
+
+    /**
+     * The type of each event, by type of {@link FlightEvents}, null if the virtual machine
+     * cannot record them. Their enabled state follows the recordings, so it is read on every call.
+     */
+    @Nullable
+    private static final EventType[] TYPES = types();
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Input Size")
+    @Description("The number of elements given to the operation")
+    long inputSize;
+
+    @Label("Result Size")
+    @Description("The number of elements produced by the operation")
+    long resultSize;
+
+    @Label("Zone")
+    @Description("The time zone of the operation, null for UTC")
+    String zone;
+
+    /**
+     * @return True if the event types were resolved, {@link #begin(int)} is only called then.
+     */
+    static boolean available() {
+        return (TYPES != null);
+    }
+
+    /**
+     * Start an event.
+     * @param type The type of event, see {@link FlightEvents}.
+     * @return The started event, null if the event is not enabled.
+     */
+    static @Nullable Object begin(final int type) {
+        if (!TYPES[type].isEnabled())
+            return (null);
+        final CalendarEvent event = type == FlightEvents.PERIOD_DECOMPOSITION ? new PeriodDecomposition()
+                : type == FlightEvents.BULK_CONVERSION ? new BulkConversion() : new ZoneTableBuild();
+        event.begin();
+        return (event);
+    }
+
+    /**
+     * End an event, and commit it if it lasted more than its threshold.
+     * @param started The event returned by {@link #begin(int)}.
+     * @param operation The name of the operation.
+     * @param inputSize The number of elements given to the operation.
+     * @param resultSize The number of elements produced.
+     * @param zone The id of the time zone, null for UTC.
+     */
+    static void commit(@NotNull final Object started, @NotNull final String operation,
+                       final long inputSize, final long resultSize, @Nullable final String zone) {
+        final CalendarEvent event = (CalendarEvent) started;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+        event.operation = operation;
+        event.inputSize = inputSize;
+        event.resultSize = resultSize;
+        event.zone = zone;
+        event.commit();
+    }
+
+    /**
+     * Resolve the event types. The {@code jdk.jfr} classes can be present on a virtual
+     * machine built without the Flight Recorder, which fails there.
+     */
+    private static @Nullable EventType[] types() {
+        try {
+            return (new EventType[] {
+                    EventType.getEventType(PeriodDecomposition.class),
+                    EventType.getEventType(BulkConversion.class),
+                    EventType.getEventType(ZoneTableBuild.class)
+            });
+        } catch (IllegalStateException | SecurityException | LinkageError | InternalError e) {
+            return (null);
+        }
+    }
+
+    @Name("io.botlify.cherry.time.PeriodDecomposition")
+    @Label("Period Decomposition")
+    @Description("A period decomposed in a set of months or weeks")
+    @Enabled(false)
+    @Threshold("1 ms")
+    static final class PeriodDecomposition extends CalendarEvent {
+    }
+
+    @Name("io.botlify.cherry.time.BulkConversion")
+    @Label("Bulk Conversion")
+    @Description("A collection of instants converted to buckets")
+    @Enabled(false)
+    @Threshold("10 ms")
+    static final class BulkConversion extends CalendarEvent {
+    }
+
+    @Name("io.botlify.cherry.time.ZoneTableBuild")
+    @Label("Zone Table Build")
+    @Description("The transitions of a time zone resolved in a table")
+    @Enabled(false)
+    @Threshold("1 ms")
+    static final class ZoneTableBuild extends CalendarEvent {
+    }
+
+}
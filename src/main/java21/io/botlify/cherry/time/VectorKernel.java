@@ -0,0 +1,152 @@
+package io.botlify.cherry.time;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The epoch day kernel of {@link BucketKernel} written with the Vector API.
+ * <p>
+ * This is the Java 21 version of the class, packaged under {@code META-INF/versions/21}.
+ * The kernel is only enabled when the {@code jdk.incubator.vector} module is in the boot
+ * layer, otherwise {@link #AVAILABLE} is false and the vector classes are never loaded.
+ * The months and weeks stay scalar: measured against the scalar loops, only the days
+ * were faster with vectors.
+ * <p>
+ * The Vector API has no fast integer division, so the division by the milliseconds of
+ * a day is done with doubles: the numerator is first shifted by 1024 so it stays below
+ * 2^51 and is exact in a double, and the quotient is offset by one half so the rounding
+ * errors of the multiplication by the inverse never change its integer part. The
+ * conversions between longs and doubles are done on the bits, they have no fast vector
+ * instruction on every CPU. The results are the same as the scalar kernel, the timestamps
+ * out of the supported years are detected the same way.
+ */
+final class VectorKernel {
+
+    /**
+     * True if the vector kernel is used. Not a constant expression,
+     * so the callers read it from the version of the class loaded at run time.
+     */
+    static final boolean AVAILABLE = available();
+
+    /**
+     * Below this number of elements, the conversions stay scalar.
+     */
+    static final int MIN_LENGTH = 64;
+
+    private VectorKernel() {
+    }
+
+    private static boolean available() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return (false);
+        try {
+            return (Kernels.LONGS.length() >= 2);
+        } catch (LinkageError e) {
+            return (false);
+        }
+    }
+
+    /**
+     * Convert a range of epoch milliseconds to epoch days in UTC, see {@link BucketKernel}.
+     * @param epochMillis The epoch milliseconds.
+     * @param fromIndex The first index to convert, inclusive.
+     * @param toIndex The last index to convert, exclusive.
+     * @param out The array receiving the epoch days.
+     * @param outOffset The index in {@code out} of the first epoch day.
+     * @return A negative value if a timestamp is out of the supported range.
+     */
+    static long epochDays(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                          @NotNull final int[] out, final int outOffset) {
+        if (!AVAILABLE)
+            return (BucketKernel.epochDaysInUtc(epochMillis, fromIndex, toIndex, out, outOffset));
+        return (Kernels.epochDays(epochMillis, fromIndex, toIndex, out, outOffset));
+    }
+
+    /**
+     * The kernel, in a class only loaded once the module is known to be present.
+     */
+    private static final class Kernels {
+
+        @NotNull
+        static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+        /**
+         * The ints with as many lanes as {@link #LONGS}, receiving the epoch days.
+         */
+        @NotNull
+        static final VectorSpecies<Integer> NARROW_INTS = VectorSpecies.of(int.class,
+                VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+
+        /**
+         * A multiple of the days added to the numerator of the day division so it is never negative.
+         */
+        private static final long DAY_DIVISION_SHIFT = 1L << 29;
+
+        /**
+         * The milliseconds of a day divided by 1024.
+         */
+        private static final long MILLIS_PER_DAY_1024 = EpochConverter.MILLIS_PER_DAY >> 10;
+
+        /**
+         * The largest numerator of the day division, the timestamps above are clamped to it.
+         */
+        private static final long MAX_DAY_NUMERATOR = 1L << 50;
+
+        private static final double TWO_52 = 0x1p52;
+
+        private static final long TWO_52_BITS = Double.doubleToRawLongBits(TWO_52);
+
+        /**
+         * Adding 1.5 * 2^52 to a double between -2^51 and 2^51 rounds it to an integer in its mantissa.
+         */
+        private static final double ROUNDING = 0x1.8p52;
+
+        private static final long ROUNDING_BITS = Double.doubleToRawLongBits(ROUNDING);
+
+        static long epochDays(@NotNull final long[] epochMillis, final int fromIndex, final int toIndex,
+                              @NotNull final int[] out, final int outOffset) {
+            final int shift = outOffset - fromIndex;
+            final int bound = fromIndex + LONGS.loopBound(toIndex - fromIndex);
+            LongVector invalid = LongVector.zero(LONGS);
+            for (int i = fromIndex; i < bound; i += LONGS.length()) {
+                final LongVector day = epochDays(LongVector.fromArray(LONGS, epochMillis, i));
+                invalid = invalid.or(day.sub(CalendarMath.MIN_EPOCH_DAY)
+                        .or(LongVector.broadcast(LONGS, CalendarMath.MAX_EPOCH_DAY).sub(day)));
+                ((IntVector) day.castShape(NARROW_INTS, 0)).intoArray(out, i + shift);
+            }
+            return (invalid.reduceLanes(VectorOperators.OR)
+                    | BucketKernel.epochDaysInUtc(epochMillis, bound, toIndex, out, bound + shift));
+        }
+
+        /**
+         * Compute the epoch days of epoch milliseconds, the days out of range are still out of range.
+         */
+        private static @NotNull LongVector epochDays(@NotNull final LongVector epochMillis) {
+            // floor(m / MILLIS_PER_DAY) is floor(floor(m / 1024) / MILLIS_PER_DAY_1024), the first one a shift.
+            // The clamped numerators give days out of the supported range on both sides.
+            final LongVector shifted = epochMillis.lanewise(VectorOperators.ASHR, 10)
+                    .add(DAY_DIVISION_SHIFT * MILLIS_PER_DAY_1024).max(0).min(MAX_DAY_NUMERATOR);
+            return (divide(shifted, MILLIS_PER_DAY_1024).sub(DAY_DIVISION_SHIFT));
+        }
+
+        /**
+         * Divide values between 0 and 2^51 by a positive divisor, rounding down.
+         * Exact as long as the quotient times 2^-51 is well below half of the inverse of the divisor.
+         */
+        private static @NotNull LongVector divide(@NotNull final LongVector values, final long divisor) {
+            // The conversions are done on the bits: a value is exact in the mantissa of 2^52, and the
+            // rounded quotient is read from the mantissa of 1.5 * 2^52. Computing (x + 0.5) / d - 0.5
+            // and rounding it to the nearest integer gives floor(x / d), never on a tie.
+            final DoubleVector exact = values.or(TWO_52_BITS).reinterpretAsDoubles().sub(TWO_52);
+            final DoubleVector quotient = exact.add(0.5 - divisor * 0.5).mul(1.0 / divisor).add(ROUNDING);
+            return (quotient.reinterpretAsLongs().sub(ROUNDING_BITS));
+        }
+
+    }
+
+}
@@ -0,0 +1,183 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the conversions of {@link BucketKernel} against {@code java.time}, and the
+ * kernel of {@link VectorKernel} against the scalar loop. On Java 21 the tests run with
+ * the {@code jdk.incubator.vector} module, so the vector kernel is the one checked.
+ */
+class BucketKernelTest {
+
+    private static final long MIN_MILLIS = CalendarMath.MIN_EPOCH_DAY * EpochConverter.MILLIS_PER_DAY;
+
+    private static final long MAX_MILLIS = (CalendarMath.MAX_EPOCH_DAY + 1L) * EpochConverter.MILLIS_PER_DAY - 1;
+
+    /*
+     $      Epoch days
+     */
+
+    @Test
+    void convertsTheEpochDaysOfJavaTime() {
+        final Random random = new Random(42);
+        for (int length = 0; length <= 300; length++)
+            assertBuckets(randomMillis(random, length));
+        assertBuckets(randomMillis(random, 100_000));
+        assertBuckets(dayBoundaries(-800_000, 800_000, 97));
+        assertBuckets(new long[] {MIN_MILLIS, MIN_MILLIS + 1, -1, 0, 1, MAX_MILLIS - 1, MAX_MILLIS});
+    }
+
+    @Test
+    void convertsARangeInPlace() {
+        final long[] epochMillis = randomMillis(new Random(7), 1_000);
+        final int[] expected = expectedEpochDays(epochMillis);
+        for (int fromIndex = 0; fromIndex < 40; fromIndex += 3) {
+            for (int toIndex = 960; toIndex <= 1_000; toIndex += 7) {
+                final int[] out = new int[toIndex - fromIndex + 5];
+                BucketKernel.epochDays(epochMillis, fromIndex, toIndex, out, 5);
+                for (int i = fromIndex; i < toIndex; i++)
+                    assertEquals(expected[i], out[i - fromIndex + 5]);
+            }
+        }
+    }
+
+    @Test
+    void convertsTheBuffers() {
+        final long[] epochMillis = randomMillis(new Random(11), 1_000);
+        final int[] expected = expectedEpochDays(epochMillis);
+        final LongBuffer direct = ByteBuffer.allocateDirect(epochMillis.length * Long.BYTES).asLongBuffer();
+        direct.put(epochMillis).flip();
+        for (LongBuffer buffer : new LongBuffer[] {LongBuffer.wrap(epochMillis), direct}) {
+            final int[] out = new int[epochMillis.length];
+            BucketKernel.epochDays(buffer, out, 0);
+            assertArrayEquals(expected, out);
+            assertEquals(buffer.limit(), buffer.position());
+        }
+    }
+
+    @Test
+    void matchesTheScalarLoop() {
+        final Random random = new Random(3);
+        for (int length = 0; length <= 300; length++) {
+            final long[] epochMillis = randomMillis(random, length + 8);
+            assertSameKernel(epochMillis, 8);
+        }
+        assertSameKernel(dayBoundaries(-800_000, 800_000, 1), 0);
+        assertSameKernel(dayBoundaries(CalendarMath.MIN_EPOCH_DAY, CalendarMath.MIN_EPOCH_DAY + 1_000, 1), 0);
+        assertSameKernel(dayBoundaries(CalendarMath.MAX_EPOCH_DAY - 1_000, CalendarMath.MAX_EPOCH_DAY, 1), 0);
+    }
+
+    /*
+     $      Invalid timestamps
+     */
+
+    @Test
+    void rejectsTheTimestampsOutOfRange() {
+        final long[] invalids = {MIN_MILLIS - 1, MAX_MILLIS + 1, Long.MIN_VALUE, Long.MAX_VALUE,
+                Long.MIN_VALUE + EpochConverter.MILLIS_PER_DAY, Long.MAX_VALUE - EpochConverter.MILLIS_PER_DAY};
+        final Random random = new Random(5);
+        for (long invalid : invalids) {
+            for (int index : new int[] {0, 1, 63, 64, 65, 127, 199}) {
+                final long[] epochMillis = randomMillis(random, 200);
+                epochMillis[index] = invalid;
+                final String message = "The timestamp " + invalid + " at index " + index + " is out of the supported range.";
+                assertEquals(message, assertThrows(IllegalArgumentException.class,
+                        () -> BucketKernel.epochDays(epochMillis)).getMessage());
+                assertEquals(message, assertThrows(IllegalArgumentException.class,
+                        () -> BucketKernel.monthIds(epochMillis)).getMessage());
+                assertEquals(message, assertThrows(IllegalArgumentException.class,
+                        () -> BucketKernel.weekIds(epochMillis)).getMessage());
+                final int[] out = new int[epochMillis.length];
+                assertTrue(VectorKernel.epochDays(epochMillis, 0, epochMillis.length, out, 0) < 0);
+            }
+        }
+    }
+
+    /*
+     $      Parallel
+     */
+
+    @Test
+    void convertsInParallel() {
+        final long[] epochMillis = randomMillis(new Random(13), 1_000_000);
+        assertArrayEquals(BucketKernel.epochDays(epochMillis), BucketKernel.parallelEpochDays(epochMillis));
+        assertArrayEquals(BucketKernel.monthIds(epochMillis), BucketKernel.parallelMonthIds(epochMillis));
+        assertArrayEquals(BucketKernel.weekIds(epochMillis), BucketKernel.parallelWeekIds(epochMillis));
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static @NotNull long[] randomMillis(@NotNull final Random random, final int length) {
+        final long[] epochMillis = new long[length];
+        for (int i = 0; i < length; i++) {
+            // Half of the timestamps around 1970, the others in the whole supported range.
+            epochMillis[i] = i % 2 == 0 ? random.nextLong() % (200L * 365 * EpochConverter.MILLIS_PER_DAY)
+                    : MIN_MILLIS + (long)(random.nextDouble() * (MAX_MILLIS - MIN_MILLIS));
+        }
+        return (epochMillis);
+    }
+
+    /**
+     * The last and first milliseconds of the days between two epoch days.
+     */
+    private static @NotNull long[] dayBoundaries(final int fromDay, final int toDay, final int step) {
+        final long[] epochMillis = new long[((toDay - fromDay) / step + 1) * 2];
+        for (int i = 0; i < epochMillis.length; i += 2) {
+            final long midnight = (fromDay + (long)(i / 2) * step) * EpochConverter.MILLIS_PER_DAY;
+            epochMillis[i] = Math.max(MIN_MILLIS, midnight - 1);
+            epochMillis[i + 1] = midnight;
+        }
+        return (epochMillis);
+    }
+
+    private static @NotNull int[] expectedEpochDays(@NotNull final long[] epochMillis) {
+        final int[] epochDays = new int[epochMillis.length];
+        for (int i = 0; i < epochMillis.length; i++)
+            epochDays[i] = (int)Math.floorDiv(epochMillis[i], EpochConverter.MILLIS_PER_DAY);
+        return (epochDays);
+    }
+
+    private static void assertBuckets(@NotNull final long[] epochMillis) {
+        final int[] epochDays = expectedEpochDays(epochMillis);
+        final int[] monthIds = new int[epochMillis.length];
+        final int[] weekIds = new int[epochMillis.length];
+        for (int i = 0; i < epochMillis.length; i++) {
+            final LocalDate date = LocalDate.ofEpochDay(epochDays[i]);
+            monthIds[i] = MonthYear.idOf(date.getMonthValue(), date.getYear());
+            weekIds[i] = WeekOfYear.idOf(date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), date.get(IsoFields.WEEK_BASED_YEAR));
+        }
+        assertArrayEquals(epochDays, BucketKernel.epochDays(epochMillis));
+        assertArrayEquals(monthIds, BucketKernel.monthIds(epochMillis));
+        assertArrayEquals(weekIds, BucketKernel.weekIds(epochMillis));
+    }
+
+    /**
+     * Check the vector kernel and the scalar loop give the same days, on every range from an index.
+     */
+    private static void assertSameKernel(@NotNull final long[] epochMillis, final int maxFromIndex) {
+        for (int fromIndex = 0; fromIndex <= Math.min(maxFromIndex, epochMillis.length); fromIndex++) {
+            final int length = epochMillis.length - fromIndex;
+            final int[] scalar = new int[length];
+            final int[] vector = new int[length];
+            final long scalarInvalid = BucketKernel.epochDaysInUtc(epochMillis, fromIndex, epochMillis.length, scalar, 0);
+            final long vectorInvalid = VectorKernel.epochDays(epochMillis, fromIndex, epochMillis.length, vector, 0);
+            assertEquals(scalarInvalid < 0, vectorInvalid < 0);
+            assertArrayEquals(scalar, vector);
+        }
+    }
+
+}
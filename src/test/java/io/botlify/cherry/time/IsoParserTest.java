@@ -0,0 +1,227 @@
+package io.botlify.cherry.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.IsoFields;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks {@link IsoParser} against the parsers of {@code java.time}: the same values
+ * for the valid texts, and the same message and error index for the invalid ones.
+ */
+class IsoParserTest {
+
+    /**
+     * The months of {@link DateTimeFormatter#ISO_LOCAL_DATE}, with the strict resolver.
+     */
+    private static final DateTimeFormatter ISO_MONTH = new DateTimeFormatterBuilder()
+            .appendValue(ChronoField.YEAR, 4, 10, SignStyle.EXCEEDS_PAD)
+            .appendLiteral('-')
+            .appendValue(ChronoField.MONTH_OF_YEAR, 2)
+            .toFormatter()
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    /**
+     * Invalid dates, rejected with the same message by {@link LocalDate#parse(CharSequence)}.
+     */
+    private static final String[] INVALID_DATES = {
+            "", "2021", "2021-", "2021-01", "2021-01-", "2021-1-01", "2021-01-1", "2021-01-011",
+            "2021/01/01", "21-01-01", "02021-01-01", "+2021-01-01", "-0000-01-01", "+12345678901-01-01",
+            " 2021-01-01", "2021-01-01 ", "2021-01-01T00:00", "abcd-01-01", "2021-0a-01", "2021-01-0b",
+            "2021-13-01", "2021-00-10", "2021-01-32", "2021-01-00", "2021-02-29", "1900-02-29",
+            "2020-02-30", "2021-04-31", "2021-06-31", "2021-09-31", "2021-11-31"
+    };
+
+    /*
+     $      Date
+     */
+
+    @Test
+    void parsesTheDatesOfLocalDate() {
+        for (int epochDay = -800_000; epochDay <= 800_000; epochDay++)
+            assertDate(LocalDate.ofEpochDay(epochDay));
+        final Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            final int epochDay = CalendarMath.MIN_EPOCH_DAY
+                    + random.nextInt(CalendarMath.MAX_EPOCH_DAY - CalendarMath.MIN_EPOCH_DAY + 1);
+            assertDate(LocalDate.ofEpochDay(epochDay));
+        }
+        assertDate(LocalDate.ofEpochDay(CalendarMath.MIN_EPOCH_DAY));
+        assertDate(LocalDate.ofEpochDay(CalendarMath.MAX_EPOCH_DAY));
+        assertDate(LocalDate.of(-1, 1, 1));
+    }
+
+    @Test
+    void parsesADateInPlace() {
+        final String text = "xx2021-03-04yy";
+        final int expected = (int)LocalDate.of(2021, 3, 4).toEpochDay();
+        assertEquals(expected, IsoParser.parseEpochDay(text, 2, 12));
+        assertEquals(expected, IsoParser.parseEpochDay(text.toCharArray(), 2, 12));
+        assertEquals(expected, IsoParser.parseEpochDay(text.getBytes(StandardCharsets.US_ASCII), 2, 12));
+        assertEquals(expected, IsoParser.parseEpochDay(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)), 2, 12));
+        assertEquals(expected, IsoParser.parseEpochDay(new StringBuilder(text), 2, 12));
+    }
+
+    @Test
+    void rejectsTheDatesRejectedByLocalDate() {
+        for (String text : INVALID_DATES) {
+            final DateTimeParseException expected = assertThrows(DateTimeParseException.class,
+                    () -> LocalDate.parse(text), text);
+            assertSameError(expected, () -> IsoParser.parseEpochDay(text));
+            assertSameError(expected, () -> IsoParser.parseEpochDay(text.toCharArray(), 0, text.length()));
+            final String padded = "--" + text + "--";
+            assertSameError(expected, () -> IsoParser.parseEpochDay(padded.getBytes(StandardCharsets.US_ASCII),
+                    2, 2 + text.length()));
+        }
+    }
+
+    @Test
+    void rejectsTheYearsOutOfTheSupportedRange() {
+        for (String text : new String[] {"+1000001-01-01", "-1000001-12-31", "+999999999-01-01"}) {
+            LocalDate.parse(text);
+            final DateTimeParseException exception = assertThrows(DateTimeParseException.class,
+                    () -> IsoParser.parseEpochDay(text), text);
+            assertEquals("Text '" + text + "' could not be parsed: Invalid value for Year (valid values "
+                    + MonthYear.MIN_YEAR + " - " + MonthYear.MAX_YEAR + "): "
+                    + LocalDate.parse(text).getYear(), exception.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsTheIndexesOutOfTheText() {
+        assertThrows(IndexOutOfBoundsException.class, () -> IsoParser.parseEpochDay("2021-01-01", -1, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> IsoParser.parseEpochDay("2021-01-01", 0, 11));
+        assertThrows(IndexOutOfBoundsException.class, () -> IsoParser.parseEpochDay("2021-01-01", 5, 4));
+    }
+
+    /*
+     $      Month
+     */
+
+    @Test
+    void parsesTheMonthsOfYearMonth() {
+        for (int year = -30_000; year <= 30_000; year++) {
+            for (int month = 1; month <= 12; month++)
+                assertMonth(YearMonth.of(year, month));
+        }
+        assertMonth(YearMonth.of(MonthYear.MAX_YEAR, 12));
+        assertMonth(YearMonth.of(MonthYear.MIN_YEAR, 1));
+    }
+
+    @Test
+    void rejectsTheMonthsRejectedByYearMonth() {
+        for (String text : new String[] {"", "2021", "2021-", "2021-1", "2021-001", "2021/01", "+2021-01",
+                "02021-01", "2021-01-01", "2021-0x"}) {
+            final DateTimeParseException expected = assertThrows(DateTimeParseException.class,
+                    () -> YearMonth.parse(text, ISO_MONTH), text);
+            assertSameError(expected, () -> IsoParser.parseMonthId(text));
+        }
+    }
+
+    @Test
+    void rejectsTheMonthsOutOfTheYear() {
+        // Without a day java.time does not check the month, the message is the one of LocalDate.
+        for (int month : new int[] {0, 13, 99}) {
+            final String text = String.format("2021-%02d", month);
+            final DateTimeParseException exception = assertThrows(DateTimeParseException.class,
+                    () -> IsoParser.parseMonthId(text), text);
+            assertEquals("Text '" + text + "' could not be parsed: Invalid value for MonthOfYear (valid values 1 - 12): "
+                    + month, exception.getMessage());
+        }
+    }
+
+    /*
+     $      Week
+     */
+
+    @Test
+    void parsesTheWeeksOfLocalDate() {
+        for (int epochDay = -400_000; epochDay <= 400_000; epochDay += 7) {
+            final LocalDate date = LocalDate.ofEpochDay(epochDay);
+            final int year = date.get(IsoFields.WEEK_BASED_YEAR);
+            final int week = date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+            final String text = (year > 9999 ? "+" : "") + String.format("%04d-W%02d", year, week);
+            assertEquals(WeekOfYear.idOf(week, year), IsoParser.parseWeekId(text), text);
+        }
+    }
+
+    @Test
+    void rejectsTheWeeksThatDoNotExist() {
+        for (int year = 1900; year <= 2100; year++) {
+            final int weeks = (int)LocalDate.of(year, 6, 1).range(IsoFields.WEEK_OF_WEEK_BASED_YEAR).getMaximum();
+            for (int week : new int[] {0, weeks + 1, 54}) {
+                final String text = String.format("%04d-W%02d", year, week);
+                final DateTimeParseException exception = assertThrows(DateTimeParseException.class,
+                        () -> IsoParser.parseWeekId(text), text);
+                assertEquals("Text '" + text + "' could not be parsed: Invalid value for WeekOfWeekBasedYear"
+                        + " (valid values 1 - 52/53): " + week, exception.getMessage());
+            }
+        }
+        for (String text : new String[] {"2021-W1", "2021-w01", "2021-01", "2021-W011", "2021W01"})
+            assertThrows(DateTimeParseException.class, () -> IsoParser.parseWeekId(text), text);
+    }
+
+    /*
+     $      Period
+     */
+
+    @Test
+    void createsThePeriodsOfLocalDate() {
+        final Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            final LocalDate start = LocalDate.ofEpochDay(random.nextInt(200_000) - 100_000);
+            final LocalDate end = start.plusDays(random.nextInt(5_000));
+            assertEquals(new Period(start, end), new Period(start.toString(), end.toString()));
+        }
+    }
+
+    @Test
+    void rejectsThePeriodsOfInvalidDates() {
+        for (String text : INVALID_DATES) {
+            final DateTimeParseException expected = assertThrows(DateTimeParseException.class,
+                    () -> LocalDate.parse(text), text);
+            assertSameError(expected, () -> new Period(text, "2021-01-01"));
+            assertSameError(expected, () -> new Period("2021-01-01", text));
+        }
+    }
+
+    /*
+     $      Private methods
+     */
+
+    private static void assertDate(@NotNull final LocalDate date) {
+        final String text = date.toString();
+        assertEquals(LocalDate.parse(text).toEpochDay(), IsoParser.parseEpochDay(text), text);
+    }
+
+    private static void assertMonth(@NotNull final YearMonth month) {
+        final String text = ISO_MONTH.format(month);
+        assertEquals(YearMonth.parse(text, ISO_MONTH), month);
+        assertEquals(MonthYear.idOf(month.getMonthValue(), month.getYear()), IsoParser.parseMonthId(text), text);
+    }
+
+    private static void assertSameError(@NotNull final DateTimeParseException expected,
+                                        @NotNull final Executable executable) {
+        final DateTimeParseException actual = assertThrows(DateTimeParseException.class, executable,
+                expected.getParsedString());
+        assertEquals(expected.getMessage(), actual.getMessage());
+        assertEquals(expected.getParsedString(), actual.getParsedString());
+        assertEquals(expected.getErrorIndex(), actual.getErrorIndex(), expected.getMessage());
+    }
+
+}